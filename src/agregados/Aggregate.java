@@ -0,0 +1,27 @@
+package agregados;
+
+import grafos.HistoryListener;
+
+/**
+ * Agregado incremental sobre los eventos de un historial en streaming. Se registra como
+ * observador del historial, de modo que se actualiza con cada evento que entra y con cada
+ * evento que la política de retención descarta, sin recorrer el historial completo.
+ * 
+ * Los agregados leen el valor de cada evento al entrar y al salir, por lo que el atributo
+ * agregado no debe modificarse mientras el evento siga en el historial.
+ * 
+ * @param <T> Tipo de los eventos.
+ * @param <R> Tipo del resultado del agregado.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public interface Aggregate<T, R> extends HistoryListener<T> {
+	/**
+     * Obtiene el valor actual del agregado sobre los eventos del historial.
+     * 
+     * @return Resultado del agregado.
+     */
+	R result();
+}
@@ -0,0 +1,85 @@
+package agregados;
+
+/**
+ * Cola doble monótona para calcular el mínimo o el máximo de una ventana que descarta los
+ * eventos en el mismo orden en que llegan. Solo guarda los valores que todavía pueden ser el
+ * extremo de la ventana, junto con su número de orden de llegada; cada valor entra y sale una
+ * vez, así que el coste amortizado por evento es O(1).
+ * 
+ * Los valores se guardan en arrays circulares de tipos primitivos que crecen bajo demanda.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+final class MonotonicDeque {
+	private final boolean maximo;
+	private double[] valores = new double[16];
+	private long[] ordenes = new long[16];
+	private int inicio;
+	private int size;
+	private long llegados;
+	private long descartados;
+
+	/**
+     * Constructor de la cola.
+     * 
+     * @param maximo true para seguir el máximo, false para el mínimo.
+     */
+	MonotonicDeque(boolean maximo) {
+		this.maximo = maximo;
+	}
+
+	/**
+     * Añade un valor al final de la ventana.
+     */
+	void add(double x) {
+		while (size > 0 && domina(x, valores[posicion(size - 1)])) {
+			size--;
+		}
+		if (size == valores.length) crecer();
+		int p = posicion(size);
+		valores[p] = x;
+		ordenes[p] = llegados++;
+		size++;
+	}
+
+	/**
+     * Descarta el valor más antiguo de la ventana.
+     */
+	void evict() {
+		if (size > 0 && ordenes[inicio] == descartados) {
+			inicio = (inicio + 1) % valores.length;
+			size--;
+		}
+		descartados++;
+	}
+
+	/**
+     * Obtiene el extremo de la ventana.
+     */
+	double peek() {
+		return size == 0 ? Double.NaN : valores[inicio];
+	}
+
+	private boolean domina(double nuevo, double viejo) {
+		return maximo ? nuevo >= viejo : nuevo <= viejo;
+	}
+
+	private void crecer() {
+		double[] v = new double[valores.length * 2];
+		long[] o = new long[valores.length * 2];
+		for (int i = 0; i < size; i++) {
+			v[i] = valores[posicion(i)];
+			o[i] = ordenes[posicion(i)];
+		}
+		valores = v;
+		ordenes = o;
+		inicio = 0;
+	}
+
+	private int posicion(int indice) {
+		int p = inicio + indice;
+		return p < valores.length ? p : p - valores.length;
+	}
+}
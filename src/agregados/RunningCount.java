@@ -0,0 +1,38 @@
+package agregados;
+
+/**
+ * Número de eventos del historial.
+ * 
+ * @param <T> Tipo de los eventos.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class RunningCount<T> implements Aggregate<T, Long> {
+	private long n;
+
+	@Override
+	public void added(T evento) {
+		n++;
+	}
+
+	@Override
+	public void evicted(T evento) {
+		n--;
+	}
+
+	/**
+     * Obtiene el número de eventos sin crear un objeto.
+     * 
+     * @return Número de eventos.
+     */
+	public long count() {
+		return n;
+	}
+
+	@Override
+	public Long result() {
+		return n;
+	}
+}
@@ -0,0 +1,51 @@
+package agregados;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Media de un atributo numérico de los eventos del historial, calculada a partir de una
+ * {@link RunningSum}.
+ * 
+ * @param <T> Tipo de los eventos.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class RunningMean<T> implements Aggregate<T, Double> {
+	private final RunningSum<T> suma;
+
+	/**
+     * Constructor de la media.
+     * 
+     * @param valor Función que obtiene el valor numérico de cada evento.
+     */
+	public RunningMean(ToDoubleFunction<? super T> valor) {
+		this.suma = new RunningSum<>(valor);
+	}
+
+	@Override
+	public void added(T evento) {
+		suma.added(evento);
+	}
+
+	@Override
+	public void evicted(T evento) {
+		suma.evicted(evento);
+	}
+
+	/**
+     * Obtiene la media sin crear un objeto.
+     * 
+     * @return Media de los valores, o 0 si el historial está vacío.
+     */
+	public double mean() {
+		long n = suma.count();
+		return n == 0 ? 0 : suma.sum() / n;
+	}
+
+	@Override
+	public Double result() {
+		return mean();
+	}
+}
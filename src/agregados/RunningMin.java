@@ -0,0 +1,51 @@
+package agregados;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Valor mínimo de un atributo numérico de los eventos del historial. Usa una cola monótona,
+ * por lo que funciona con ventanas deslizantes con coste O(1) amortizado por evento.
+ * 
+ * @param <T> Tipo de los eventos.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class RunningMin<T> implements Aggregate<T, Double> {
+	private final ToDoubleFunction<? super T> valor;
+	private final MonotonicDeque cola = new MonotonicDeque(false);
+
+	/**
+     * Constructor del mínimo.
+     * 
+     * @param valor Función que obtiene el valor numérico de cada evento.
+     */
+	public RunningMin(ToDoubleFunction<? super T> valor) {
+		this.valor = valor;
+	}
+
+	@Override
+	public void added(T evento) {
+		cola.add(valor.applyAsDouble(evento));
+	}
+
+	@Override
+	public void evicted(T evento) {
+		cola.evict();
+	}
+
+	/**
+     * Obtiene el mínimo sin crear un objeto.
+     * 
+     * @return Valor mínimo, o NaN si el historial está vacío.
+     */
+	public double min() {
+		return cola.peek();
+	}
+
+	@Override
+	public Double result() {
+		return min();
+	}
+}
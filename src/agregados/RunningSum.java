@@ -0,0 +1,81 @@
+package agregados;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Suma de un atributo numérico de los eventos del historial.
+ * 
+ * Los eventos descartados se restan de la suma. Para que los errores de redondeo no se
+ * acumulen a lo largo de millones de sumas y restas se usa suma compensada (Neumaier), y la
+ * suma vuelve exactamente a 0 cada vez que el historial se vacía.
+ * 
+ * @param <T> Tipo de los eventos.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class RunningSum<T> implements Aggregate<T, Double> {
+	private final ToDoubleFunction<? super T> valor;
+	private double suma;
+	private double compensacion;
+	private long n;
+
+	/**
+     * Constructor de la suma.
+     * 
+     * @param valor Función que obtiene el valor numérico de cada evento.
+     */
+	public RunningSum(ToDoubleFunction<? super T> valor) {
+		this.valor = valor;
+	}
+
+	@Override
+	public void added(T evento) {
+		sumar(valor.applyAsDouble(evento));
+		n++;
+	}
+
+	@Override
+	public void evicted(T evento) {
+		if (--n == 0) {
+			suma = 0;
+			compensacion = 0;
+		} else {
+			sumar(-valor.applyAsDouble(evento));
+		}
+	}
+
+	private void sumar(double x) {
+		double t = suma + x;
+		if (Math.abs(suma) >= Math.abs(x)) {
+			compensacion += (suma - t) + x;
+		} else {
+			compensacion += (x - t) + suma;
+		}
+		suma = t;
+	}
+
+	/**
+     * Obtiene la suma sin crear un objeto.
+     * 
+     * @return Suma de los valores.
+     */
+	public double sum() {
+		return suma + compensacion;
+	}
+
+	/**
+     * Obtiene el número de eventos sumados.
+     * 
+     * @return Número de eventos.
+     */
+	public long count() {
+		return n;
+	}
+
+	@Override
+	public Double result() {
+		return sum();
+	}
+}
@@ -0,0 +1,93 @@
+package agregados;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Varianza de un atributo numérico de los eventos del historial, mediante el algoritmo de
+ * Welford. Los eventos descartados se eliminan aplicando el mismo paso a la inversa, de modo
+ * que la actualización es O(1) también con ventanas deslizantes.
+ * 
+ * @param <T> Tipo de los eventos.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class RunningVariance<T> implements Aggregate<T, Double> {
+	private final ToDoubleFunction<? super T> valor;
+	private long n;
+	private double media;
+	private double m2;
+
+	/**
+     * Constructor de la varianza.
+     * 
+     * @param valor Función que obtiene el valor numérico de cada evento.
+     */
+	public RunningVariance(ToDoubleFunction<? super T> valor) {
+		this.valor = valor;
+	}
+
+	@Override
+	public void added(T evento) {
+		double x = valor.applyAsDouble(evento);
+		n++;
+		double d = x - media;
+		media += d / n;
+		m2 += d * (x - media);
+	}
+
+	@Override
+	public void evicted(T evento) {
+		if (--n == 0) {
+			media = 0;
+			m2 = 0;
+			return;
+		}
+		double x = valor.applyAsDouble(evento);
+		double d = x - media;
+		media -= d / n;
+		m2 = Math.max(0, m2 - d * (x - media));
+	}
+
+	/**
+     * Obtiene la media de los valores.
+     * 
+     * @return Media, o 0 si el historial está vacío.
+     */
+	public double mean() {
+		return media;
+	}
+
+	/**
+     * Obtiene la varianza poblacional de los valores.
+     * 
+     * @return Varianza, o 0 si el historial está vacío.
+     */
+	public double variance() {
+		return n == 0 ? 0 : m2 / n;
+	}
+
+	/**
+     * Obtiene la varianza muestral (dividiendo entre n-1) de los valores.
+     * 
+     * @return Varianza muestral, o 0 si hay menos de dos eventos.
+     */
+	public double sampleVariance() {
+		return n < 2 ? 0 : m2 / (n - 1);
+	}
+
+	/**
+     * Obtiene la desviación típica poblacional de los valores.
+     * 
+     * @return Desviación típica.
+     */
+	public double stdDev() {
+		return Math.sqrt(variance());
+	}
+
+	@Override
+	public Double result() {
+		return variance();
+	}
+}
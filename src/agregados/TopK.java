@@ -0,0 +1,66 @@
+package agregados;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Los k mayores eventos del historial según un comparador, de mayor a menor.
+ * 
+ * Como los eventos pueden salir de la ventana, no basta con un montículo de tamaño k: se
+ * guardan todos los eventos de la ventana en un árbol ordenado, lo que da O(log n) por
+ * evento, y el resultado se obtiene en O(k). Los eventos iguales según el comparador se
+ * agrupan en orden de llegada, de modo que al descartar uno se elimina el más antiguo.
+ * 
+ * @param <T> Tipo de los eventos.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class TopK<T> implements Aggregate<T, List<T>> {
+	private final int k;
+	private final TreeMap<T, ArrayDeque<T>> eventos;
+
+	/**
+     * Constructor del top-k.
+     * 
+     * @param k Número de eventos del resultado.
+     * @param orden Comparador que define qué eventos son mayores.
+     */
+	public TopK(int k, Comparator<? super T> orden) {
+		if (k <= 0) {
+			throw new IllegalArgumentException("k debe ser positivo: " + k);
+		}
+		this.k = k;
+		this.eventos = new TreeMap<>(orden);
+	}
+
+	@Override
+	public void added(T evento) {
+		eventos.computeIfAbsent(evento, e -> new ArrayDeque<>(1)).addLast(evento);
+	}
+
+	@Override
+	public void evicted(T evento) {
+		ArrayDeque<T> iguales = eventos.get(evento);
+		if (iguales == null) return;
+		iguales.pollFirst();
+		if (iguales.isEmpty()) eventos.remove(evento);
+	}
+
+	@Override
+	public List<T> result() {
+		List<T> top = new ArrayList<>(k);
+		for (Map.Entry<T, ArrayDeque<T>> e : eventos.descendingMap().entrySet()) {
+			for (T evento : e.getValue()) {
+				if (top.size() == k) return top;
+				top.add(evento);
+			}
+		}
+		return top;
+	}
+}
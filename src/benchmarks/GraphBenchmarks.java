@@ -0,0 +1,344 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import agregados.RunningMean;
+import datos.DoubleData;
+import datos.NumericData;
+import decoradores.AsyncLogWriter;
+import decoradores.StateGraphLogger;
+import decoradores.StateGraphProfiler;
+import grafos.Graph;
+import grafos.HistoryWindow;
+import grafos.StateGraph;
+import grafos.StateGraphBuilder;
+import grafos.StreamingStateGraph;
+
+/**
+ * Benchmarks JMH de los caminos críticos del motor de grafos:
+ * <ul>
+ *   <li>StateGraph.run sobre un grafo lineal, uno con ramificaciones y un bucle sobre sí mismo;</li>
+ *   <li>NodeG con distintas profundidades de anidamiento;</li>
+ *   <li>StreamingStateGraph con distintos tamaños de historial, con la media que recorre el
+ *       historial y con la media incremental;</li>
+ *   <li>cada decorador (NodeLogger, NodeProfiler y ambos apilados) sobre el bucle;</li>
+ *   <li>la construcción de un grafo generado de {@value #GENERADOS} nodos, arista a arista con
+ *       StateGraph y en bloque con StateGraphBuilder.</li>
+ * </ul>
+ * Cada resultado se entrega a un {@link Blackhole} para que el JIT no elimine el trabajo medido.
+ * Se compilan y empaquetan con el módulo {@code benchmarks/pom.xml} y se ejecutan con
+ * {@code java -jar benchmarks/target/benchmarks.jar -prof gc}, o con {@link #main(String[])},
+ * que añade siempre el perfilador de GC.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class GraphBenchmarks {
+	private static final int LONGITUD = 10;
+	private static final int VUELTAS = 10;
+	private static final int GENERADOS = 100_000;
+
+	/**
+     * Método principal que lanza los benchmarks con el perfilador de GC.
+     *
+     * @param args Filtro opcional sobre el nombre de los benchmarks.
+     */
+	public static void main(String[] args) throws RunnerException {
+		String filtro = args.length > 0 ? args[0] : "";
+		new Runner(new OptionsBuilder()
+				.include(GraphBenchmarks.class.getSimpleName() + ".*" + filtro)
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+
+	/**
+     * Grafos de StateGraph.run, construidos y sellados una vez por prueba.
+     */
+	@State(Scope.Benchmark)
+	public static class Ejecucion {
+		@Param({"linear", "branching", "self-loop"})
+		public String forma;
+
+		StateGraph<NumericData> grafo;
+		int op1;
+
+		@Setup(Level.Trial)
+		public void preparar() {
+			switch (forma) {
+				case "linear" -> grafo = linear();
+				case "branching" -> grafo = branching();
+				default -> {
+					grafo = selfLoop(new StateGraph<>("loop-down", "Decrease op1 until 0"));
+					op1 = VUELTAS;
+				}
+			}
+		}
+	}
+
+	/**
+     * Grafos anidados con NodeG hasta la profundidad indicada.
+     */
+	@State(Scope.Benchmark)
+	public static class Anidado {
+		@Param({"1", "4", "16"})
+		public int profundidad;
+
+		StateGraph<NumericData> grafo;
+
+		@Setup(Level.Trial)
+		public void preparar() {
+			grafo = nested(profundidad);
+		}
+	}
+
+	/**
+     * Grafo en streaming con la media sobre una ventana ya llena.
+     */
+	@State(Scope.Benchmark)
+	public static class Streaming {
+		@Param({"10", "1000", "100000"})
+		public int tam;
+
+		@Param({"scan", "incremental"})
+		public String media;
+
+		StreamingStateGraph<DoubleData> grafo;
+		DoubleData[] eventos;
+		int siguiente;
+
+		@Setup(Level.Trial)
+		public void preparar() {
+			grafo = streaming(tam, media.equals("incremental"));
+			eventos = new DoubleData[200];
+			for (int i = 0; i < eventos.length; i++) {
+				eventos[i] = new DoubleData(i, 0.0);
+			}
+		}
+	}
+
+	/**
+     * Bucle loop-down con cada combinación de decoradores. El grafo se rehace en cada iteración
+     * para que las trazas del perfilador no crezcan durante toda la prueba.
+     */
+	@State(Scope.Benchmark)
+	public static class Decorado {
+		@Param({"none", "logger", "profiler", "profiler(sample 64)", "profiler(per loop)", "profiler+logger"})
+		public String decoradores;
+
+		AsyncLogWriter writer;
+		Graph<NumericData> grafo;
+
+		@Setup(Level.Trial)
+		public void abrir() throws IOException {
+			File fichero = File.createTempFile("graph-bench", ".txt");
+			fichero.deleteOnExit();
+			writer = new AsyncLogWriter(fichero.getPath());
+		}
+
+		@Setup(Level.Iteration)
+		public void preparar() {
+			grafo = switch (decoradores) {
+				case "none" -> selfLoop(new StateGraph<>("loop-down", "Decrease op1 until 0"));
+				case "logger" -> selfLoop(new StateGraphLogger<NumericData>(new StateGraph<>("loop-down", ""), writer));
+				case "profiler" -> selfLoop(new StateGraphProfiler<NumericData>(new StateGraph<>("loop-down", "")));
+				case "profiler(sample 64)" -> selfLoop(new StateGraphProfiler<NumericData>(new StateGraph<>("loop-down", ""), 64));
+				case "profiler(per loop)" -> selfLoop(new StateGraphProfiler<NumericData>(new StateGraph<>("loop-down", "")).aggregateLoops());
+				case "profiler+logger" -> selfLoop(new StateGraphProfiler<NumericData>(
+						new StateGraphLogger<NumericData>(new StateGraph<>("loop-down", ""), writer)));
+				default -> throw new IllegalArgumentException("Decoradores desconocidos: " + decoradores);
+			};
+		}
+
+		@TearDown(Level.Trial)
+		public void cerrar() {
+			writer.close();
+		}
+	}
+
+	@Benchmark
+	public void run(Ejecucion e, Blackhole bh) {
+		bh.consume(e.grafo.run(new NumericData(e.op1, 0), false));
+	}
+
+	@Benchmark
+	public void nodeg(Anidado a, Blackhole bh) {
+		bh.consume(a.grafo.run(new NumericData(0, 0), false));
+	}
+
+	@Benchmark
+	public void streaming(Streaming s, Blackhole bh) {
+		bh.consume(s.grafo.run(s.eventos[s.siguiente++ % s.eventos.length], false));
+	}
+
+	@Benchmark
+	public void decorators(Decorado d, Blackhole bh) {
+		bh.consume(d.grafo.run(new NumericData(VUELTAS, 0), false));
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 5, batchSize = 1)
+	@Measurement(iterations = 10, batchSize = 1)
+	public void buildIncremental(Blackhole bh) {
+		bh.consume(generatedIncremental(GENERADOS));
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 5, batchSize = 1)
+	@Measurement(iterations = 10, batchSize = 1)
+	public void buildBulk(Blackhole bh) {
+		bh.consume(generatedBulk(GENERADOS));
+	}
+
+	/**
+     * Cadena de nodos que suman 1 al resultado.
+     */
+	private static StateGraph<NumericData> linear() {
+		StateGraph<NumericData> sg = new StateGraph<>("linear", "Chain of increments");
+		for (int i = 0; i < LONGITUD; i++) {
+			sg.addNode("n" + i, (NumericData mo) -> mo.setInt(NumericData.RESULT, mo.getInt(NumericData.RESULT) + 1));
+			if (i > 0) sg.addEdge("n" + (i - 1), "n" + i);
+		}
+		sg.setInitial("n0");
+		sg.seal();
+		return sg;
+	}
+
+	/**
+     * Cadena de nodos que eligen entre dos ramas según la paridad del resultado.
+     */
+	private static StateGraph<NumericData> branching() {
+		StateGraph<NumericData> sg = new StateGraph<>("branching", "Choose a branch on each level");
+		for (int i = 0; i < LONGITUD; i++) {
+			sg.addNode("check" + i, (NumericData mo) -> mo.setInt(NumericData.OP1, mo.getInt(NumericData.OP1) + 1));
+			sg.addNode("even" + i, (NumericData mo) -> mo.setInt(NumericData.RESULT, mo.getInt(NumericData.RESULT) + 2));
+			sg.addNode("odd" + i, (NumericData mo) -> mo.setInt(NumericData.RESULT, mo.getInt(NumericData.RESULT) + 1));
+			sg.addConditionalEdge("check" + i, "even" + i, (NumericData mo) -> mo.getInt(NumericData.OP1) % 2 == 0);
+			sg.addEdge("check" + i, "odd" + i);
+			if (i > 0) {
+				sg.addEdge("even" + (i - 1), "check" + i);
+				sg.addEdge("odd" + (i - 1), "check" + i);
+			}
+		}
+		sg.setInitial("check0");
+		sg.seal();
+		return sg;
+	}
+
+	/**
+     * Construye arista a arista un grafo generado: una cadena de nodos en la que cada uno
+     * salta condicionalmente al siguiente de dos en dos y si no pasa al siguiente.
+     */
+	private static StateGraph<NumericData> generatedIncremental(int n) {
+		StateGraph<NumericData> sg = new StateGraph<>("generated", "Generated chain");
+		for (int i = 0; i < n; i++) {
+			sg.addNode("n" + i, (NumericData mo) -> mo.setInt(NumericData.RESULT, mo.getInt(NumericData.RESULT) + 1));
+		}
+		for (int i = 0; i + 1 < n; i++) {
+			if (i + 2 < n) sg.addConditionalEdge("n" + i, "n" + (i + 2), (NumericData mo) -> mo.getInt(NumericData.OP1) > 0);
+			sg.addEdge("n" + i, "n" + (i + 1));
+		}
+		sg.setInitial("n0");
+		sg.setFinal("n" + (n - 1));
+		return sg;
+	}
+
+	/**
+     * Construye en bloque el mismo grafo que {@link #generatedIncremental(int)}.
+     */
+	private static StateGraph<NumericData> generatedBulk(int n) {
+		StateGraphBuilder<NumericData> b = new StateGraphBuilder<>("generated", "Generated chain", n, 2 * n);
+		for (int i = 0; i < n; i++) {
+			b.addNode("n" + i, (NumericData mo) -> mo.setInt(NumericData.RESULT, mo.getInt(NumericData.RESULT) + 1));
+		}
+		for (int i = 0; i + 1 < n; i++) {
+			if (i + 2 < n) b.addConditionalEdge("n" + i, "n" + (i + 2), (NumericData mo) -> mo.getInt(NumericData.OP1) > 0);
+			b.addEdge("n" + i, "n" + (i + 1));
+		}
+		return b.setInitial("n0").setFinal("n" + (n - 1)).build();
+	}
+
+	/**
+     * Configura el flujo loop-down de MainAp5 sobre un grafo.
+     */
+	private static <G extends Graph<NumericData>> G selfLoop(G g) {
+		g.addNode("decrease", (NumericData mo) -> mo.setInt(NumericData.OP1, mo.getInt(NumericData.OP1) - 1))
+		 .addConditionalEdge("decrease", "decrease", (NumericData mo) -> mo.getInt(NumericData.OP1) > 0)
+		 .setInitial("decrease");
+		return g;
+	}
+
+	/**
+     * Grafos anidados con NodeG; el más interno suma 1 al resultado.
+     */
+	private static StateGraph<NumericData> nested(int profundidad) {
+		StateGraph<NumericData> interno = new StateGraph<>("level0", "Innermost graph");
+		interno.addNode("inc", (NumericData mo) -> mo.setInt(NumericData.RESULT, mo.getInt(NumericData.RESULT) + 1));
+		interno.setInitial("inc");
+		for (int i = 1; i <= profundidad; i++) {
+			StateGraph<NumericData> externo = new StateGraph<>("level" + i, "Wraps level " + (i - 1));
+			externo.addWfNode("inner", interno)
+			       .withInjector((NumericData mo) -> mo)
+			       .withExtractor((NumericData dentro, NumericData fuera) -> {});
+			externo.setInitial("inner");
+			interno = externo;
+		}
+		interno.seal();
+		return interno;
+	}
+
+	/**
+     * Prepara un grafo en streaming con la media sobre una ventana ya llena.
+     */
+	private static StreamingStateGraph<DoubleData> streaming(int tam, boolean incremental) {
+		StreamingStateGraph<DoubleData> sg = new StreamingStateGraph<DoubleData>("average", "Average over a window",
+				HistoryWindow.sliding(tam));
+		if (incremental) {
+			sg.addAggregateNode("average", new RunningMean<>(DoubleData::getValue), DoubleData::setAverage);
+		} else {
+			sg.addNode("average", (List<DoubleData> dd) -> {
+				double suma = 0.0;
+				for (DoubleData v : dd) {
+					suma += v.getValue();
+				}
+				dd.getLast().setAverage(suma / dd.size());
+			});
+		}
+		sg.setInitial("average");
+		for (int i = 0; i < tam; i++) {
+			sg.run(new DoubleData(i % 200, 0.0), false);
+		}
+		return sg;
+	}
+}
@@ -0,0 +1,94 @@
+package cache;
+
+/**
+ * Contadores de un {@link ResultCache} tomados en un momento dado.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class CacheStats {
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final long expirations;
+	private final int size;
+
+	/**
+	 * Crea una instantánea de los contadores de una caché.
+	 *
+	 * @param hits Consultas que encontraron un valor.
+	 * @param misses Consultas que no encontraron un valor.
+	 * @param evictions Entradas descartadas por falta de espacio.
+	 * @param expirations Entradas descartadas por haber caducado.
+	 * @param size Número de entradas actual.
+	 */
+	public CacheStats(long hits, long misses, long evictions, long expirations, int size) {
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.expirations = expirations;
+		this.size = size;
+	}
+
+	/**
+	 * Obtiene el número de aciertos.
+	 *
+	 * @return Consultas que encontraron un valor.
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Obtiene el número de fallos.
+	 *
+	 * @return Consultas que no encontraron un valor.
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Obtiene el número de entradas descartadas por falta de espacio.
+	 *
+	 * @return Número de descartes.
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Obtiene el número de entradas descartadas por haber caducado.
+	 *
+	 * @return Número de entradas caducadas.
+	 */
+	public long getExpirations() {
+		return expirations;
+	}
+
+	/**
+	 * Obtiene el número de entradas de la caché.
+	 *
+	 * @return Número de entradas.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Obtiene la proporción de consultas que encontraron un valor.
+	 *
+	 * @return Tasa de aciertos entre 0 y 1, o 0 si no ha habido consultas.
+	 */
+	public double getHitRate() {
+		long total = hits + misses;
+		return total == 0 ? 0 : hits / (double) total;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[hits=%d misses=%d hitRate=%.3f evictions=%d expirations=%d size=%d]",
+				hits, misses, getHitRate(), evictions, expirations, size);
+	}
+}
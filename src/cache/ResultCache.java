@@ -0,0 +1,210 @@
+package cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Caché acotada de resultados con descarte LRU (el menos usado recientemente) y caducidad
+ * opcional.
+ *
+ * Para que varios hilos puedan usarla a la vez sin competir por un único cerrojo, las entradas
+ * se reparten por su hash entre varios segmentos, cada uno con su propia lista LRU y su parte
+ * de la capacidad. El descarte es por tanto LRU dentro de cada segmento, una aproximación al
+ * LRU global. Los contadores de aciertos, fallos, descartes y caducidades no usan bloqueos.
+ *
+ * @param <K> Tipo de las claves.
+ * @param <V> Tipo de los valores (no pueden ser null).
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class ResultCache<K, V> {
+	private static final int MAX_SEGMENTOS = 16;
+	private static final int MIN_POR_SEGMENTO = 64;
+
+	/**
+	 * Valor guardado junto con el instante en que caduca.
+	 */
+	private static final class Entrada<V> {
+		final V valor;
+		final long caduca;
+
+		Entrada(V valor, long caduca) {
+			this.valor = valor;
+			this.caduca = caduca;
+		}
+	}
+
+	/**
+	 * Parte de la caché con su propia lista LRU, protegida por su propio cerrojo.
+	 */
+	private static final class Segmento<K, V> extends LinkedHashMap<K, Entrada<V>> {
+		private static final long serialVersionUID = 1L;
+		private final int capacidad;
+		private final LongAdder evictions;
+
+		Segmento(int capacidad, LongAdder evictions) {
+			super(16, 0.75f, true);
+			this.capacidad = capacidad;
+			this.evictions = evictions;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> eldest) {
+			if (size() > capacidad) {
+				evictions.increment();
+				return true;
+			}
+			return false;
+		}
+	}
+
+	private final Segmento<K, V>[] segmentos;
+	private final long ttlNanos;
+	private final LongSupplier reloj;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder expirations = new LongAdder();
+
+	/**
+     * Crea una caché sin caducidad.
+     *
+     * @param maxEntradas Número máximo de entradas.
+     */
+	public ResultCache(int maxEntradas) {
+		this(maxEntradas, null, System::nanoTime);
+	}
+
+	/**
+     * Crea una caché cuyas entradas caducan pasado un tiempo desde que se guardan.
+     *
+     * @param maxEntradas Número máximo de entradas.
+     * @param ttl Tiempo de vida de cada entrada (null si no caducan).
+     */
+	public ResultCache(int maxEntradas, Duration ttl) {
+		this(maxEntradas, ttl, System::nanoTime);
+	}
+
+	/**
+     * Constructor general de la caché.
+     *
+     * @param maxEntradas Número máximo de entradas.
+     * @param ttl Tiempo de vida de cada entrada (null si no caducan).
+     * @param reloj Fuente de tiempo en nanosegundos.
+     */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public ResultCache(int maxEntradas, Duration ttl, LongSupplier reloj) {
+		if (maxEntradas <= 0) {
+			throw new IllegalArgumentException("El número máximo de entradas debe ser positivo: " + maxEntradas);
+		}
+		int n = 1;
+		while (n < MAX_SEGMENTOS && maxEntradas / (n * 2) >= MIN_POR_SEGMENTO) {
+			n *= 2;
+		}
+		this.segmentos = new Segmento[n];
+		for (int i = 0; i < n; i++) {
+			segmentos[i] = new Segmento<>(maxEntradas / n + (i < maxEntradas % n ? 1 : 0), evictions);
+		}
+		this.ttlNanos = ttl == null ? Long.MAX_VALUE : ttl.toNanos();
+		this.reloj = reloj;
+	}
+
+	private Segmento<K, V> segmento(Object clave) {
+		int h = Objects.hashCode(clave);
+		h ^= h >>> 16;
+		return segmentos[h & (segmentos.length - 1)];
+	}
+
+	/**
+     * Busca el valor de una clave.
+     *
+     * @param clave Clave a buscar.
+     * @return Valor guardado, o null si no está o ha caducado.
+     */
+	public V get(K clave) {
+		Segmento<K, V> s = segmento(clave);
+		Entrada<V> e;
+		synchronized (s) {
+			e = s.get(clave);
+			if (e != null && ttlNanos != Long.MAX_VALUE && reloj.getAsLong() - e.caduca > 0) {
+				s.remove(clave);
+				expirations.increment();
+				e = null;
+			}
+		}
+		if (e == null) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return e.valor;
+	}
+
+	/**
+     * Guarda el valor de una clave, descartando la entrada menos usada si no hay espacio.
+     *
+     * @param clave Clave.
+     * @param valor Valor a guardar.
+     */
+	public void put(K clave, V valor) {
+		Objects.requireNonNull(valor, "La caché no admite valores null");
+		long caduca = ttlNanos == Long.MAX_VALUE ? 0 : reloj.getAsLong() + ttlNanos;
+		Segmento<K, V> s = segmento(clave);
+		synchronized (s) {
+			s.put(clave, new Entrada<>(valor, caduca));
+		}
+	}
+
+	/**
+     * Elimina la entrada de una clave.
+     *
+     * @param clave Clave a eliminar.
+     */
+	public void invalidate(K clave) {
+		Segmento<K, V> s = segmento(clave);
+		synchronized (s) {
+			s.remove(clave);
+		}
+	}
+
+	/**
+     * Elimina todas las entradas. Los contadores se conservan.
+     */
+	public void clear() {
+		for (Segmento<K, V> s : segmentos) {
+			synchronized (s) {
+				s.clear();
+			}
+		}
+	}
+
+	/**
+     * Obtiene el número de entradas guardadas (incluidas las caducadas que aún no se han consultado).
+     *
+     * @return Número de entradas.
+     */
+	public int size() {
+		int n = 0;
+		for (Segmento<K, V> s : segmentos) {
+			synchronized (s) {
+				n += s.size();
+			}
+		}
+		return n;
+	}
+
+	/**
+     * Obtiene los contadores de la caché.
+     *
+     * @return Instantánea de los contadores.
+     */
+	public CacheStats stats() {
+		return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), size());
+	}
+}
@@ -0,0 +1,25 @@
+package checkpoint;
+
+/**
+ * Punto de control de una ejecución: el siguiente nodo a ejecutar, los pasos completados y el
+ * dato en ese momento.
+ *
+ * @param <T> Tipo del dato.
+ * @param nodo Nombre del siguiente nodo a ejecutar, o null si la ejecución había terminado.
+ * @param pasos Pasos completados desde el inicio de la ejecución.
+ * @param estado Dato tras el último paso completado.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public record Checkpoint<T>(String nodo, long pasos, T estado) {
+	/**
+     * Indica si el punto de control corresponde a una ejecución ya terminada.
+     *
+     * @return true si no queda ningún nodo por ejecutar.
+     */
+	public boolean isFinished() {
+		return nodo == null;
+	}
+}
@@ -0,0 +1,66 @@
+package checkpoint;
+
+import java.time.Duration;
+
+/**
+ * Frecuencia con la que se guardan los puntos de control: cada cierto número de pasos, cada
+ * cierto tiempo o lo que ocurra antes. Para no leer el reloj en cada paso, el tiempo se
+ * consulta cada tantos pasos como quepan en 1/16 del intervalo al ritmo medido, y como mucho
+ * cada {@value #PASOS_ENTRE_RELOJ} pasos.
+ *
+ * @param pasos Pasos entre puntos de control (0 si no se limita por pasos).
+ * @param intervalo Tiempo entre puntos de control (null si no se limita por tiempo).
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public record CheckpointPolicy(long pasos, Duration intervalo) {
+	/** Máximo de pasos entre dos comprobaciones del tiempo transcurrido. */
+	public static final int PASOS_ENTRE_RELOJ = 4096;
+
+	/**
+     * Comprueba que la política limita los pasos, el tiempo o ambos.
+     *
+     * @throws IllegalArgumentException Si los valores no son válidos.
+     */
+	public CheckpointPolicy {
+		if (pasos < 0 || (intervalo != null && (intervalo.isNegative() || intervalo.isZero()))) {
+			throw new IllegalArgumentException("Política de puntos de control no válida: " + pasos + " pasos, " + intervalo);
+		}
+		if (pasos == 0 && intervalo == null) {
+			throw new IllegalArgumentException("La política debe limitar los pasos o el tiempo");
+		}
+	}
+
+	/**
+     * Guarda un punto de control cada n pasos.
+     *
+     * @param n Pasos entre puntos de control.
+     * @return Política creada.
+     */
+	public static CheckpointPolicy everySteps(long n) {
+		return new CheckpointPolicy(n, null);
+	}
+
+	/**
+     * Guarda un punto de control cada cierto tiempo.
+     *
+     * @param intervalo Tiempo entre puntos de control.
+     * @return Política creada.
+     */
+	public static CheckpointPolicy every(Duration intervalo) {
+		return new CheckpointPolicy(0, intervalo);
+	}
+
+	/**
+     * Guarda un punto de control cada n pasos o cada cierto tiempo, lo que ocurra antes.
+     *
+     * @param n Pasos entre puntos de control.
+     * @param intervalo Tiempo entre puntos de control.
+     * @return Política creada.
+     */
+	public static CheckpointPolicy every(long n, Duration intervalo) {
+		return new CheckpointPolicy(n, intervalo);
+	}
+}
@@ -0,0 +1,189 @@
+package checkpoint;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * Fichero local de puntos de control, de solo añadir, escrito mediante un mapeo en memoria.
+ *
+ * Cada punto de control es un registro con su longitud, un CRC32C del contenido y el contenido
+ * (pasos, siguiente nodo y dato serializado con un {@link StateCodec}). La longitud se escribe
+ * la última, así que un registro a medio escribir cuando muere la JVM no llega a ser válido; al
+ * abrir el fichero se recorren los registros hasta el primero que no lo es, y el último válido
+ * es el punto de control desde el que se reanuda.
+ *
+ * Las escrituras van a la caché de páginas del sistema operativo, por lo que sobreviven a la
+ * muerte de la JVM; para sobrevivir también a la del sistema hay que llamar a {@link #force()}.
+ * El mapeo crece duplicándose, hasta un máximo de 2 GB. No es seguro entre hilos: cada fichero
+ * debe usarse desde una sola ejecución a la vez.
+ *
+ * @param <T> Tipo del dato guardado.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public final class CheckpointStore<T> implements AutoCloseable {
+	private static final int MAGIA = 0x47434B50; // "GCKP"
+	private static final int VERSION = 1;
+	private static final int CABECERA_FICHERO = 8;
+	private static final int CABECERA_REGISTRO = 8;
+	private static final int REGION_INICIAL = 1 << 20;
+
+	private final FileChannel canal;
+	private final StateCodec<T> codec;
+	private final CRC32C crc = new CRC32C();
+	private MappedByteBuffer mapa;
+	private int pos;
+	private int ultimo = -1;
+
+	private CheckpointStore(FileChannel canal, StateCodec<T> codec) {
+		this.canal = canal;
+		this.codec = codec;
+	}
+
+	/**
+     * Abre (o crea) un fichero de puntos de control y localiza el último punto válido.
+     *
+     * @param <T> Tipo del dato guardado.
+     * @param path Ruta del fichero.
+     * @param codec Serializador del dato.
+     * @return Fichero abierto.
+     * @throws IOException Si no puede abrirse o no es un fichero de puntos de control.
+     */
+	public static <T> CheckpointStore<T> open(Path path, StateCodec<T> codec) throws IOException {
+		FileChannel canal = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		CheckpointStore<T> store = new CheckpointStore<>(canal, codec);
+		try {
+			store.cargar();
+		} catch (IOException | RuntimeException e) {
+			canal.close();
+			throw e;
+		}
+		return store;
+	}
+
+	/**
+     * Mapea el fichero y recorre sus registros.
+     */
+	private void cargar() throws IOException {
+		long tam = canal.size();
+		mapear((int) Math.min(Integer.MAX_VALUE, Math.max(REGION_INICIAL, tam)));
+		if (tam == 0) {
+			mapa.putInt(0, MAGIA).putInt(4, VERSION);
+		} else if (mapa.getInt(0) != MAGIA || mapa.getInt(4) != VERSION) {
+			throw new IOException("No es un fichero de puntos de control");
+		}
+
+		int off = CABECERA_FICHERO;
+		while (off + CABECERA_REGISTRO <= mapa.capacity()) {
+			int len = mapa.getInt(off);
+			if (len <= 0 || len > mapa.capacity() - off - CABECERA_REGISTRO) break;
+			if (mapa.getInt(off + 4) != crc(off + CABECERA_REGISTRO, len)) break;
+			ultimo = off;
+			off += CABECERA_REGISTRO + len;
+		}
+		pos = off;
+	}
+
+	private void mapear(int capacidad) throws IOException {
+		mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, capacidad);
+	}
+
+	private int crc(int inicio, int len) {
+		crc.reset();
+		crc.update(mapa.slice(inicio, len));
+		return (int) crc.getValue();
+	}
+
+	/**
+     * Añade un punto de control al final del fichero.
+     *
+     * @param nodo Siguiente nodo a ejecutar, o null si la ejecución ha terminado.
+     * @param pasos Pasos completados.
+     * @param estado Dato tras el último paso.
+     * @throws UncheckedIOException Si no puede ampliarse el fichero.
+     */
+	public void append(String nodo, long pasos, T estado) {
+		while (true) {
+			try {
+				mapa.position(pos + CABECERA_REGISTRO);
+				mapa.putLong(pasos);
+				Codecs.putString(mapa, nodo);
+				codec.encode(estado, mapa);
+				int len = mapa.position() - pos - CABECERA_REGISTRO;
+				// El siguiente registro queda marcado como inexistente antes de confirmar este
+				mapa.putInt(0);
+				mapa.putInt(pos + 4, crc(pos + CABECERA_REGISTRO, len));
+				mapa.putInt(pos, len);
+				ultimo = pos;
+				pos += CABECERA_REGISTRO + len;
+				return;
+			} catch (BufferOverflowException e) {
+				crecer();
+			}
+		}
+	}
+
+	/**
+     * Duplica el tamaño del mapeo.
+     */
+	private void crecer() {
+		if (mapa.capacity() == Integer.MAX_VALUE) {
+			throw new IllegalStateException("El fichero de puntos de control está lleno");
+		}
+		try {
+			mapear((int) Math.min(Integer.MAX_VALUE, 2L * mapa.capacity()));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+     * Obtiene el último punto de control válido.
+     *
+     * @return Punto de control, o vacío si el fichero no tiene ninguno.
+     */
+	public Optional<Checkpoint<T>> latest() {
+		if (ultimo < 0) return Optional.empty();
+		ByteBuffer b = mapa.duplicate().position(ultimo + CABECERA_REGISTRO);
+		long pasos = b.getLong();
+		String nodo = Codecs.getString(b);
+		return Optional.of(new Checkpoint<>(nodo, pasos, codec.decode(b)));
+	}
+
+	/**
+     * Descarta todos los puntos de control, para empezar una ejecución nueva.
+     */
+	public void reset() {
+		mapa.putInt(CABECERA_FICHERO, 0);
+		pos = CABECERA_FICHERO;
+		ultimo = -1;
+	}
+
+	/**
+     * Obliga a escribir en disco los puntos de control guardados.
+     */
+	public void force() {
+		mapa.force();
+	}
+
+	/**
+     * Escribe en disco los puntos de control y cierra el fichero.
+     *
+     * @throws IOException Si falla el cierre.
+     */
+	@Override
+	public void close() throws IOException {
+		force();
+		canal.close();
+	}
+}
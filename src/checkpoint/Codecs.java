@@ -0,0 +1,226 @@
+package checkpoint;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import datos.DoubleData;
+import datos.NumericData;
+import datos.NumericRecord;
+import datos.PersonData;
+import datos.RecordSchema;
+import datos.ShoppingListData;
+import datos.StringData;
+
+/**
+ * Serializadores de los tipos de datos del paquete datos para los puntos de control, en un
+ * formato binario compacto. Para cualquier otro tipo Serializable puede usarse
+ * {@link #serializable()}, que es más lento y ocupa más.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public final class Codecs {
+	private Codecs() {
+	}
+
+	/**
+     * Serializador de NumericData: los tres campos como enteros.
+     *
+     * @return Serializador.
+     */
+	public static StateCodec<NumericData> numericData() {
+		return new StateCodec<>() {
+			@Override
+			public void encode(NumericData estado, ByteBuffer out) {
+				out.putInt(estado.getInt(NumericData.OP1))
+				   .putInt(estado.getInt(NumericData.OP2))
+				   .putInt(estado.getInt(NumericData.RESULT));
+			}
+
+			@Override
+			public NumericData decode(ByteBuffer in) {
+				NumericData nd = new NumericData(in.getInt(), in.getInt());
+				nd.setInt(NumericData.RESULT, in.getInt());
+				return nd;
+			}
+		};
+	}
+
+	/**
+     * Serializador de registros numéricos de un esquema: sus campos, en orden, como enteros.
+     *
+     * @param schema Esquema de los registros.
+     * @return Serializador.
+     */
+	public static StateCodec<NumericRecord> numericRecord(RecordSchema schema) {
+		return new StateCodec<>() {
+			@Override
+			public void encode(NumericRecord estado, ByteBuffer out) {
+				for (int i = 0; i < schema.size(); i++) {
+					out.putInt(estado.getInt(i));
+				}
+			}
+
+			@Override
+			public NumericRecord decode(ByteBuffer in) {
+				NumericRecord r = new NumericRecord(schema);
+				for (int i = 0; i < schema.size(); i++) {
+					r.setInt(i, in.getInt());
+				}
+				return r;
+			}
+		};
+	}
+
+	/**
+     * Serializador de DoubleData: el valor y la media.
+     *
+     * @return Serializador.
+     */
+	public static StateCodec<DoubleData> doubleData() {
+		return new StateCodec<>() {
+			@Override
+			public void encode(DoubleData estado, ByteBuffer out) {
+				out.putDouble(estado.getValue()).putDouble(estado.getAverage());
+			}
+
+			@Override
+			public DoubleData decode(ByteBuffer in) {
+				return new DoubleData(in.getDouble(), in.getDouble());
+			}
+		};
+	}
+
+	/**
+     * Serializador de PersonData: el nombre y la edad.
+     *
+     * @return Serializador.
+     */
+	public static StateCodec<PersonData> personData() {
+		return new StateCodec<>() {
+			@Override
+			public void encode(PersonData estado, ByteBuffer out) {
+				putString(out, estado.name);
+				out.putInt(estado.age);
+			}
+
+			@Override
+			public PersonData decode(ByteBuffer in) {
+				return new PersonData(getString(in), in.getInt());
+			}
+		};
+	}
+
+	/**
+     * Serializador de StringData: la palabra, el resultado y las repeticiones pendientes.
+     *
+     * @return Serializador.
+     */
+	public static StateCodec<StringData> stringData() {
+		return new StateCodec<>() {
+			@Override
+			public void encode(StringData estado, ByteBuffer out) {
+				putString(out, estado.word());
+				putString(out, estado.getResult());
+				out.putInt(estado.times());
+			}
+
+			@Override
+			public StringData decode(ByteBuffer in) {
+				return new StringData(getString(in), getString(in), in.getInt());
+			}
+		};
+	}
+
+	/**
+     * Serializador de ShoppingListData: el número de elementos y cada uno de ellos.
+     *
+     * @return Serializador.
+     */
+	public static StateCodec<ShoppingListData> shoppingList() {
+		return new StateCodec<>() {
+			@Override
+			public void encode(ShoppingListData estado, ByteBuffer out) {
+				out.putInt(estado.size());
+				for (String s : estado) {
+					putString(out, s);
+				}
+			}
+
+			@Override
+			public ShoppingListData decode(ByteBuffer in) {
+				ShoppingListData lista = new ShoppingListData();
+				for (int i = in.getInt(); i > 0; i--) {
+					lista.add(getString(in));
+				}
+				return lista;
+			}
+		};
+	}
+
+	/**
+     * Serializador genérico con la serialización de Java.
+     *
+     * @param <T> Tipo del dato, que debe ser Serializable.
+     * @return Serializador.
+     */
+	public static <T extends Serializable> StateCodec<T> serializable() {
+		return new StateCodec<>() {
+			@Override
+			public void encode(T estado, ByteBuffer out) {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+					oos.writeObject(estado);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				out.putInt(bytes.size()).put(bytes.toByteArray());
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public T decode(ByteBuffer in) {
+				byte[] b = new byte[in.getInt()];
+				in.get(b);
+				try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(b))) {
+					return (T) ois.readObject();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				} catch (ClassNotFoundException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+	}
+
+	/**
+     * Escribe una cadena (que puede ser null) como su longitud en bytes UTF-8 y sus bytes.
+     */
+	static void putString(ByteBuffer out, String s) {
+		if (s == null) {
+			out.putInt(-1);
+			return;
+		}
+		byte[] b = s.getBytes(StandardCharsets.UTF_8);
+		out.putInt(b.length).put(b);
+	}
+
+	/**
+     * Lee una cadena escrita con {@link #putString(ByteBuffer, String)}.
+     */
+	static String getString(ByteBuffer in) {
+		int n = in.getInt();
+		if (n < 0) return null;
+		byte[] b = new byte[n];
+		in.get(b);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,32 @@
+package checkpoint;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Serializador del dato de un grafo para guardarlo en disco, en un punto de control o en un
+ * historial persistente ({@code grafos.MappedHistory}).
+ *
+ * @param <T> Tipo del dato.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public interface StateCodec<T> {
+    /**
+     * Escribe el dato en un buffer a partir de su posición actual. Si no cabe, debe dejar que
+     * salte la BufferOverflowException: el llamante reserva más espacio y lo vuelve a intentar.
+     *
+     * @param estado Dato a escribir.
+     * @param out Buffer de destino.
+     */
+    void encode(T estado, ByteBuffer out);
+
+    /**
+     * Lee un dato escrito con {@link #encode(Object, ByteBuffer)}.
+     *
+     * @param in Buffer situado al principio del dato.
+     * @return Dato leído.
+     */
+    T decode(ByteBuffer in);
+}
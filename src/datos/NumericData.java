@@ -1,27 +1,35 @@
 package datos;
 
-import java.util.LinkedHashMap;
-
 /**
  * La clase NumericData representa un conjunto de datos numéricos utilizados en operaciones matemáticas.
- * Extiende LinkedHashMap para almacenar pares clave-valor, específicamente con claves predefinidas como "op1", "op2" y "result".
+ * Es un {@link NumericRecord} con los campos predefinidos "op1", "op2" y "result", por lo que
+ * puede usarse como un mapa clave-valor o, más rápido, accediendo por posición a sus campos.
  * 
  * Esta clase es útil como contenedor de datos de entrada y salida en flujos de ejecución como grafos de estados.
  * 
  * Claves esperadas:
  * <ul>
- *   <li>"op1": primer operando</li>
- *   <li>"op2": segundo operando</li>
- *   <li>"result": resultado de la operación</li>
+ *   <li>"op1": primer operando ({@link #OP1})</li>
+ *   <li>"op2": segundo operando ({@link #OP2})</li>
+ *   <li>"result": resultado de la operación ({@link #RESULT})</li>
  * </ul>
  * 
  * @author Sofía Castro - sofiai.castro@estudiante.uam.es
  * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
  * Pareja 11
  */
-public class NumericData extends LinkedHashMap<String, Integer> implements PublicCloneable<NumericData>{
+public class NumericData extends NumericRecord implements PublicCloneable<NumericData>{
 	private static final long serialVersionUID = 1L;
 
+	/** Esquema común a todos los NumericData. */
+	public static final RecordSchema SCHEMA = RecordSchema.of("op1", "op2", "result");
+	/** Posición del primer operando. */
+	public static final int OP1 = SCHEMA.slot("op1");
+	/** Posición del segundo operando. */
+	public static final int OP2 = SCHEMA.slot("op2");
+	/** Posición del resultado. */
+	public static final int RESULT = SCHEMA.slot("result");
+
 	/**
      * Constructor que inicializa los operandos y el resultado.
      * 
@@ -29,12 +37,15 @@ public class NumericData extends LinkedHashMap<String, Integer> implements Publi
      * @param op2 Segundo operando.
      */
 	public NumericData(int op1, int op2) {
-		this.put("op1", op1);
-		this.put("op2", op2);
-		this.put("result", 0);
+		super(SCHEMA, op1, op2);
 	}
 	
     public NumericData clone() {
         return (NumericData) super.clone();
     }
+	
+	@Override
+	public NumericData snapshot() {
+		return (NumericData) super.snapshot();
+	}
 }
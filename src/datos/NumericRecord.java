@@ -0,0 +1,271 @@
+package datos;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Registro de campos numéricos enteros guardados en un array, con la posición de cada campo
+ * fijada por un {@link RecordSchema}. Acceder por posición con {@link #getInt(int)} y
+ * {@link #setInt(int, int)} no calcula hashes, no crea objetos Integer y no reserva memoria,
+ * y clonar el registro es copiar el array.
+ * 
+ * {@link #snapshot()} no copia nada: la instantánea comparte el array con el original y el
+ * primero de los dos que escribe un campo se hace antes su propia copia (copia en escritura).
+ * 
+ * Para el código existente el registro es también un {@code Map<String, Integer>} con los
+ * campos del esquema en orden, que lee y escribe sobre el mismo array. No pueden añadirse
+ * ni eliminarse campos, ni guardar valores null.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class NumericRecord extends AbstractMap<String, Integer> implements Cloneable, Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final RecordSchema schema;
+	private int[] valores;
+	private transient boolean compartido;
+
+	/**
+     * Crea un registro con todos los campos a 0.
+     * 
+     * @param schema Esquema del registro.
+     */
+	public NumericRecord(RecordSchema schema) {
+		this.schema = schema;
+		this.valores = new int[schema.size()];
+	}
+
+	/**
+     * Crea un registro con los primeros campos inicializados, en orden de posición, y el resto a 0.
+     * Permite a las subclases dar valores iniciales sin llamar a métodos sobrescribibles.
+     * 
+     * @param schema Esquema del registro.
+     * @param iniciales Valores de los primeros campos.
+     * @throws IllegalArgumentException Si hay más valores que campos en el esquema.
+     */
+	protected NumericRecord(RecordSchema schema, int... iniciales) {
+		this(schema);
+		if (iniciales.length > valores.length) {
+			throw new IllegalArgumentException("El esquema tiene " + valores.length + " campos y se dieron " + iniciales.length + " valores");
+		}
+		System.arraycopy(iniciales, 0, valores, 0, iniciales.length);
+	}
+
+	/**
+     * Obtiene el esquema del registro.
+     * 
+     * @return Esquema.
+     */
+	public RecordSchema getSchema() {
+		return schema;
+	}
+
+	/**
+     * Lee un campo por posición.
+     * 
+     * @param slot Posición del campo en el esquema.
+     * @return Valor del campo.
+     */
+	public int getInt(int slot) {
+		return valores[slot];
+	}
+
+	/**
+     * Escribe un campo por posición.
+     * 
+     * @param slot Posición del campo en el esquema.
+     * @param valor Nuevo valor.
+     */
+	public void setInt(int slot, int valor) {
+		propios()[slot] = valor;
+	}
+
+	/**
+     * Lee un campo por nombre.
+     * 
+     * @param nombre Nombre del campo.
+     * @return Valor del campo.
+     * @throws IllegalArgumentException Si el esquema no tiene ese campo.
+     */
+	public int getInt(String nombre) {
+		return valores[schema.slot(nombre)];
+	}
+
+	/**
+     * Escribe un campo por nombre.
+     * 
+     * @param nombre Nombre del campo.
+     * @param valor Nuevo valor.
+     * @throws IllegalArgumentException Si el esquema no tiene ese campo.
+     */
+	public void setInt(String nombre, int valor) {
+		propios()[schema.slot(nombre)] = valor;
+	}
+
+	/**
+     * Devuelve el array de valores para escribir en él, copiándolo antes si se comparte con
+     * una instantánea.
+     */
+	private int[] propios() {
+		if (compartido) {
+			valores = valores.clone();
+			compartido = false;
+		}
+		return valores;
+	}
+
+	@Override
+	public Integer get(Object key) {
+		int i = schema.indexOf(key);
+		return i < 0 ? null : valores[i];
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return schema.indexOf(key) >= 0;
+	}
+
+	@Override
+	public Integer put(String key, Integer value) {
+		int i = schema.slot(key);
+		int viejo = valores[i];
+		propios()[i] = value;
+		return viejo;
+	}
+
+	@Override
+	public int size() {
+		return valores.length;
+	}
+
+	@Override
+	public Set<Map.Entry<String, Integer>> entrySet() {
+		return new AbstractSet<>() {
+			@Override
+			public Iterator<Map.Entry<String, Integer>> iterator() {
+				return new Iterator<>() {
+					private int i;
+
+					@Override
+					public boolean hasNext() {
+						return i < valores.length;
+					}
+
+					@Override
+					public Map.Entry<String, Integer> next() {
+						if (i >= valores.length) throw new NoSuchElementException();
+						return new Campo(i++);
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return valores.length;
+			}
+		};
+	}
+
+	/**
+     * Entrada del mapa que lee y escribe un campo del array.
+     */
+	private final class Campo implements Map.Entry<String, Integer> {
+		private final int slot;
+
+		Campo(int slot) {
+			this.slot = slot;
+		}
+
+		@Override
+		public String getKey() {
+			return schema.name(slot);
+		}
+
+		@Override
+		public Integer getValue() {
+			return valores[slot];
+		}
+
+		@Override
+		public Integer setValue(Integer value) {
+			int viejo = valores[slot];
+			propios()[slot] = value;
+			return viejo;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Map.Entry<?, ?> e && getKey().equals(e.getKey()) && getValue().equals(e.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			return getKey().hashCode() ^ valores[slot];
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + "=" + valores[slot];
+		}
+	}
+
+	/**
+     * Compara con otro mapa. Entre registros del mismo esquema basta con comparar los arrays.
+     */
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof NumericRecord r && r.schema == schema) {
+			return Arrays.equals(valores, r.valores);
+		}
+		return super.equals(o);
+	}
+
+	/**
+     * Calcula el hash con la misma fórmula que cualquier mapa, sin crear entradas.
+     */
+	@Override
+	public int hashCode() {
+		int h = 0;
+		for (int i = 0; i < valores.length; i++) {
+			h += schema.name(i).hashCode() ^ valores[i];
+		}
+		return h;
+	}
+
+	@Override
+	public NumericRecord clone() {
+		try {
+			NumericRecord copia = (NumericRecord) super.clone();
+			copia.valores = valores.clone();
+			copia.compartido = false;
+			return copia;
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	/**
+     * Toma una instantánea del registro en O(1): comparte el array hasta que el original o la
+     * instantánea escriban un campo.
+     * 
+     * @return Registro independiente con los mismos valores.
+     */
+	public NumericRecord snapshot() {
+		try {
+			NumericRecord copia = (NumericRecord) super.clone();
+			copia.compartido = true;
+			this.compartido = true;
+			return copia;
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(e);
+		}
+	}
+}
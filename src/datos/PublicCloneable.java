@@ -1,5 +1,15 @@
 package datos;
 
-public interface PublicCloneable<T> extends Cloneable {
+public interface PublicCloneable<T> extends Cloneable, Snapshottable<T> {
     T clone();
+
+    /**
+     * Toma una instantánea del dato; si el tipo no la implementa de otra forma, es un clone().
+     *
+     * @return Copia independiente del dato.
+     */
+    @Override
+    default T snapshot() {
+        return clone();
+    }
 }
@@ -0,0 +1,111 @@
+package datos;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Esquema de un {@link NumericRecord}: la lista ordenada de nombres de sus campos. Cada campo
+ * ocupa una posición (slot) fija del array del registro.
+ * 
+ * Los nodos deberían resolver los slots que usan una sola vez, al construir el grafo, con
+ * {@link #slot(String)}, y acceder después al registro por posición.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public final class RecordSchema implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final String[] nombres;
+
+	private RecordSchema(String[] nombres) {
+		this.nombres = nombres;
+	}
+
+	/**
+     * Crea un esquema con los campos indicados, en ese orden.
+     * 
+     * @param nombres Nombres de los campos.
+     * @return Esquema creado.
+     */
+	public static RecordSchema of(String... nombres) {
+		String[] copia = nombres.clone();
+		for (int i = 0; i < copia.length; i++) {
+			if (copia[i] == null) {
+				throw new IllegalArgumentException("El nombre del campo " + i + " no puede ser null");
+			}
+			for (int j = 0; j < i; j++) {
+				if (copia[j].equals(copia[i])) {
+					throw new IllegalArgumentException("Campo repetido: " + copia[i]);
+				}
+			}
+		}
+		return new RecordSchema(copia);
+	}
+
+	/**
+     * Obtiene la posición de un campo.
+     * 
+     * @param nombre Nombre del campo.
+     * @return Posición del campo, o -1 si el esquema no lo tiene.
+     */
+	public int indexOf(Object nombre) {
+		for (int i = 0; i < nombres.length; i++) {
+			if (nombres[i] == nombre) return i;
+		}
+		for (int i = 0; i < nombres.length; i++) {
+			if (nombres[i].equals(nombre)) return i;
+		}
+		return -1;
+	}
+
+	/**
+     * Obtiene la posición de un campo que debe existir.
+     * 
+     * @param nombre Nombre del campo.
+     * @return Posición del campo.
+     * @throws IllegalArgumentException Si el esquema no tiene ese campo.
+     */
+	public int slot(String nombre) {
+		int i = indexOf(nombre);
+		if (i < 0) {
+			throw new IllegalArgumentException("Campo desconocido: " + nombre + " (campos: " + Arrays.toString(nombres) + ")");
+		}
+		return i;
+	}
+
+	/**
+     * Obtiene el nombre del campo de una posición.
+     * 
+     * @param slot Posición del campo.
+     * @return Nombre del campo.
+     */
+	public String name(int slot) {
+		return nombres[slot];
+	}
+
+	/**
+     * Obtiene el número de campos.
+     * 
+     * @return Número de campos.
+     */
+	public int size() {
+		return nombres.length;
+	}
+
+	/**
+     * Obtiene los nombres de los campos en orden.
+     * 
+     * @return Lista inmutable de nombres.
+     */
+	public List<String> names() {
+		return List.of(nombres);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(nombres);
+	}
+}
@@ -1,10 +1,121 @@
 package datos;
 
-import java.util.ArrayList;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
 
 /**
  * Clase personalizada que representa una lista de la compra.
+ *
+ * Se comporta como un ArrayList de cadenas, pero sus instantáneas ({@link #snapshot()}) no
+ * copian los elementos: comparten el array con el original hasta que alguno de los dos se
+ * modifica, y solo entonces se copia (copia en escritura).
  */
-public class ShoppingListData extends ArrayList<String> {
+public class ShoppingListData extends AbstractList<String>
+		implements RandomAccess, PublicCloneable<ShoppingListData>, Serializable {
 	private static final long serialVersionUID = 1L;
+	private static final int CAPACIDAD_INICIAL = 10;
+
+	private String[] elementos = new String[CAPACIDAD_INICIAL];
+	private int size;
+	private transient boolean compartido;
+
+	@Override
+	public String get(int index) {
+		Objects.checkIndex(index, size);
+		return elementos[index];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public String set(int index, String elemento) {
+		Objects.checkIndex(index, size);
+		String viejo = elementos[index];
+		propios(size)[index] = elemento;
+		return viejo;
+	}
+
+	@Override
+	public void add(int index, String elemento) {
+		Objects.checkIndex(index, size + 1);
+		String[] e = propios(size + 1);
+		System.arraycopy(e, index, e, index + 1, size - index);
+		e[index] = elemento;
+		size++;
+		modCount++;
+	}
+
+	@Override
+	public String remove(int index) {
+		Objects.checkIndex(index, size);
+		String[] e = propios(size);
+		String viejo = e[index];
+		System.arraycopy(e, index + 1, e, index, size - index - 1);
+		e[--size] = null;
+		modCount++;
+		return viejo;
+	}
+
+	@Override
+	public void clear() {
+		if (compartido) {
+			elementos = new String[CAPACIDAD_INICIAL];
+			compartido = false;
+		} else {
+			Arrays.fill(elementos, 0, size, null);
+		}
+		size = 0;
+		modCount++;
+	}
+
+	/**
+     * Devuelve el array de elementos para modificarlo, con sitio para la capacidad pedida.
+     * Si se comparte con una instantánea, antes se hace una copia propia.
+     */
+	private String[] propios(int capacidad) {
+		if (capacidad > elementos.length) {
+			elementos = Arrays.copyOf(elementos, Math.max(capacidad, elementos.length * 2));
+			compartido = false;
+		} else if (compartido) {
+			elementos = elementos.clone();
+			compartido = false;
+		}
+		return elementos;
+	}
+
+	@Override
+	public ShoppingListData clone() {
+		try {
+			ShoppingListData copia = (ShoppingListData) super.clone();
+			copia.elementos = elementos.clone();
+			copia.compartido = false;
+			return copia;
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	/**
+     * Toma una instantánea de la lista en O(1): comparte los elementos hasta que la lista o la
+     * instantánea se modifiquen.
+     *
+     * @return Lista independiente con los mismos elementos.
+     */
+	@Override
+	public ShoppingListData snapshot() {
+		try {
+			ShoppingListData copia = (ShoppingListData) super.clone();
+			copia.compartido = true;
+			this.compartido = true;
+			return copia;
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(e);
+		}
+	}
 }
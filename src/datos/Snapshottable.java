@@ -0,0 +1,26 @@
+package datos;
+
+/**
+ * Tipo de dato del que se pueden tomar instantáneas: copias independientes del estado en un
+ * momento dado, de forma que los cambios posteriores en el original no se ven en la copia ni
+ * al revés.
+ *
+ * A diferencia de clone(), la instantánea puede compartir estructura con el original y
+ * copiarla solo cuando uno de los dos se modifica (copia en escritura), por lo que tomarla
+ * puede costar O(1) en lugar de O(tamaño del dato). Es lo que usan el profiling para guardar
+ * la entrada de cada paso y las bifurcaciones para dar a cada rama su propia copia.
+ *
+ * @param <T> Tipo del dato.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public interface Snapshottable<T> {
+    /**
+     * Toma una instantánea del estado actual.
+     *
+     * @return Copia independiente del dato.
+     */
+    T snapshot();
+}
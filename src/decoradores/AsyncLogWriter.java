@@ -0,0 +1,375 @@
+package decoradores;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Escritor de logs asíncrono. Los registros se copian en un buffer circular de tamaño fijo
+ * y un hilo en segundo plano los vuelca por lotes a través de un único FileChannel abierto,
+ * en lugar de abrir, escribir y cerrar el fichero en cada registro.
+ *
+ * Políticas de volcado:
+ * <ul>
+ *   <li>Por tamaño: se escribe en cuanto hay al menos {@code flushBytes} bytes pendientes.</li>
+ *   <li>Por tiempo: los bytes pendientes nunca esperan más de {@code flushIntervalMs} milisegundos.</li>
+ *   <li>Al cerrar la JVM: opcionalmente se vuelca todo lo pendiente en un shutdown hook.</li>
+ * </ul>
+ * Si el buffer está lleno, según la {@link OverflowPolicy} el registro espera a que haya
+ * hueco o se descarta (contando los descartes).
+ *
+ * Un escritor puede compartirse entre varios loggers: {@link #open(String)} devuelve el
+ * escritor compartido de un fichero y cada {@link #close()} libera una referencia. Cuando se
+ * libera la última, se cierra el fichero; cada close, sea o no el último, vuelca antes todo
+ * lo pendiente.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public final class AsyncLogWriter implements AutoCloseable {
+	/** Capacidad por defecto del buffer circular, en bytes. */
+	public static final int DEFAULT_CAPACITY = 1 << 20;
+	/** Umbral por defecto de volcado por tamaño, en bytes. */
+	public static final int DEFAULT_FLUSH_BYTES = 64 * 1024;
+	/** Intervalo por defecto de volcado por tiempo, en milisegundos. */
+	public static final long DEFAULT_FLUSH_INTERVAL_MS = 200;
+
+	/**
+	 * Qué hacer con un registro cuando el buffer está lleno.
+	 */
+	public enum OverflowPolicy {
+		/** Esperar a que el hilo de volcado libere hueco. */
+		BLOCK,
+		/** Descartar el registro. */
+		DROP
+	}
+
+	private static final Map<Path, AsyncLogWriter> COMPARTIDOS = new ConcurrentHashMap<>();
+	private static final Set<AsyncLogWriter> VOLCAR_AL_SALIR = ConcurrentHashMap.newKeySet();
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			for (AsyncLogWriter w : VOLCAR_AL_SALIR) {
+				w.cerrar();
+			}
+		}, "log-writer-shutdown"));
+	}
+
+	private final Path path;
+	private final FileChannel channel;
+	private final byte[] ring;
+	private final ByteBuffer salida;
+	private final int flushBytes;
+	private final long flushIntervalNanos;
+	private final OverflowPolicy policy;
+	private final Thread volcador;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition hayDatos = lock.newCondition();
+	private final Condition hayHueco = lock.newCondition();
+	private final Condition escrito = lock.newCondition();
+
+	// Posiciones absolutas (nunca decrecen): bytes añadidos, bytes sacados del buffer y bytes ya escritos
+	private long cola;
+	private long cabeza;
+	private long escritos;
+	private boolean flushPedido;
+	private boolean cerrado;
+	private int referencias = 1;
+	private final AtomicLong descartados = new AtomicLong();
+
+	/**
+     * Crea un escritor con la configuración por defecto que vuelca al cerrar la JVM.
+     *
+     * @param path Ruta del fichero de log.
+     */
+	public AsyncLogWriter(String path) {
+		this(path, DEFAULT_CAPACITY, DEFAULT_FLUSH_BYTES, DEFAULT_FLUSH_INTERVAL_MS, OverflowPolicy.BLOCK, true);
+	}
+
+	/**
+     * Crea un escritor asíncrono sobre un fichero, que se abre en modo APPEND.
+     *
+     * @param path Ruta del fichero de log.
+     * @param capacity Capacidad del buffer circular en bytes.
+     * @param flushBytes Bytes pendientes a partir de los cuales se vuelca el buffer.
+     * @param flushIntervalMs Tiempo máximo que esperan los bytes pendientes antes de volcarse.
+     * @param policy Política cuando el buffer está lleno.
+     * @param flushOnShutdown Si es true, se vuelca lo pendiente al terminar la JVM.
+     * @throws UncheckedIOException Si no se puede abrir el fichero.
+     */
+	public AsyncLogWriter(String path, int capacity, int flushBytes, long flushIntervalMs,
+			OverflowPolicy policy, boolean flushOnShutdown) {
+		if (capacity <= 0 || flushBytes <= 0 || flushBytes > capacity || flushIntervalMs <= 0) {
+			throw new IllegalArgumentException("Configuración de volcado no válida");
+		}
+		this.path = Paths.get(path).toAbsolutePath().normalize();
+		try {
+			this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Error al abrir el archivo: " + e.getMessage(), e);
+		}
+		this.ring = new byte[capacity];
+		this.salida = ByteBuffer.allocateDirect(capacity);
+		this.flushBytes = flushBytes;
+		this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+		this.policy = policy;
+		this.volcador = new Thread(this::volcar, "log-writer-" + this.path.getFileName());
+		this.volcador.setDaemon(true);
+		this.volcador.start();
+		if (flushOnShutdown) {
+			VOLCAR_AL_SALIR.add(this);
+		}
+	}
+
+	/**
+     * Obtiene el escritor compartido de un fichero, creándolo con la configuración por
+     * defecto si no existe, y añade una referencia que debe liberarse con {@link #close()}.
+     *
+     * @param path Ruta del fichero de log.
+     * @return Escritor asociado al fichero.
+     */
+	public static AsyncLogWriter open(String path) {
+		Path clave = Paths.get(path).toAbsolutePath().normalize();
+		return COMPARTIDOS.compute(clave, (p, actual) -> {
+			if (actual != null && actual.retener()) {
+				return actual;
+			}
+			return new AsyncLogWriter(path);
+		});
+	}
+
+	/**
+     * Añade una referencia si el escritor sigue abierto.
+     */
+	private boolean retener() {
+		lock.lock();
+		try {
+			if (cerrado) return false;
+			referencias++;
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+     * Añade un texto al log, codificado en UTF-8.
+     *
+     * @param texto Texto a escribir.
+     * @return false si el registro se ha descartado por tener el buffer lleno.
+     */
+	public boolean write(String texto) {
+		return write(ByteBuffer.wrap(texto.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+     * Copia en el buffer los bytes restantes de un ByteBuffer. Tras la llamada el buffer de
+     * origen queda consumido y puede reutilizarse. Los registros más grandes que todo el
+     * buffer circular se escriben directamente en el fichero, tras lo que ya estuviera pendiente.
+     *
+     * @param registro Bytes a escribir.
+     * @return false si el registro se ha descartado por tener el buffer lleno.
+     * @throws IllegalStateException Si el escritor está cerrado.
+     */
+	public boolean write(ByteBuffer registro) {
+		int len = registro.remaining();
+		lock.lock();
+		try {
+			comprobarAbierto();
+			if (len > ring.length) {
+				esperarEscrito(cola);
+				escribirTodo(registro);
+				return true;
+			}
+			while (ring.length - (cola - cabeza) < len) {
+				if (policy == OverflowPolicy.DROP) {
+					descartados.incrementAndGet();
+					registro.position(registro.limit());
+					return false;
+				}
+				hayDatos.signal();
+				hayHueco.awaitUninterruptibly();
+				comprobarAbierto();
+			}
+			int pos = (int) (cola % ring.length);
+			int primero = Math.min(len, ring.length - pos);
+			registro.get(ring, pos, primero);
+			registro.get(ring, 0, len - primero);
+			cola += len;
+			if (cola - cabeza >= flushBytes) {
+				hayDatos.signal();
+			}
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+     * Fuerza el volcado de todo lo escrito hasta ahora y espera a que llegue al fichero.
+     */
+	public void flush() {
+		lock.lock();
+		try {
+			esperarEscrito(cola);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+     * Obtiene el número de registros descartados por tener el buffer lleno.
+     *
+     * @return Registros descartados.
+     */
+	public long dropped() {
+		return descartados.get();
+	}
+
+	/**
+     * Libera una referencia al escritor. Al volver, todos los registros aceptados hasta
+     * ahora están en el fichero, aunque otros loggers sigan usando el escritor. Al liberar la
+     * última referencia, además, se detiene el hilo de volcado y se cierra el fichero.
+     */
+	@Override
+	public void close() {
+		lock.lock();
+		try {
+			if (cerrado) return;
+			if (--referencias > 0) {
+				esperarEscrito(cola);
+				return;
+			}
+		} finally {
+			lock.unlock();
+		}
+		cerrar();
+	}
+
+	/**
+     * Cierra el escritor ignorando las referencias pendientes.
+     */
+	private void cerrar() {
+		lock.lock();
+		try {
+			if (cerrado) return;
+			esperarEscrito(cola);
+			cerrado = true;
+			hayDatos.signalAll();
+			hayHueco.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		try {
+			volcador.join();
+			channel.close();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			System.err.println("Error al cerrar el archivo: " + e.getMessage());
+		}
+		COMPARTIDOS.remove(path, this);
+		VOLCAR_AL_SALIR.remove(this);
+	}
+
+	/**
+     * Espera (con el cerrojo cogido) a que se hayan escrito en el fichero los bytes hasta una posición.
+     */
+	private void esperarEscrito(long posicion) {
+		while (escritos < posicion) {
+			flushPedido = true;
+			hayDatos.signal();
+			escrito.awaitUninterruptibly();
+		}
+	}
+
+	private void comprobarAbierto() {
+		if (cerrado) {
+			throw new IllegalStateException("El log " + path + " está cerrado");
+		}
+	}
+
+	/**
+     * Bucle del hilo de volcado: espera a que se cumpla alguna política de volcado, saca
+     * los bytes pendientes del buffer circular y los escribe fuera del cerrojo.
+     */
+	private void volcar() {
+		while (true) {
+			long hasta;
+			lock.lock();
+			try {
+				long limite = System.nanoTime() + flushIntervalNanos;
+				while (!cerrado && !flushPedido && cola - cabeza < flushBytes) {
+					long restante = limite - System.nanoTime();
+					if (restante <= 0) break;
+					try {
+						hayDatos.awaitNanos(restante);
+					} catch (InterruptedException e) {
+						// Solo se sale al cerrar el escritor
+					}
+				}
+				flushPedido = false;
+				if (cola == cabeza) {
+					if (cerrado) return;
+					continue;
+				}
+
+				salida.clear();
+				int len = (int) (cola - cabeza);
+				int pos = (int) (cabeza % ring.length);
+				int primero = Math.min(len, ring.length - pos);
+				salida.put(ring, pos, primero);
+				salida.put(ring, 0, len - primero);
+				salida.flip();
+				cabeza = cola;
+				hasta = cola;
+				hayHueco.signalAll();
+			} finally {
+				lock.unlock();
+			}
+
+			try {
+				escribirTodo(salida);
+			} catch (UncheckedIOException e) {
+				System.err.println(e.getMessage());
+			}
+
+			lock.lock();
+			try {
+				escritos = hasta;
+				escrito.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+     * Escribe en el canal todos los bytes restantes de un buffer.
+     */
+	private void escribirTodo(ByteBuffer buffer) {
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} catch (IOException e) {
+			buffer.position(buffer.limit());
+			throw new UncheckedIOException("Error al escribir el archivo: " + e.getMessage(), e);
+		}
+	}
+}
@@ -0,0 +1,253 @@
+package decoradores;
+
+import static decoradores.BinaryTraceWriter.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import checkpoint.StateCodec;
+
+/**
+ * Lector de ficheros de trazas escritos con {@link BinaryTraceWriter}. Recorre los registros
+ * en el orden del fichero, que es el orden en que se reservaron, y los convierte en
+ * {@link TraceRecord}; también puede convertir el fichero entero al formato de texto de
+ * {@link NodeLogger}.
+ *
+ * El fichero se mapea en memoria de solo lectura por segmentos. Si el escritor no llegó a
+ * cerrarse (por ejemplo, porque la JVM murió), se leen los registros hasta el primero que
+ * no llegó a publicarse.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class BinaryTraceReader implements Iterable<TraceRecord>, AutoCloseable {
+	private final FileChannel canal;
+	private final MappedByteBuffer[] segmentos;
+	private final long fin;
+	private final long baseEpoca;
+	private final long baseNanos;
+	private final boolean codificado;
+	private final StateCodec<?> codec;
+	private final Map<Integer, String> nombres = new HashMap<>();
+
+	/**
+     * Abre un fichero de trazas binario. Si las salidas se guardaron serializadas, los
+     * registros se leen sin ellas; para recuperarlas hay que usar
+     * {@link #BinaryTraceReader(Path, StateCodec)}.
+     *
+     * @param path Ruta del fichero.
+     * @throws IOException Si no puede abrirse o no es un fichero de trazas.
+     */
+	public BinaryTraceReader(Path path) throws IOException {
+		this(path, null);
+	}
+
+	/**
+     * Abre un fichero de trazas binario cuyas salidas se guardaron serializadas.
+     *
+     * @param path Ruta del fichero.
+     * @param codec Serializador con el que se escribieron las salidas (puede ser null).
+     * @throws IOException Si no puede abrirse o no es un fichero de trazas.
+     */
+	public BinaryTraceReader(Path path, StateCodec<?> codec) throws IOException {
+		this.canal = FileChannel.open(path, StandardOpenOption.READ);
+		this.codec = codec;
+		try {
+			long tam = canal.size();
+			if (tam < REGISTRO) {
+				throw new IOException("No es un fichero de trazas: " + path);
+			}
+			this.segmentos = new MappedByteBuffer[(int) ((tam + SEGMENTO - 1) / SEGMENTO)];
+			for (int i = 0; i < segmentos.length; i++) {
+				long base = (long) i * SEGMENTO;
+				segmentos[i] = canal.map(FileChannel.MapMode.READ_ONLY, base, Math.min(SEGMENTO, tam - base));
+			}
+			ByteBuffer cabecera = segmentos[0];
+			if (cabecera.getInt(0) != MAGIA || cabecera.getInt(4) != VERSION) {
+				throw new IOException("No es un fichero de trazas: " + path);
+			}
+			this.codificado = cabecera.getInt(H_CODIFICADO) != 0;
+			long cerrado = cabecera.getLong(H_FIN);
+			this.fin = cerrado > 0 ? Math.min(cerrado, tam) : tam;
+			this.baseEpoca = cabecera.getLong(H_BASE_EPOCA);
+			this.baseNanos = cabecera.getLong(H_BASE_NANOS);
+		} catch (IOException | RuntimeException e) {
+			canal.close();
+			throw e;
+		}
+	}
+
+	/**
+     * Recorre los registros de ejecución del fichero, en orden.
+     *
+     * @return Iterador de registros.
+     */
+	@Override
+	public Iterator<TraceRecord> iterator() {
+		return new Iterator<>() {
+			private long pos = REGISTRO;
+			private TraceRecord siguiente = avanzar();
+
+			/**
+		     * Lee registros hasta encontrar una ejecución, aprendiendo los nombres que haya antes.
+		     */
+			private TraceRecord avanzar() {
+				while (pos + ALINEACION <= fin) {
+					ByteBuffer seg = segmentos[(int) (pos / SEGMENTO)];
+					int off = (int) (pos % SEGMENTO);
+					int tipo = (int) ENTEROS.getAcquire(seg, off + R_TIPO);
+					switch (tipo) {
+						case EJECUCION, PERFIL -> {
+							int len = seg.getInt(off + R_CONTENIDO);
+							TraceRecord r = leer(seg, off, len, tipo == PERFIL);
+							pos += alinear(REGISTRO + Math.max(len, 0));
+							return r;
+						}
+						case NOMBRE -> {
+							int len = seg.getInt(off + R_LONGITUD);
+							byte[] b = new byte[len];
+							seg.get(off + R_DATOS_NOMBRE, b);
+							nombres.put(seg.getInt(off + R_ID), new String(b, StandardCharsets.UTF_8));
+							pos += alinear(R_DATOS_NOMBRE + len);
+						}
+						case RELLENO -> pos += seg.getInt(off + R_LONGITUD);
+						default -> {
+							return null; // LIBRE: registro no publicado
+						}
+					}
+				}
+				return null;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return siguiente != null;
+			}
+
+			@Override
+			public TraceRecord next() {
+				if (siguiente == null) throw new NoSuchElementException();
+				TraceRecord r = siguiente;
+				siguiente = avanzar();
+				return r;
+			}
+		};
+	}
+
+	/**
+     * Construye un registro de ejecución, recuperando su contenido si lo tiene.
+     */
+	private TraceRecord leer(ByteBuffer seg, int off, int len, boolean perfilado) {
+		Object contenido = null;
+		if (len >= 0) {
+			if (!codificado) {
+				byte[] b = new byte[len];
+				seg.get(off + REGISTRO, b);
+				contenido = new String(b, StandardCharsets.UTF_8);
+			} else if (codec != null) {
+				contenido = codec.decode(seg.slice(off + REGISTRO, len));
+			}
+		}
+		return new TraceRecord(seg.getLong(off + R_RUN), seg.getLong(off + R_PASO),
+				nombres.get(seg.getInt(off + R_NODO)), epoca(seg.getLong(off + R_INICIO)),
+				epoca(seg.getLong(off + R_FIN)), seg.getInt(off + R_VUELTAS), perfilado, contenido);
+	}
+
+	private long epoca(long nanos) {
+		return baseEpoca + (nanos - baseNanos);
+	}
+
+	private static int alinear(int bytes) {
+		return (bytes + ALINEACION - 1) / ALINEACION * ALINEACION;
+	}
+
+	/**
+     * Lee todos los registros de ejecución del fichero.
+     *
+     * @return Lista de registros, en orden.
+     */
+	public List<TraceRecord> readAll() {
+		List<TraceRecord> todos = new ArrayList<>();
+		for (TraceRecord r : this) {
+			todos.add(r);
+		}
+		return todos;
+	}
+
+	/**
+     * Escribe el fichero en el formato de texto de NodeLogger: una línea por registro, con la
+     * marca de tiempo del final de la ejecución. Los registros de un NodeProfiler se escriben
+     * con su duración y su entrada.
+     *
+     * @param out Destino del texto.
+     * @throws IOException Si falla la escritura.
+     */
+	public void toText(Appendable out) throws IOException {
+		CachedClock reloj = CachedClock.system();
+		StringBuilder sb = new StringBuilder(256);
+		for (TraceRecord r : this) {
+			sb.setLength(0);
+			sb.append('[');
+			reloj.appendTo(sb, r.fin() / 1_000_000).append("] node ").append(r.nodo());
+			if (r.perfilado()) {
+				sb.append(" profiled in ").append(r.duracionNanos() / 1_000_000.0).append(" ms");
+				if (r.contenido() != null) sb.append(", with input: ").append(r.contenido());
+			} else {
+				sb.append(" executed");
+				if (r.vueltas() != 1) sb.append(' ').append(r.vueltas()).append(" times in a loop");
+				if (r.contenido() != null) sb.append(", with output: ").append(r.contenido());
+			}
+			out.append(sb.append('\n'));
+		}
+	}
+
+	/**
+     * Convierte un fichero de trazas binario a un fichero de texto con el formato de NodeLogger.
+     *
+     * @param binario Fichero de trazas binario.
+     * @param texto Fichero de texto, que se sobrescribe si existe.
+     * @throws IOException Si falla la lectura o la escritura.
+     */
+	public static void convert(Path binario, Path texto) throws IOException {
+		convert(binario, texto, null);
+	}
+
+	/**
+     * Convierte a texto un fichero de trazas binario cuyas salidas se guardaron serializadas.
+     *
+     * @param binario Fichero de trazas binario.
+     * @param texto Fichero de texto, que se sobrescribe si existe.
+     * @param codec Serializador con el que se escribieron las salidas (puede ser null).
+     * @throws IOException Si falla la lectura o la escritura.
+     */
+	public static void convert(Path binario, Path texto, StateCodec<?> codec) throws IOException {
+		try (BinaryTraceReader reader = new BinaryTraceReader(binario, codec);
+			 Writer out = Files.newBufferedWriter(texto, StandardCharsets.UTF_8)) {
+			reader.toText(out);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			canal.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
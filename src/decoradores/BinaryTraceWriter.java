@@ -0,0 +1,356 @@
+package decoradores;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import checkpoint.StateCodec;
+
+/**
+ * Escritor de trazas en formato binario, alternativa compacta al fichero de texto de
+ * {@link NodeLogger}. Cada ejecución de un nodo ocupa un registro con una parte fija de
+ * {@value #REGISTRO} bytes (identificador de la ejecución, paso, identificador del nodo,
+ * instantes de inicio y fin, número de vueltas y longitud de la salida) seguida de la salida,
+ * si se guarda, sin relleno más que hasta múltiplo de {@value #ALINEACION} bytes. Los nombres
+ * de los nodos se escriben una sola vez, la primera vez que aparecen, y después se referencian
+ * por su identificador.
+ *
+ * Las salidas se guardan como el texto de su toString o, si se indica un {@link StateCodec},
+ * serializadas con él, que es mucho más compacto (un NumericData ocupa 12 bytes) y rápido de
+ * escribir; en ese caso el lector necesita el mismo serializador para recuperarlas.
+ *
+ * El fichero se escribe a través de mapeos en memoria de {@value #SEGMENTO} bytes que se crean
+ * según se necesitan. Cada hilo reserva su registro con una operación atómica y lo escribe sin
+ * bloqueos; el tipo del registro se publica el último, así que un lector nunca ve un registro
+ * a medio escribir. Ningún registro cruza el final de un segmento: si la reserva no cabe, el
+ * hilo marca el hueco como relleno y reserva de nuevo. Los nombres siempre están antes de los
+ * registros que los referencian.
+ *
+ * El formato se lee con {@link BinaryTraceReader}, que también lo convierte al formato de
+ * texto de NodeLogger.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class BinaryTraceWriter implements AutoCloseable {
+	static final int MAGIA = 0x47545243; // "GTRC"
+	static final int VERSION = 2;
+	/** Tamaño de la parte fija de cada registro de ejecución, en bytes. */
+	public static final int REGISTRO = 48;
+	/** Alineación de todos los registros, en bytes. */
+	public static final int ALINEACION = 8;
+	/** Tamaño de cada segmento mapeado, en bytes. */
+	public static final int SEGMENTO = REGISTRO << 17;
+	static final int MAX_SEGMENTOS = 1 << 14;
+
+	// Tipos de registro (0 es un registro todavía sin escribir)
+	static final int LIBRE = 0;
+	static final int EJECUCION = 1;
+	static final int PERFIL = 2;
+	static final int NOMBRE = 3;
+	static final int RELLENO = 4;
+
+	// Campos de la cabecera del fichero, que ocupa los primeros REGISTRO bytes
+	static final int H_BASE_EPOCA = 8;
+	static final int H_BASE_NANOS = 16;
+	static final int H_FIN = 24;
+	static final int H_CODIFICADO = 32;
+
+	// Campos de un registro de ejecución; la salida empieza en REGISTRO
+	static final int R_TIPO = 0;
+	static final int R_NODO = 4;
+	static final int R_RUN = 8;
+	static final int R_PASO = 16;
+	static final int R_INICIO = 24;
+	static final int R_FIN = 32;
+	static final int R_VUELTAS = 40;
+	static final int R_CONTENIDO = 44;
+	// Cabecera de un nombre o un relleno: tipo, longitud en bytes y, en los nombres, su identificador
+	static final int R_LONGITUD = 4;
+	static final int R_ID = 8;
+	static final int R_DATOS_NOMBRE = 12;
+
+	static final VarHandle ENTEROS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+	private final Path path;
+	private final FileChannel canal;
+	private final boolean contenidos;
+	private final StateCodec<Object> codec;
+	private final ThreadLocal<ByteBuffer> auxiliar;
+	private final AtomicReferenceArray<MappedByteBuffer> segmentos = new AtomicReferenceArray<>(MAX_SEGMENTOS);
+	private final AtomicLong pos = new AtomicLong(REGISTRO);
+	private final Map<String, Integer> nombres = new ConcurrentHashMap<>();
+	private final AtomicInteger siguienteNombre = new AtomicInteger();
+	private volatile boolean cerrado;
+
+	/**
+     * Crea un fichero de trazas binario que guarda también la salida de cada ejecución, como texto.
+     *
+     * @param path Ruta del fichero, que se sobrescribe si existe.
+     * @throws UncheckedIOException Si no se puede crear el fichero.
+     */
+	public BinaryTraceWriter(Path path) {
+		this(path, true, null);
+	}
+
+	/**
+     * Crea un fichero de trazas binario.
+     *
+     * @param path Ruta del fichero, que se sobrescribe si existe.
+     * @param contenidos Si es false, no se guarda la salida de cada ejecución y todos los
+     *        registros tienen el mismo tamaño.
+     * @throws UncheckedIOException Si no se puede crear el fichero.
+     */
+	public BinaryTraceWriter(Path path, boolean contenidos) {
+		this(path, contenidos, null);
+	}
+
+	/**
+     * Crea un fichero de trazas binario que guarda la salida de cada ejecución serializada.
+     *
+     * @param path Ruta del fichero, que se sobrescribe si existe.
+     * @param codec Serializador de las salidas; todas deben ser del tipo que serializa.
+     * @throws UncheckedIOException Si no se puede crear el fichero.
+     */
+	public BinaryTraceWriter(Path path, StateCodec<?> codec) {
+		this(path, true, codec);
+	}
+
+	@SuppressWarnings("unchecked")
+	private BinaryTraceWriter(Path path, boolean contenidos, StateCodec<?> codec) {
+		this.path = path;
+		this.contenidos = contenidos;
+		this.codec = (StateCodec<Object>) codec;
+		this.auxiliar = codec == null ? null : ThreadLocal.withInitial(() -> ByteBuffer.allocate(256));
+		try {
+			this.canal = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Error al abrir el archivo: " + e.getMessage(), e);
+		}
+		// La época y el reloj monótono se toman juntos para poder traducir los instantes a fechas
+		ByteBuffer cabecera = segmento(0);
+		cabecera.putLong(H_BASE_EPOCA, System.currentTimeMillis() * 1_000_000L);
+		cabecera.putLong(H_BASE_NANOS, System.nanoTime());
+		cabecera.putInt(H_CODIFICADO, codec == null ? 0 : 1);
+		cabecera.putInt(4, VERSION);
+		cabecera.putInt(0, MAGIA);
+	}
+
+	/**
+     * Indica si se guarda la salida de cada ejecución.
+     *
+     * @return true si se guardan las salidas.
+     */
+	public boolean storesPayloads() {
+		return contenidos;
+	}
+
+	/**
+     * Registra la ejecución de un nodo tal como la ve un {@link NodeLogger}.
+     *
+     * @param nodo Nombre del nodo.
+     * @param runId Identificador de la ejecución del grafo (0 si no hay ninguna).
+     * @param paso Paso dentro de la ejecución (0 si no se conoce).
+     * @param inicio Instante de inicio, de {@link System#nanoTime()}.
+     * @param fin Instante de fin, de {@link System#nanoTime()}.
+     * @param vueltas Número de ejecuciones que cubre el registro (más de una en un bucle agregado).
+     * @param salida Salida del nodo, que solo se guarda si el escritor guarda las salidas (puede ser null).
+     */
+	public void write(String nodo, long runId, long paso, long inicio, long fin, int vueltas, Object salida) {
+		escribir(EJECUCION, nodo, runId, paso, inicio, fin, vueltas, salida);
+	}
+
+	/**
+     * Registra una ejecución medida por un {@link NodeProfiler}, cuyo contenido es la copia de
+     * la entrada del nodo.
+     *
+     * @param nodo Nombre del nodo.
+     * @param runId Identificador de la ejecución del grafo (0 si no hay ninguna).
+     * @param paso Paso dentro de la ejecución (0 si no se conoce).
+     * @param inicio Instante de inicio, de {@link System#nanoTime()}.
+     * @param fin Instante de fin, de {@link System#nanoTime()}.
+     * @param entrada Copia de la entrada, o null si no se ha muestreado.
+     */
+	public void writeProfiled(String nodo, long runId, long paso, long inicio, long fin, Object entrada) {
+		escribir(PERFIL, nodo, runId, paso, inicio, fin, 1, entrada);
+	}
+
+	private void escribir(int tipo, String nodo, long runId, long paso, long inicio, long fin, int vueltas, Object contenido) {
+		int id = idNombre(nodo);
+		ByteBuffer datos = null;
+		int len = -1;
+		if (contenidos && contenido != null) {
+			datos = codec == null ? ByteBuffer.wrap(contenido.toString().getBytes(StandardCharsets.UTF_8)) : codificar(contenido);
+			len = datos.remaining();
+		}
+		long p = reservar(REGISTRO + Math.max(len, 0));
+		ByteBuffer seg = segmento((int) (p / SEGMENTO));
+		int off = (int) (p % SEGMENTO);
+		seg.putInt(off + R_NODO, id);
+		seg.putLong(off + R_RUN, runId);
+		seg.putLong(off + R_PASO, paso);
+		seg.putLong(off + R_INICIO, inicio);
+		seg.putLong(off + R_FIN, fin);
+		seg.putInt(off + R_VUELTAS, vueltas);
+		seg.putInt(off + R_CONTENIDO, len);
+		if (datos != null) seg.put(off + REGISTRO, datos, datos.position(), len);
+		ENTEROS.setRelease(seg, off + R_TIPO, tipo);
+	}
+
+	/**
+     * Serializa un contenido en el buffer auxiliar del hilo, ampliándolo si no cabe.
+     *
+     * @return Buffer con el contenido serializado entre su posición y su límite.
+     */
+	private ByteBuffer codificar(Object contenido) {
+		ByteBuffer b = auxiliar.get();
+		while (true) {
+			try {
+				b.clear();
+				codec.encode(contenido, b);
+				return b.flip();
+			} catch (BufferOverflowException e) {
+				if (b.capacity() >= SEGMENTO) {
+					throw new IllegalArgumentException("El contenido no cabe en un segmento de la traza", e);
+				}
+				b = ByteBuffer.allocate(b.capacity() * 2);
+				auxiliar.set(b);
+			}
+		}
+	}
+
+	/**
+     * Obtiene el identificador de un nombre de nodo, escribiendo el nombre la primera vez.
+     * El nombre se escribe dentro de computeIfAbsent, así que su registro siempre está antes
+     * que cualquier registro que use el identificador.
+     */
+	private int idNombre(String nodo) {
+		Integer id = nombres.get(nodo);
+		if (id != null) return id;
+		return nombres.computeIfAbsent(nodo, n -> {
+			int nuevo = siguienteNombre.getAndIncrement();
+			byte[] b = n.getBytes(StandardCharsets.UTF_8);
+			long p = reservar(R_DATOS_NOMBRE + b.length);
+			ByteBuffer seg = segmento((int) (p / SEGMENTO));
+			int off = (int) (p % SEGMENTO);
+			seg.put(off + R_DATOS_NOMBRE, b);
+			seg.putInt(off + R_LONGITUD, b.length);
+			seg.putInt(off + R_ID, nuevo);
+			ENTEROS.setRelease(seg, off + R_TIPO, NOMBRE);
+			return nuevo;
+		});
+	}
+
+	/**
+     * Reserva un registro de un número de bytes, redondeado a la alineación, dentro de un
+     * único segmento. Si la reserva cruza el final de un segmento, los dos trozos se marcan
+     * como relleno (nadie más puede usarlos) y se vuelve a reservar.
+     *
+     * @return Posición del registro.
+     */
+	private long reservar(int bytes) {
+		if (cerrado) {
+			throw new IllegalStateException("El fichero de trazas " + path + " está cerrado");
+		}
+		int tam = (bytes + ALINEACION - 1) / ALINEACION * ALINEACION;
+		if (tam > SEGMENTO) {
+			throw new IllegalArgumentException("El registro no cabe en un segmento de la traza: " + bytes + " bytes");
+		}
+		while (true) {
+			long p = pos.getAndAdd(tam);
+			long finSegmento = (p / SEGMENTO + 1) * SEGMENTO;
+			if (p + tam <= finSegmento) return p;
+			rellenar(p, finSegmento);
+			rellenar(finSegmento, p + tam);
+		}
+	}
+
+	/**
+     * Marca como relleno los bytes entre dos posiciones del mismo segmento.
+     */
+	private void rellenar(long desde, long hasta) {
+		ByteBuffer seg = segmento((int) (desde / SEGMENTO));
+		int off = (int) (desde % SEGMENTO);
+		seg.putInt(off + R_LONGITUD, (int) (hasta - desde));
+		ENTEROS.setRelease(seg, off + R_TIPO, RELLENO);
+	}
+
+	/**
+     * Obtiene el segmento mapeado con un índice, mapeándolo si todavía no lo está.
+     */
+	private ByteBuffer segmento(int i) {
+		MappedByteBuffer seg = segmentos.get(i);
+		return seg != null ? seg : mapear(i);
+	}
+
+	private synchronized MappedByteBuffer mapear(int i) {
+		if (i >= MAX_SEGMENTOS) {
+			throw new IllegalStateException("El fichero de trazas " + path + " está lleno");
+		}
+		MappedByteBuffer seg = segmentos.get(i);
+		if (seg == null) {
+			try {
+				seg = canal.map(FileChannel.MapMode.READ_WRITE, (long) i * SEGMENTO, SEGMENTO);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Error al ampliar el archivo: " + e.getMessage(), e);
+			}
+			segmentos.set(i, seg);
+		}
+		return seg;
+	}
+
+	/**
+     * Obtiene el número de bytes reservados hasta ahora, incluida la cabecera.
+     *
+     * @return Tamaño útil del fichero.
+     */
+	public long size() {
+		return pos.get();
+	}
+
+	/**
+     * Obliga a escribir en disco los registros mapeados.
+     */
+	public void flush() {
+		for (int i = 0; i < MAX_SEGMENTOS; i++) {
+			MappedByteBuffer seg = segmentos.get(i);
+			if (seg == null) break;
+			seg.force();
+		}
+	}
+
+	/**
+     * Cierra el fichero recortándolo al tamaño útil. Debe llamarse cuando ya no se esté
+     * ejecutando ningún nodo que escriba en él.
+     */
+	@Override
+	public synchronized void close() {
+		if (cerrado) return;
+		cerrado = true;
+		long fin = pos.get();
+		segmento(0).putLong(H_FIN, fin);
+		flush();
+		try {
+			canal.truncate(fin);
+			canal.close();
+		} catch (IOException e) {
+			System.err.println("Error al cerrar el archivo: " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package decoradores;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Reloj para los registros de log que guarda ya formateada la última marca de tiempo.
+ * La marca solo se recalcula cuando cambia el intervalo de resolución (por defecto, cada
+ * milisegundo), de forma que escribir la fecha y la hora de un registro no crea objetos.
+ *
+ * El formato es el mismo que el de {@code LocalDate.now() + " - " + LocalTime.now()},
+ * con precisión de la resolución elegida.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class CachedClock {
+	private static final CachedClock SYSTEM = new CachedClock(Clock.systemDefaultZone(), 1);
+
+	private final Clock clock;
+	private final long resolucionMs;
+	private volatile Marca ultima = new Marca(Long.MIN_VALUE, "");
+
+	/**
+	 * Marca de tiempo ya formateada para un intervalo de resolución.
+	 */
+	private static final class Marca {
+		final long intervalo;
+		final String texto;
+
+		Marca(long intervalo, String texto) {
+			this.intervalo = intervalo;
+			this.texto = texto;
+		}
+	}
+
+	/**
+     * Constructor del reloj.
+     *
+     * @param clock Reloj del que se lee la hora (y la zona horaria).
+     * @param resolucionMs Cada cuántos milisegundos se recalcula la marca.
+     */
+	public CachedClock(Clock clock, long resolucionMs) {
+		if (resolucionMs <= 0) {
+			throw new IllegalArgumentException("La resolución debe ser positiva: " + resolucionMs);
+		}
+		this.clock = clock;
+		this.resolucionMs = resolucionMs;
+	}
+
+	/**
+     * Obtiene el reloj del sistema, en la zona horaria por defecto, con resolución de un milisegundo.
+     *
+     * @return Reloj compartido del sistema.
+     */
+	public static CachedClock system() {
+		return SYSTEM;
+	}
+
+	/**
+     * Añade la marca de tiempo actual a un StringBuilder.
+     *
+     * @param sb Destino del texto.
+     * @return El mismo StringBuilder.
+     */
+	public StringBuilder appendTo(StringBuilder sb) {
+		return appendTo(sb, clock.millis());
+	}
+
+	/**
+     * Añade a un StringBuilder la marca de tiempo de un instante dado, en la zona horaria del reloj.
+     * Con instantes consecutivos (por ejemplo, al convertir un fichero de trazas) también se
+     * reutiliza la última marca formateada.
+     *
+     * @param sb Destino del texto.
+     * @param ms Instante en milisegundos desde la época.
+     * @return El mismo StringBuilder.
+     */
+	StringBuilder appendTo(StringBuilder sb, long ms) {
+		long intervalo = ms / resolucionMs;
+		Marca m = ultima;
+		if (m.intervalo != intervalo) {
+			LocalDateTime t = LocalDateTime.ofInstant(Instant.ofEpochMilli(intervalo * resolucionMs), clock.getZone());
+			m = new Marca(intervalo, t.toLocalDate() + " - " + t.toLocalTime());
+			ultima = m;
+		}
+		return sb.append(m.texto);
+	}
+}
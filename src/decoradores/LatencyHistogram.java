@@ -0,0 +1,141 @@
+package decoradores;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en memoria fija, al estilo de HdrHistogram.
+ *
+ * Los valores (en nanosegundos) se agrupan en cubos log-lineales: cada potencia de dos se
+ * divide en 32 cubos de igual anchura, lo que da un error relativo menor del 3,2% en todo el
+ * rango. Los valores por encima de unas 4,9 horas se acumulan en el último cubo. Ocupa
+ * siempre lo mismo, unos 10 KB, independientemente del número de valores registrados.
+ *
+ * El registro no usa bloqueos, por lo que puede llamarse desde varios hilos a la vez.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class LatencyHistogram {
+	private static final int SUB_BITS = 5;
+	private static final int SUB = 1 << SUB_BITS;
+	private static final int MAX_MAGNITUD = 43;
+	private static final int CUBOS = (MAX_MAGNITUD - SUB_BITS + 2) * SUB;
+
+	private final AtomicLongArray cubos = new AtomicLongArray(CUBOS);
+	private final LongAdder total = new LongAdder();
+	private final LongAdder suma = new LongAdder();
+	private final AtomicLong minimo = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicLong maximo = new AtomicLong(Long.MIN_VALUE);
+
+	/**
+     * Registra una latencia.
+     *
+     * @param nanos Duración en nanosegundos (los valores negativos cuentan como 0).
+     */
+	public void record(long nanos) {
+		long v = Math.max(0, nanos);
+		cubos.incrementAndGet(indice(v));
+		total.increment();
+		suma.add(v);
+		if (v < minimo.get()) minimo.accumulateAndGet(v, Math::min);
+		if (v > maximo.get()) maximo.accumulateAndGet(v, Math::max);
+	}
+
+	/**
+     * Calcula el cubo de un valor.
+     */
+	private static int indice(long v) {
+		if (v < SUB) return (int) v;
+		int magnitud = 63 - Long.numberOfLeadingZeros(v);
+		if (magnitud > MAX_MAGNITUD) return CUBOS - 1;
+		int sub = (int) (v >>> (magnitud - SUB_BITS)) - SUB;
+		return (magnitud - SUB_BITS + 1) * SUB + sub;
+	}
+
+	/**
+     * Calcula el mayor valor que cae en un cubo.
+     */
+	private static long limiteSuperior(int indice) {
+		if (indice < SUB) return indice;
+		int magnitud = indice / SUB + SUB_BITS - 1;
+		long inferior = (long) (SUB + indice % SUB) << (magnitud - SUB_BITS);
+		return inferior + (1L << (magnitud - SUB_BITS)) - 1;
+	}
+
+	/**
+     * Obtiene el número de latencias registradas.
+     *
+     * @return Número de valores.
+     */
+	public long count() {
+		return total.sum();
+	}
+
+	/**
+     * Obtiene la suma de todas las latencias registradas.
+     *
+     * @return Suma en nanosegundos.
+     */
+	public long sum() {
+		return suma.sum();
+	}
+
+	/**
+     * Obtiene la menor latencia registrada.
+     *
+     * @return Mínimo en nanosegundos, o 0 si no hay valores.
+     */
+	public long min() {
+		long m = minimo.get();
+		return m == Long.MAX_VALUE ? 0 : m;
+	}
+
+	/**
+     * Obtiene la mayor latencia registrada.
+     *
+     * @return Máximo en nanosegundos, o 0 si no hay valores.
+     */
+	public long max() {
+		long m = maximo.get();
+		return m == Long.MIN_VALUE ? 0 : m;
+	}
+
+	/**
+     * Obtiene la latencia media.
+     *
+     * @return Media en nanosegundos, o 0 si no hay valores.
+     */
+	public double mean() {
+		long n = total.sum();
+		return n == 0 ? 0 : suma.sum() / (double) n;
+	}
+
+	/**
+     * Obtiene el percentil indicado, con la precisión de los cubos.
+     *
+     * @param percentil Percentil entre 0 y 100.
+     * @return Latencia en nanosegundos por debajo de la cual está ese porcentaje de valores.
+     */
+	public long percentile(double percentil) {
+		long[] copia = new long[CUBOS];
+		long n = 0;
+		for (int i = 0; i < CUBOS; i++) {
+			copia[i] = cubos.get(i);
+			n += copia[i];
+		}
+		if (n == 0) return 0;
+
+		long objetivo = Math.max(1, (long) Math.ceil(percentil / 100.0 * n));
+		long acumulado = 0;
+		for (int i = 0; i < CUBOS; i++) {
+			acumulado += copia[i];
+			if (acumulado >= objetivo) {
+				return Math.min(limiteSuperior(i), max());
+			}
+		}
+		return max();
+	}
+}
@@ -0,0 +1,106 @@
+package decoradores;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Buffers reutilizables para formatear y codificar registros de log sin crear objetos
+ * temporales: el texto se compone en un StringBuilder, se copia a un array de caracteres
+ * y se codifica en UTF-8 directamente sobre un ByteBuffer directo.
+ *
+ * Cada hilo de plataforma tiene sus propios buffers. Los hilos virtuales, que suelen vivir
+ * una sola ejecución, los toman prestados de una reserva compartida y los devuelven al acabar.
+ * Los buffers que crecen por encima de {@link #MAX_RETENIDO} caracteres se descartan tras
+ * usarse para no retener memoria por un único registro muy grande.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+final class LogFormatter {
+	private static final int CAPACIDAD_INICIAL = 256;
+	private static final int MAX_RETENIDO = 64 * 1024;
+	private static final ThreadLocal<LogFormatter> PROPIO = ThreadLocal.withInitial(LogFormatter::new);
+	private static final Queue<LogFormatter> RESERVA = new ConcurrentLinkedQueue<>();
+
+	private final StringBuilder texto = new StringBuilder(CAPACIDAD_INICIAL);
+	private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	private char[] chars = new char[CAPACIDAD_INICIAL];
+	private CharBuffer charBuffer = CharBuffer.wrap(chars);
+	private ByteBuffer bytes = ByteBuffer.allocateDirect(CAPACIDAD_INICIAL * 3);
+
+	private LogFormatter() {
+	}
+
+	/**
+     * Obtiene unos buffers para el hilo actual, con el texto vacío.
+     *
+     * @return Buffers listos para componer un registro.
+     */
+	static LogFormatter obtener() {
+		LogFormatter f;
+		if (Thread.currentThread().isVirtual()) {
+			f = RESERVA.poll();
+			if (f == null) f = new LogFormatter();
+		} else {
+			f = PROPIO.get();
+		}
+		f.texto.setLength(0);
+		return f;
+	}
+
+	/**
+     * Devuelve los buffers tras usarlos.
+     */
+	void liberar() {
+		if (texto.capacity() > MAX_RETENIDO) {
+			if (!Thread.currentThread().isVirtual()) PROPIO.remove();
+			return;
+		}
+		if (Thread.currentThread().isVirtual()) {
+			RESERVA.offer(this);
+		}
+	}
+
+	/**
+     * Obtiene el StringBuilder en el que se compone el registro.
+     *
+     * @return Texto del registro.
+     */
+	StringBuilder texto() {
+		return texto;
+	}
+
+	/**
+     * Codifica en UTF-8 el texto compuesto.
+     *
+     * @return ByteBuffer reutilizable, listo para leer, con el registro codificado.
+     */
+	ByteBuffer codificar() {
+		int n = texto.length();
+		if (chars.length < n) {
+			chars = new char[Math.max(n, chars.length * 2)];
+			charBuffer = CharBuffer.wrap(chars);
+		}
+		texto.getChars(0, n, chars, 0);
+		charBuffer.clear().limit(n);
+
+		int max = (int) Math.ceil(n * (double) encoder.maxBytesPerChar());
+		if (bytes.capacity() < max) {
+			bytes = ByteBuffer.allocateDirect(Math.max(max, bytes.capacity() * 2));
+		}
+		bytes.clear();
+		encoder.reset();
+		encoder.encode(charBuffer, bytes, true);
+		encoder.flush(bytes);
+		bytes.flip();
+		return bytes;
+	}
+}
@@ -0,0 +1,191 @@
+package decoradores;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Registro de métricas sin dependencias, al estilo de Micrometer: cada métrica se identifica
+ * por su nombre y sus etiquetas (pares clave, valor) y se crea la primera vez que se pide.
+ * Hay dos tipos de métricas:
+ * <ul>
+ *   <li>Contadores ({@link #counter}), que son LongAdder sin bloqueos.</li>
+ *   <li>Latencias ({@link #timer}), que son {@link LatencyHistogram} de memoria fija.</li>
+ * </ul>
+ * Solo el registro y la exportación usan el cerrojo del registro; quien incrementa un
+ * contador o registra una latencia guarda la referencia y no vuelve a consultar el registro.
+ *
+ * {@link #scrape()} exporta todas las métricas en el formato de texto de Prometheus (las
+ * latencias como summary en segundos, con los percentiles 50, 90, 99 y 99,9), y
+ * {@link #serve(int)} lo publica en un servidor HTTP local en {@code /metrics}.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class MetricsRegistry {
+	private static final double[] CUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+	/**
+	 * Métricas con un mismo nombre y distintas etiquetas.
+	 */
+	private static final class Familia {
+		final String ayuda;
+		final boolean contador;
+		final Map<List<String>, Object> series = new LinkedHashMap<>();
+
+		Familia(String ayuda, boolean contador) {
+			this.ayuda = ayuda;
+			this.contador = contador;
+		}
+	}
+
+	private final Map<String, Familia> familias = new LinkedHashMap<>();
+
+	/**
+     * Obtiene un contador, creándolo si no existe.
+     *
+     * @param nombre Nombre de la métrica (por convención, terminado en _total).
+     * @param ayuda Descripción de la métrica.
+     * @param etiquetas Pares clave, valor que identifican la serie.
+     * @return Contador de la serie.
+     * @throws IllegalArgumentException Si el nombre ya se usa para latencias o las etiquetas
+     *         no son pares.
+     */
+	public LongAdder counter(String nombre, String ayuda, String... etiquetas) {
+		return (LongAdder) serie(nombre, ayuda, true, etiquetas);
+	}
+
+	/**
+     * Obtiene un histograma de latencias, creándolo si no existe.
+     *
+     * @param nombre Nombre de la métrica (por convención, terminado en _seconds).
+     * @param ayuda Descripción de la métrica.
+     * @param etiquetas Pares clave, valor que identifican la serie.
+     * @return Histograma de la serie, en nanosegundos.
+     * @throws IllegalArgumentException Si el nombre ya se usa para contadores o las etiquetas
+     *         no son pares.
+     */
+	public LatencyHistogram timer(String nombre, String ayuda, String... etiquetas) {
+		return (LatencyHistogram) serie(nombre, ayuda, false, etiquetas);
+	}
+
+	private synchronized Object serie(String nombre, String ayuda, boolean contador, String... etiquetas) {
+		if (etiquetas.length % 2 != 0) {
+			throw new IllegalArgumentException("Las etiquetas de " + nombre + " deben ser pares clave, valor");
+		}
+		Familia f = familias.computeIfAbsent(nombre, n -> new Familia(ayuda, contador));
+		if (f.contador != contador) {
+			throw new IllegalArgumentException("La métrica " + nombre + " ya existe con otro tipo");
+		}
+		return f.series.computeIfAbsent(List.of(etiquetas), e -> contador ? new LongAdder() : new LatencyHistogram());
+	}
+
+	/**
+     * Exporta todas las métricas en el formato de texto de Prometheus.
+     *
+     * @return Texto con todas las series.
+     */
+	public synchronized String scrape() {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, Familia> e : familias.entrySet()) {
+			String nombre = e.getKey();
+			Familia f = e.getValue();
+			sb.append("# HELP ").append(nombre).append(' ').append(f.ayuda).append('\n');
+			sb.append("# TYPE ").append(nombre).append(f.contador ? " counter\n" : " summary\n");
+			for (Map.Entry<List<String>, Object> s : f.series.entrySet()) {
+				List<String> etiquetas = s.getKey();
+				if (f.contador) {
+					linea(sb, nombre, etiquetas, null, ((LongAdder) s.getValue()).sum());
+					continue;
+				}
+				LatencyHistogram h = (LatencyHistogram) s.getValue();
+				for (double q : CUANTILES) {
+					linea(sb, nombre, etiquetas, Double.toString(q), h.percentile(q * 100) / 1e9);
+				}
+				linea(sb, nombre + "_sum", etiquetas, null, h.sum() / 1e9);
+				linea(sb, nombre + "_count", etiquetas, null, h.count());
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+     * Escribe una línea de una serie, con sus etiquetas y, si se indica, la del cuantil.
+     */
+	private static void linea(StringBuilder sb, String nombre, List<String> etiquetas, String cuantil, double valor) {
+		sb.append(nombre);
+		if (!etiquetas.isEmpty() || cuantil != null) {
+			sb.append('{');
+			for (int i = 0; i < etiquetas.size(); i += 2) {
+				if (i > 0) sb.append(',');
+				sb.append(etiquetas.get(i)).append("=\"");
+				escapar(sb, etiquetas.get(i + 1));
+				sb.append('"');
+			}
+			if (cuantil != null) {
+				if (!etiquetas.isEmpty()) sb.append(',');
+				sb.append("quantile=\"").append(cuantil).append('"');
+			}
+			sb.append('}');
+		}
+		sb.append(' ');
+		if (valor == (long) valor) {
+			sb.append((long) valor);
+		} else {
+			sb.append(valor);
+		}
+		sb.append('\n');
+	}
+
+	/**
+     * Escapa el valor de una etiqueta como pide el formato de Prometheus.
+     */
+	private static void escapar(StringBuilder sb, String valor) {
+		for (int i = 0; i < valor.length(); i++) {
+			char c = valor.charAt(i);
+			switch (c) {
+				case '\\' -> sb.append("\\\\");
+				case '"' -> sb.append("\\\"");
+				case '\n' -> sb.append("\\n");
+				default -> sb.append(c);
+			}
+		}
+	}
+
+	/**
+     * Publica las métricas en un servidor HTTP local, en la ruta {@code /metrics}, para que las
+     * consulte Prometheus (o cualquier otra herramienta). El servidor atiende en un solo hilo
+     * y debe pararse con {@code stop}.
+     *
+     * @param puerto Puerto en el que escuchar (0 para uno libre).
+     * @return Servidor arrancado.
+     * @throws UncheckedIOException Si no se puede abrir el puerto.
+     */
+	public HttpServer serve(int puerto) {
+		try {
+			HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto), 0);
+			server.createContext("/metrics", ex -> {
+				byte[] cuerpo = scrape().getBytes(StandardCharsets.UTF_8);
+				ex.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+				ex.sendResponseHeaders(200, cuerpo.length);
+				try (OutputStream out = ex.getResponseBody()) {
+					out.write(cuerpo);
+				}
+			});
+			server.start();
+			return server;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Error al abrir el puerto " + puerto + ": " + e.getMessage(), e);
+		}
+	}
+}
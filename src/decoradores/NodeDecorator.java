@@ -5,6 +5,8 @@ import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 import nodos.ComponentNode;
+import nodos.ForkNode;
+import nodos.JoinNode;
 
 /**
  * Decorador abstracto para nodos que permite añadir funcionalidades extra.
@@ -17,6 +19,8 @@ import nodos.ComponentNode;
  */
 public abstract class NodeDecorator<S> implements ComponentNode<S> {
     protected ComponentNode<S> decoratedNode;
+    private ForkNode<S> forkOriginal;
+    private ForkNode<S> forkPropagado;
 
     /**
      * Constructor del decorador.
@@ -92,6 +96,17 @@ public abstract class NodeDecorator<S> implements ComponentNode<S> {
         decoratedNode.addNextNode(node);
     }
 
+    /**
+     * Quita un nodo de los siguientes del nodo decorado.
+     *
+     * @param node Nodo a quitar.
+     * @return true si el nodo estaba entre los siguientes.
+     */
+    @Override
+    public boolean removeNextNode(ComponentNode<S> node) {
+        return decoratedNode.removeNextNode(node);
+    }
+
     /**
      * Añade una condición de transición hacia un nodo específico en el nodo decorado.
      *
@@ -113,4 +128,37 @@ public abstract class NodeDecorator<S> implements ComponentNode<S> {
     public Predicate<S> getCondition(String node) {
         return decoratedNode.getCondition(node);
     }
+
+    /**
+     * Devuelve el nodo decorado como bifurcación, si lo es. Las ramas se lanzan en un
+     * ejecutor que propaga la ejecución en curso del StateGraphProfiler, de forma que los
+     * decoradores de los nodos de las ramas numeran sus trazas igual que en el hilo principal.
+     *
+     * @return El ForkNode decorado, con el ejecutor de las ramas envuelto, o null.
+     */
+    @Override
+    public ForkNode<S> asFork() {
+        ForkNode<S> fork = decoratedNode.asFork();
+        if (fork == null) {
+            return null;
+        }
+        if (fork != forkOriginal) {
+            // Vista de la bifurcación para el plan de ejecución, que solo usa su nombre, su
+            // unión, su ejecutor y su función de copia
+            forkPropagado = new ForkNode<>(fork.getNombre(), fork.getJoin(),
+                    RunContext.propagando(fork.getExecutor()), fork.getCopia());
+            forkOriginal = fork;
+        }
+        return forkPropagado;
+    }
+
+    /**
+     * Devuelve el nodo decorado como unión de ramas, si lo es.
+     *
+     * @return El JoinNode decorado, o null.
+     */
+    @Override
+    public JoinNode<S> asJoin() {
+        return decoratedNode.asJoin();
+    }
 }
\ No newline at end of file
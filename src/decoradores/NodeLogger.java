@@ -1,17 +1,22 @@
 package decoradores;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
-import java.time.LocalDate;
-import java.time.LocalTime;
+import java.io.UncheckedIOException;
+import java.util.function.Predicate;
 
 import nodos.ComponentNode;
 
 /**
  * Decorador de nodo que permite registrar en un fichero la ejecución de cada nodo.
+ * Los registros se entregan a un {@link AsyncLogWriter}, que los vuelca al fichero por
+ * lotes desde un hilo en segundo plano; las líneas de distintos hilos no se mezclan.
+ * 
+ * Cada registro se compone y se codifica en buffers reutilizables del hilo, con la marca de
+ * tiempo tomada de un {@link CachedClock}, por lo que registrar una ejecución no crea más
+ * objetos que los que cree el {@code toString()} de la salida.
+ * 
+ * Con un {@link BinaryTraceWriter} los registros se escriben en cambio en formato binario, con
+ * los instantes de inicio y fin de la ejecución y, si el escritor lo pide, la salida; el
+ * identificador de la ejecución y el paso se toman del StateGraphProfiler, si lo hay.
  * 
  * @param <T> Tipo de dato que procesa el nodo.
  * 
@@ -20,39 +25,130 @@ import nodos.ComponentNode;
  * Pareja 11
  */
 public class NodeLogger<T> extends NodeDecorator<T> {
-    private String path;
+    private final AsyncLogWriter writer;
+    private final CachedClock clock;
+    private final BinaryTraceWriter trazas;
+    private final boolean porBucle;
 
     /**
-     * Constructor del decorador de logging.
+     * Constructor del decorador de logging. Usa el escritor compartido del fichero,
+     * que se vuelca al terminar la JVM.
      * 
      * @param decoratedNode Nodo original a decorar.
      * @param path Ruta del fichero de log.
      */
     public NodeLogger(ComponentNode<T> decoratedNode, String path) {
+        this(decoratedNode, AsyncLogWriter.open(path));
+    }
+
+    /**
+     * Constructor del decorador de logging con un escritor concreto.
+     * 
+     * @param decoratedNode Nodo original a decorar.
+     * @param writer Escritor al que se entregan los registros.
+     */
+    public NodeLogger(ComponentNode<T> decoratedNode, AsyncLogWriter writer) {
+        this(decoratedNode, writer, CachedClock.system());
+    }
+
+    /**
+     * Constructor del decorador de logging con un escritor y un reloj concretos.
+     * 
+     * @param decoratedNode Nodo original a decorar.
+     * @param writer Escritor al que se entregan los registros.
+     * @param clock Reloj del que se toma la marca de tiempo de cada registro.
+     */
+    public NodeLogger(ComponentNode<T> decoratedNode, AsyncLogWriter writer, CachedClock clock) {
+        this(decoratedNode, writer, clock, false);
+    }
+
+    /**
+     * Constructor del decorador de logging que puede agregar los bucles del nodo sobre sí
+     * mismo: en lugar de una línea por vuelta se escribe una sola con el número de vueltas.
+     * 
+     * @param decoratedNode Nodo original a decorar.
+     * @param writer Escritor al que se entregan los registros.
+     * @param clock Reloj del que se toma la marca de tiempo de cada registro.
+     * @param porBucle Si es true, cada bucle sobre sí mismo se registra en una sola línea.
+     */
+    public NodeLogger(ComponentNode<T> decoratedNode, AsyncLogWriter writer, CachedClock clock, boolean porBucle) {
+        this(decoratedNode, writer, clock, null, porBucle);
+    }
+
+    /**
+     * Constructor del decorador de logging que escribe en un fichero de trazas binario.
+     * 
+     * @param decoratedNode Nodo original a decorar.
+     * @param trazas Fichero de trazas binario en el que se registran las ejecuciones.
+     * @param porBucle Si es true, cada bucle sobre sí mismo se registra en un solo registro.
+     */
+    public NodeLogger(ComponentNode<T> decoratedNode, BinaryTraceWriter trazas, boolean porBucle) {
+        this(decoratedNode, null, null, trazas, porBucle);
+    }
+
+    private NodeLogger(ComponentNode<T> decoratedNode, AsyncLogWriter writer, CachedClock clock,
+            BinaryTraceWriter trazas, boolean porBucle) {
         super(decoratedNode);
-        this.path = path;
+        this.writer = writer;
+        this.clock = clock;
+        this.trazas = trazas;
+        this.porBucle = porBucle;
     }
 
     @Override
     public T execute(T input, boolean debug) {
+        long inicio = trazas != null ? System.nanoTime() : 0;
         T result = super.execute(input, debug);
-        extra(result);
+        extra(result, inicio, 1);
         
         return result;
     }
 
+    /**
+     * Ejecuta el bucle del nodo sobre sí mismo. Si el logger agrega los bucles, se escribe una
+     * sola línea al terminar el bucle; si no, una por vuelta.
+     */
+    @Override
+    public T executeLoop(T input, Predicate<T> condicion, boolean debug) {
+        if (!porBucle) {
+            return super.executeLoop(input, condicion, debug);
+        }
+        long inicio = trazas != null ? System.nanoTime() : 0;
+        long[] vueltas = {0};
+        T result = decoratedNode.executeLoop(input, x -> {
+            vueltas[0]++;
+            return condicion.test(x);
+        }, debug);
+        extra(result, inicio, vueltas[0]);
+
+        return result;
+    }
+
     /**
      * Acción adicional: escribe mensaje indicando fin de ejecución de nodo.
      * 
      * @param output El valor del retorno que se quiere guardar.
+     * @param inicio Instante de inicio de la ejecución (solo se usa en el formato binario).
+     * @param vueltas Número de ejecuciones que cubre el registro (más de una en un bucle agregado).
      */
-    private void extra(T output) {
-        String infoEjecucion = "["+LocalDate.now()+" - "+LocalTime.now()+"] node "+ super.getNombre()+" executed, with output: "+output.toString()+"\n";
+    private void extra(T output, long inicio, long vueltas) {
+        if (trazas != null) {
+            RunContext ctx = RunContext.actual();
+            trazas.write(super.getNombre(), ctx == null ? 0 : ctx.runId(), ctx == null ? 0 : ctx.paso(),
+                    inicio, System.nanoTime(), (int) Math.min(vueltas, Integer.MAX_VALUE), output);
+            return;
+        }
+        LogFormatter f = LogFormatter.obtener();
         try {
-            Path archivo = Paths.get(path);
-            Files.writeString(archivo, infoEjecucion, StandardOpenOption.APPEND, StandardOpenOption.CREATE); 
-        } catch (IOException e) {
-            System.err.println("Error al escribir el archivo: " + e.getMessage());
+            StringBuilder sb = f.texto().append('[');
+            clock.appendTo(sb).append("] node ").append(super.getNombre()).append(" executed");
+            if (vueltas != 1) sb.append(' ').append(vueltas).append(" times in a loop");
+            sb.append(", with output: ").append(output.toString()).append('\n');
+            writer.write(f.codificar());
+        } catch (UncheckedIOException e) {
+            System.err.println(e.getMessage());
+        } finally {
+            f.liberar();
         }
     }
 
@@ -0,0 +1,93 @@
+package decoradores;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import cache.CacheStats;
+import cache.ResultCache;
+import nodos.ComponentNode;
+
+/**
+ * Decorador que memoriza el efecto de un nodo cuyo resultado depende solo de una parte de
+ * su entrada.
+ *
+ * Antes de ejecutar el nodo se calcula la clave de la entrada. Si la caché tiene un efecto
+ * para esa clave, se aplica directamente sobre la entrada sin ejecutar el código del nodo.
+ * Si no, se ejecuta el nodo, se extrae su efecto de la entrada modificada y se guarda; si
+ * el efecto extraído es null no se guarda nada y la próxima vez el nodo se vuelve a ejecutar.
+ *
+ * Por ejemplo, para un nodo que hace result = op1 + op2, la clave sería el par (op1, op2),
+ * el efecto el valor de result y aplicarlo, volver a escribir result.
+ *
+ * @param <T> Tipo de dato que procesa el nodo.
+ * @param <K> Tipo de la clave.
+ * @param <V> Tipo del efecto guardado.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class NodeMemoizer<T, K, V> extends NodeDecorator<T> {
+	private final Function<? super T, K> clave;
+	private final Function<? super T, V> efecto;
+	private final BiConsumer<? super T, ? super V> aplicar;
+	private final ResultCache<K, V> cache;
+
+	/**
+     * Constructor del decorador.
+     *
+     * @param node Nodo a decorar.
+     * @param clave Extrae de la entrada la clave de la que depende el resultado del nodo.
+     * @param efecto Extrae de la entrada, ya procesada por el nodo, el efecto a guardar.
+     * @param aplicar Aplica un efecto guardado sobre una entrada.
+     * @param cache Caché en la que se guardan los efectos.
+     */
+	public NodeMemoizer(ComponentNode<T> node, Function<? super T, K> clave, Function<? super T, V> efecto,
+			BiConsumer<? super T, ? super V> aplicar, ResultCache<K, V> cache) {
+		super(node);
+		this.clave = clave;
+		this.efecto = efecto;
+		this.aplicar = aplicar;
+		this.cache = cache;
+	}
+
+	/**
+     * Aplica el efecto guardado para la clave de la entrada o, si no lo hay, ejecuta el nodo
+     * y guarda su efecto (salvo que sea null).
+     *
+     * @param input Entrada del nodo.
+     * @param debug Indica si se ejecuta en modo depuración.
+     * @return El mismo objeto de entrada, modificado.
+     */
+	@Override
+	public T execute(T input, boolean debug) {
+		K k = clave.apply(input);
+		V guardado = cache.get(k);
+		if (guardado != null) {
+			aplicar.accept(input, guardado);
+			return input;
+		}
+		T output = super.execute(input, debug);
+		V nuevo = efecto.apply(output);
+		if (nuevo != null) cache.put(k, nuevo);
+		return output;
+	}
+
+	/**
+     * Obtiene la caché del nodo.
+     *
+     * @return Caché de efectos.
+     */
+	public ResultCache<K, V> getCache() {
+		return cache;
+	}
+
+	/**
+     * Obtiene los contadores de la caché del nodo.
+     *
+     * @return Aciertos, fallos, descartes y tamaño de la caché.
+     */
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+}
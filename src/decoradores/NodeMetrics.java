@@ -0,0 +1,101 @@
+package decoradores;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import nodos.ComponentNode;
+
+/**
+ * Decorador de nodo que mantiene métricas de sus ejecuciones para la monitorización en vivo:
+ * número de ejecuciones, número de fallos (ejecuciones que terminan con una excepción, que se
+ * vuelve a lanzar) y un histograma de latencias.
+ *
+ * Los contadores son LongAdder y el histograma no usa bloqueos, así que el nodo puede
+ * ejecutarse desde varios hilos a la vez. Las métricas se crean en un {@link MetricsRegistry},
+ * con las etiquetas {@code graph} y {@code node}, y también se consultan por JMX
+ * ({@link NodeMetricsMXBean}) cuando el grafo se registra con
+ * {@link StateGraphMetrics#registerMBeans()}.
+ *
+ * @param <T> Tipo de dato que procesa el nodo.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class NodeMetrics<T> extends NodeDecorator<T> implements NodeMetricsMXBean {
+	private final LongAdder ejecuciones;
+	private final LongAdder fallos;
+	private final LatencyHistogram latencias;
+
+	/**
+     * Constructor del decorador de métricas.
+     *
+     * @param decoratedNode Nodo original a decorar.
+     * @param registry Registro en el que se crean las métricas del nodo.
+     * @param grafo Nombre del grafo al que pertenece el nodo.
+     */
+	public NodeMetrics(ComponentNode<T> decoratedNode, MetricsRegistry registry, String grafo) {
+		super(decoratedNode);
+		String nodo = decoratedNode.getNombre();
+		this.ejecuciones = registry.counter("graph_node_executions_total", "Node executions", "graph", grafo, "node", nodo);
+		this.fallos = registry.counter("graph_node_failures_total", "Node executions that threw an exception", "graph", grafo, "node", nodo);
+		this.latencias = registry.timer("graph_node_latency_seconds", "Node execution latency", "graph", grafo, "node", nodo);
+	}
+
+	@Override
+	public T execute(T input, boolean debug) {
+		long inicio = System.nanoTime();
+		try {
+			return super.execute(input, debug);
+		} catch (RuntimeException | Error e) {
+			fallos.increment();
+			throw e;
+		} finally {
+			latencias.record(System.nanoTime() - inicio);
+			ejecuciones.increment();
+		}
+	}
+
+	@Override
+	public long getExecutions() {
+		return ejecuciones.sum();
+	}
+
+	@Override
+	public long getFailures() {
+		return fallos.sum();
+	}
+
+	@Override
+	public double getMeanMs() {
+		return latencias.mean() / 1_000_000.0;
+	}
+
+	@Override
+	public double getP50Ms() {
+		return latencias.percentile(50) / 1_000_000.0;
+	}
+
+	@Override
+	public double getP99Ms() {
+		return latencias.percentile(99) / 1_000_000.0;
+	}
+
+	@Override
+	public double getMaxMs() {
+		return latencias.max() / 1_000_000.0;
+	}
+
+	/**
+     * Obtiene las estadísticas de latencia del nodo.
+     *
+     * @return Estadísticas de latencia.
+     */
+	public NodeStats getStats() {
+		return new NodeStats(getNombre(), latencias);
+	}
+
+	@Override
+	public String toString() {
+		return super.toString() + " [metered]";
+	}
+}
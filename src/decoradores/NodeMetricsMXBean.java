@@ -0,0 +1,59 @@
+package decoradores;
+
+/**
+ * Interfaz de gestión (JMX) con las métricas de un nodo decorado con {@link NodeMetrics}.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public interface NodeMetricsMXBean {
+	/**
+     * Obtiene el nombre del nodo.
+     *
+     * @return Nombre del nodo.
+     */
+	String getNombre();
+
+	/**
+     * Obtiene el número de ejecuciones del nodo, incluidas las que fallaron.
+     *
+     * @return Número de ejecuciones.
+     */
+	long getExecutions();
+
+	/**
+     * Obtiene el número de ejecuciones que terminaron con una excepción.
+     *
+     * @return Número de fallos.
+     */
+	long getFailures();
+
+	/**
+     * Obtiene la duración media de las ejecuciones.
+     *
+     * @return Media en milisegundos.
+     */
+	double getMeanMs();
+
+	/**
+     * Obtiene la mediana de la duración de las ejecuciones.
+     *
+     * @return Percentil 50 en milisegundos.
+     */
+	double getP50Ms();
+
+	/**
+     * Obtiene el percentil 99 de la duración de las ejecuciones.
+     *
+     * @return Percentil 99 en milisegundos.
+     */
+	double getP99Ms();
+
+	/**
+     * Obtiene la ejecución más lenta.
+     *
+     * @return Máximo en milisegundos.
+     */
+	double getMaxMs();
+}
@@ -1,13 +1,29 @@
 package decoradores;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
-import datos.PublicCloneable;
+import datos.Snapshottable;
 import nodos.ComponentNode;
 
 /**
  * Decorador de nodo que guarda el tiempo de ejecucion de un nodo.
+ * Las trazas se guardan en un {@link Timeline} sin bloqueos, normalmente compartido con
+ * el resto de nodos del grafo, por lo que el nodo puede ejecutarse desde varios hilos a la vez.
+ * El nodo guarda además sus propias trazas en una cola sin bloqueos, para que
+ * {@link #getTraces()} no tenga que recorrer las del grafo entero.
+ * 
+ * Todas las ejecuciones se agregan en un {@link LatencyHistogram} de memoria fija. Además,
+ * se guarda una traza con una copia de la entrada cada {@code sampleEvery} ejecuciones
+ * (por defecto, en todas); con {@code sampleEvery = 0} no se guardan trazas y el profiler
+ * ocupa siempre la misma memoria. Opcionalmente, cada ejecución se registra también en un
+ * fichero de trazas binario ({@link BinaryTraceWriter}), con la copia de la entrada si se ha
+ * muestreado.
  * 
  * @param <T> Tipo de dato que procesa el nodo.
  * 
@@ -15,38 +31,151 @@ import nodos.ComponentNode;
  * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
  * Pareja 11
  */
-public class NodeProfiler<T extends PublicCloneable<T>> extends NodeDecorator<T> {
-    private List<Trace<T>> traces = new ArrayList<>();
+public class NodeProfiler<T extends Snapshottable<T>> extends NodeDecorator<T> {
+    private final Timeline<T> timeline;
+    private final Queue<Trace<T>> propias = new ConcurrentLinkedQueue<>();
+    private final LatencyHistogram latencias = new LatencyHistogram();
+    private final AtomicLong ejecuciones = new AtomicLong();
+    private final int sampleEvery;
+    private final boolean porBucle;
+    private final BinaryTraceWriter trazas;
 
     /**
-     * Constructor del decorador de profiling.
+     * Constructor del decorador de profiling que guarda una traza de cada ejecución.
      * 
      * @param decoratedNode Nodo original a decorar.
      */
     public NodeProfiler(ComponentNode<T> decoratedNode) {
+        this(decoratedNode, 1);
+    }
+
+    /**
+     * Constructor del decorador de profiling con muestreo de trazas.
+     * 
+     * @param decoratedNode Nodo original a decorar.
+     * @param sampleEvery Cada cuántas ejecuciones se guarda una traza (0 para no guardar ninguna).
+     */
+    public NodeProfiler(ComponentNode<T> decoratedNode, int sampleEvery) {
+        this(decoratedNode, sampleEvery, new Timeline<>());
+    }
+
+    /**
+     * Constructor del decorador de profiling que registra sus trazas en una línea temporal dada.
+     * 
+     * @param decoratedNode Nodo original a decorar.
+     * @param sampleEvery Cada cuántas ejecuciones se guarda una traza (0 para no guardar ninguna).
+     * @param timeline Línea temporal en la que se registran las trazas.
+     */
+    public NodeProfiler(ComponentNode<T> decoratedNode, int sampleEvery, Timeline<T> timeline) {
+        this(decoratedNode, sampleEvery, timeline, false);
+    }
+
+    /**
+     * Constructor del decorador de profiling que puede agregar los bucles del nodo sobre sí
+     * mismo: todas las vueltas cuentan como una sola ejecución, con una única medida de
+     * latencia y, si toca, una única traza con la entrada de la primera vuelta.
+     * 
+     * @param decoratedNode Nodo original a decorar.
+     * @param sampleEvery Cada cuántas ejecuciones se guarda una traza (0 para no guardar ninguna).
+     * @param timeline Línea temporal en la que se registran las trazas.
+     * @param porBucle Si es true, cada bucle sobre sí mismo se mide como una ejecución.
+     */
+    public NodeProfiler(ComponentNode<T> decoratedNode, int sampleEvery, Timeline<T> timeline, boolean porBucle) {
+        this(decoratedNode, sampleEvery, timeline, porBucle, null);
+    }
+
+    /**
+     * Constructor del decorador de profiling que además registra cada ejecución en un fichero
+     * de trazas binario.
+     * 
+     * @param decoratedNode Nodo original a decorar.
+     * @param sampleEvery Cada cuántas ejecuciones se guarda una traza (0 para no guardar ninguna).
+     * @param timeline Línea temporal en la que se registran las trazas.
+     * @param porBucle Si es true, cada bucle sobre sí mismo se mide como una ejecución.
+     * @param trazas Fichero de trazas binario (null para no usar ninguno).
+     */
+    public NodeProfiler(ComponentNode<T> decoratedNode, int sampleEvery, Timeline<T> timeline, boolean porBucle,
+            BinaryTraceWriter trazas) {
         super(decoratedNode);
+        if (sampleEvery < 0) {
+            throw new IllegalArgumentException("El muestreo no puede ser negativo: " + sampleEvery);
+        }
+        this.sampleEvery = sampleEvery;
+        this.timeline = timeline;
+        this.porBucle = porBucle;
+        this.trazas = trazas;
     }
 
     @Override
     public T execute(T input, boolean debug) {
+    	RunContext ctx = RunContext.actual();
+    	long paso = ctx == null ? 0 : ctx.siguientePaso();
+    	long n = ejecuciones.getAndIncrement();
+    	T t = sampleEvery > 0 && n % sampleEvery == 0 ? input.snapshot() : null;
     	long inicio = System.nanoTime();
-    	T t = (T)input.clone();
     	T output = super.execute(input, debug);
         long fin = System.nanoTime();
         
-        Trace<T> e = new Trace<>(super.getNombre(), (fin - inicio) / 1_000_000.0, t );
-        traces.add(e);
-    	
+        registrar(ctx, paso, t, inicio, fin);
         return output;
     }
+
+    /**
+     * Ejecuta el bucle del nodo sobre sí mismo. Si el profiler agrega los bucles, todo el bucle
+     * se mide como una sola ejecución; si no, se mide cada vuelta.
+     */
+    @Override
+    public T executeLoop(T input, Predicate<T> condicion, boolean debug) {
+    	if (!porBucle) {
+    		return super.executeLoop(input, condicion, debug);
+    	}
+    	RunContext ctx = RunContext.actual();
+    	long paso = ctx == null ? 0 : ctx.siguientePaso();
+    	long n = ejecuciones.getAndIncrement();
+    	T t = sampleEvery > 0 && n % sampleEvery == 0 ? input.snapshot() : null;
+    	long inicio = System.nanoTime();
+    	T output = decoratedNode.executeLoop(input, condicion, debug);
+    	long fin = System.nanoTime();
+
+    	registrar(ctx, paso, t, inicio, fin);
+    	return output;
+    }
+
+    /**
+     * Registra la latencia de una ejecución y, si se ha muestreado, su traza.
+     */
+    private void registrar(RunContext ctx, long paso, T copia, long inicio, long fin) {
+        long nanos = fin - inicio;
+        long runId = ctx == null ? 0 : ctx.runId();
+        latencias.record(nanos);
+        if (copia != null) {
+        	propias.add(timeline.record(super.getNombre(), nanos / 1_000_000.0, copia, runId, paso));
+        }
+        if (trazas != null) {
+        	trazas.writeProfiled(super.getNombre(), runId, paso, inicio, fin, copia);
+        }
+    }
     
     /**
-     * Obtiene las trazas de ejecución guardadas en este nodo .
+     * Obtiene una copia de las trazas de ejecución guardadas en este nodo, en orden de
+     * secuencia. El coste es lineal en las trazas del nodo, no en las de todo el grafo.
      * 
      * @return Lista de trazas de este nodo.
      */
     public List<Trace<T>> getTraces() {
-    	return traces;
+    	List<Trace<T>> copia = new ArrayList<>(propias);
+    	// Con varios hilos dos trazas pueden entrar en la cola en otro orden que el de su secuencia
+    	copia.sort(Comparator.comparingLong(Trace::getSecuencia));
+    	return copia;
+    }
+
+    /**
+     * Obtiene las estadísticas agregadas de todas las ejecuciones de este nodo.
+     * 
+     * @return Estadísticas de latencia del nodo.
+     */
+    public NodeStats getStats() {
+    	return new NodeStats(super.getNombre(), latencias);
     }
 
     @Override
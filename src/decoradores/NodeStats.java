@@ -0,0 +1,104 @@
+package decoradores;
+
+/**
+ * Estadísticas agregadas de las ejecuciones de un nodo, tomadas de su histograma de latencias
+ * en un momento dado. Todos los tiempos se expresan en milisegundos.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class NodeStats {
+	private final String nombreNodo;
+	private final long count;
+	private final double minMs;
+	private final double maxMs;
+	private final double meanMs;
+	private final double p50Ms;
+	private final double p90Ms;
+	private final double p99Ms;
+	private final double p999Ms;
+
+	/**
+	 * Crea las estadísticas a partir del histograma de un nodo.
+	 *
+	 * @param nombreNodo Nombre del nodo.
+	 * @param h Histograma con las latencias del nodo.
+	 */
+	public NodeStats(String nombreNodo, LatencyHistogram h) {
+		this.nombreNodo = nombreNodo;
+		this.count = h.count();
+		this.minMs = h.min() / 1_000_000.0;
+		this.maxMs = h.max() / 1_000_000.0;
+		this.meanMs = h.mean() / 1_000_000.0;
+		this.p50Ms = h.percentile(50) / 1_000_000.0;
+		this.p90Ms = h.percentile(90) / 1_000_000.0;
+		this.p99Ms = h.percentile(99) / 1_000_000.0;
+		this.p999Ms = h.percentile(99.9) / 1_000_000.0;
+	}
+
+	/**
+	 * Obtiene el nombre del nodo.
+	 *
+	 * @return Nombre del nodo.
+	 */
+	public String getNombreNodo() {
+		return nombreNodo;
+	}
+
+	/**
+	 * Obtiene el número de ejecuciones del nodo.
+	 *
+	 * @return Número de ejecuciones.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Obtiene la ejecución más rápida.
+	 *
+	 * @return Mínimo en milisegundos.
+	 */
+	public double getMinMs() {
+		return minMs;
+	}
+
+	/**
+	 * Obtiene la ejecución más lenta.
+	 *
+	 * @return Máximo en milisegundos.
+	 */
+	public double getMaxMs() {
+		return maxMs;
+	}
+
+	/**
+	 * Obtiene la duración media.
+	 *
+	 * @return Media en milisegundos.
+	 */
+	public double getMeanMs() {
+		return meanMs;
+	}
+
+	/**
+	 * Obtiene un percentil de la duración. Solo se guardan los percentiles 50, 90, 99 y 99,9.
+	 *
+	 * @param percentil Percentil (50, 90, 99 o 99.9).
+	 * @return Duración en milisegundos.
+	 */
+	public double getPercentileMs(double percentil) {
+		if (percentil == 50) return p50Ms;
+		if (percentil == 90) return p90Ms;
+		if (percentil == 99) return p99Ms;
+		if (percentil == 99.9) return p999Ms;
+		throw new IllegalArgumentException("Percentil no disponible: " + percentil);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[%s: count=%d min=%.3f mean=%.3f p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f ms]",
+				nombreNodo, count, minMs, meanMs, p50Ms, p90Ms, p99Ms, p999Ms, maxMs);
+	}
+}
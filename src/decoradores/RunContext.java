@@ -0,0 +1,117 @@
+package decoradores;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contexto de la ejecución de un grafo en curso en el hilo actual: identificador de la
+ * ejecución y contador de pasos. Lo abre el StateGraphProfiler al empezar cada run y lo
+ * consultan sus NodeProfiler para numerar las trazas. Las ramas de las bifurcaciones que se
+ * ejecutan en otros hilos heredan el contexto a través de {@link #propagando(Executor)}.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+final class RunContext {
+	private static final AtomicLong RUN_IDS = new AtomicLong();
+	private static final ThreadLocal<RunContext> ACTUAL = new ThreadLocal<>();
+
+	private final long runId;
+	private final AtomicLong pasos;
+	private final RunContext anterior;
+	private long paso;
+
+	private RunContext(long runId, AtomicLong pasos, RunContext anterior) {
+		this.runId = runId;
+		this.pasos = pasos;
+		this.anterior = anterior;
+	}
+
+	/**
+     * Abre un nuevo contexto en el hilo actual, guardando el que hubiera (subgrafos anidados).
+     *
+     * @return Contexto abierto, que debe cerrarse con {@link #cerrar()}.
+     */
+	static RunContext abrir() {
+		RunContext ctx = new RunContext(RUN_IDS.incrementAndGet(), new AtomicLong(), ACTUAL.get());
+		ACTUAL.set(ctx);
+		return ctx;
+	}
+
+	/**
+     * Obtiene el contexto abierto en el hilo actual.
+     *
+     * @return Contexto actual, o null si no hay ninguna ejecución en curso.
+     */
+	static RunContext actual() {
+		return ACTUAL.get();
+	}
+
+	/**
+     * Cierra el contexto, restaurando el que hubiera antes.
+     */
+	void cerrar() {
+		if (anterior == null) {
+			ACTUAL.remove();
+		} else {
+			ACTUAL.set(anterior);
+		}
+	}
+
+	long runId() {
+		return runId;
+	}
+
+	/**
+     * Obtiene el último paso numerado en este hilo.
+     *
+     * @return Paso actual.
+     */
+	long paso() {
+		return paso;
+	}
+
+	/**
+     * Numera un paso nuevo. El contador es compartido por todas las ramas de la ejecución.
+     *
+     * @return Número del paso.
+     */
+	long siguientePaso() {
+		paso = pasos.incrementAndGet();
+		return paso;
+	}
+
+	/**
+     * Envuelve un ejecutor para que las tareas lanzadas en él continúen la ejecución en curso
+     * del hilo que las lanza: cada tarea se ejecuta con un contexto con el mismo identificador
+     * y el mismo contador de pasos, que se retira al terminar. Lo usan las ramas de las
+     * bifurcaciones, que se ejecutan en otros hilos.
+     *
+     * @param executor Ejecutor original.
+     * @return Ejecutor que propaga el contexto.
+     */
+	static Executor propagando(Executor executor) {
+		return executor instanceof Propagador ? executor : new Propagador(executor);
+	}
+
+	private record Propagador(Executor executor) implements Executor {
+		@Override
+		public void execute(Runnable tarea) {
+			RunContext ctx = ACTUAL.get();
+			if (ctx == null) {
+				executor.execute(tarea);
+				return;
+			}
+			executor.execute(() -> {
+				RunContext rama = new RunContext(ctx.runId, ctx.pasos, ACTUAL.get());
+				ACTUAL.set(rama);
+				try {
+					tarea.run();
+				} finally {
+					rama.cerrar();
+				}
+			});
+		}
+	}
+}
@@ -1,9 +1,19 @@
 package decoradores;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+import checkpoint.CheckpointPolicy;
+import checkpoint.CheckpointStore;
+import grafos.BatchExecution;
+import grafos.ExecutionListener;
+import grafos.ExecutionPlan;
 import grafos.Graph;
+import grafos.GraphValidation;
 import grafos.StateGraph;
 import nodos.ComponentNode;
 import nodos.NodeG;
@@ -40,6 +50,71 @@ public abstract class StateGraphDecorator<T> implements Graph<T> {
     public T run(T input, boolean trazado) {
         return graph.run(input, trazado);
     }
+
+    /**
+     * Ejecuta el grafo decorado guardando puntos de control. Los nodos siguen decorados, pero
+     * no se aplica el comportamiento que los decoradores añaden a run(input, trazado).
+     *
+     * @param input Dato de entrada.
+     * @param store Fichero de puntos de control.
+     * @param policy Frecuencia de los puntos de control.
+     * @return Resultado final tras la ejecución.
+     */
+    @Override
+    public T run(T input, CheckpointStore<T> store, CheckpointPolicy policy) {
+        return graph.run(input, store, policy);
+    }
+
+    /**
+     * Continúa una ejecución del grafo decorado desde su último punto de control.
+     *
+     * @param store Fichero de puntos de control.
+     * @param policy Frecuencia de los nuevos puntos de control.
+     * @return Resultado final tras la ejecución.
+     */
+    @Override
+    public T resume(CheckpointStore<T> store, CheckpointPolicy policy) {
+        return graph.resume(store, policy);
+    }
+    
+    /**
+     * Ejecuta el grafo decorado sobre un lote de entradas en paralelo. Cada entrada pasa
+     * por {@link #run(Object, boolean)} de este decorador, de modo que se conserva el
+     * comportamiento añadido por toda la cadena de decoradores.
+     *
+     * @param inputs Entradas a procesar.
+     * @param executor Ejecutor en el que se lanzan las ejecuciones.
+     * @return Resultados en el mismo orden que las entradas.
+     */
+    @Override
+    public List<T> runAll(Collection<? extends T> inputs, Executor executor) {
+        return runAll(inputs.spliterator(), executor);
+    }
+
+    /**
+     * Ejecuta el grafo decorado sobre un lote de entradas en paralelo.
+     *
+     * @param inputs Spliterator con las entradas a procesar.
+     * @param executor Ejecutor en el que se lanzan las ejecuciones.
+     * @return Resultados en el mismo orden que las entradas.
+     */
+    @Override
+    public List<T> runAll(Spliterator<? extends T> inputs, Executor executor) {
+        return BatchExecution.ordered(inputs, executor, x -> run(x, false));
+    }
+
+    /**
+     * Ejecuta el grafo decorado sobre un lote de entradas en paralelo, entregando cada
+     * resultado en cuanto termina.
+     *
+     * @param inputs Spliterator con las entradas a procesar.
+     * @param executor Ejecutor en el que se lanzan las ejecuciones.
+     * @param onResult Consumidor que recibe los resultados (puede llamarse desde varios hilos).
+     */
+    @Override
+    public void runAllUnordered(Spliterator<? extends T> inputs, Executor executor, Consumer<? super T> onResult) {
+        BatchExecution.<T>unordered(inputs, executor, x -> run(x, false), onResult);
+    }
     
     /**
      * Devuelve el nombre identificador del grafo.
@@ -160,6 +235,36 @@ public abstract class StateGraphDecorator<T> implements Graph<T> {
         return graph.getFinal();
     }
 
+    /**
+     * Sella el grafo decorado para que sea de solo lectura.
+     *
+     * @return Plan de ejecución del grafo sellado.
+     */
+    @Override
+    public ExecutionPlan<T> seal() {
+        return graph.seal();
+    }
+
+    /**
+     * Valida el grafo decorado sin ejecutarlo.
+     *
+     * @return Resultado de la validación.
+     */
+    @Override
+    public GraphValidation validate() {
+        return graph.validate();
+    }
+
+    /**
+     * Valida el grafo decorado y elimina sus aristas muertas.
+     *
+     * @return Resultado de la validación previa a la eliminación.
+     */
+    @Override
+    public GraphValidation optimize() {
+        return graph.optimize();
+    }
+
     /**
      * Ejecuta el flujo del grafo desde el nodo inicial de forma recursiva.
      *
@@ -172,6 +277,26 @@ public abstract class StateGraphDecorator<T> implements Graph<T> {
         return graph.executeFrom(data, debug);
     }
 
+    /**
+     * Registra un observador en el grafo decorado.
+     *
+     * @param listener Observador a registrar.
+     */
+    @Override
+    public void addListener(ExecutionListener<? super T> listener) {
+        graph.addListener(listener);
+    }
+
+    /**
+     * Quita un observador del grafo decorado.
+     *
+     * @param listener Observador a quitar.
+     */
+    @Override
+    public void removeListener(ExecutionListener<? super T> listener) {
+        graph.removeListener(listener);
+    }
+
     /**
      * Devuelve una representación textual del grafo decorado.
      *
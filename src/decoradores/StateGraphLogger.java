@@ -9,6 +9,9 @@ import nodos.Node;
 /**
  * Decorador que añade capacidad de registro (logging) a un StateGraph.
  * Cada nodo es decorado con un NodeLogger y se almacena la traza de ejecución en un fichero.
+ * La escritura es asíncrona; tras llamar a {@link #close()} todos los registros están en el fichero.
+ * Alternativamente, la traza puede escribirse en un fichero binario ({@link BinaryTraceWriter}),
+ * mucho más compacto, que se convierte a texto con {@link BinaryTraceReader}.
  * 
  * @param <T> Tipo de datos que procesa el grafo.
  * 
@@ -16,8 +19,11 @@ import nodos.Node;
  * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
  * Pareja 11
  */
-public class StateGraphLogger<T> extends StateGraphDecorator<T> {
-    private String path;
+public class StateGraphLogger<T> extends StateGraphDecorator<T> implements AutoCloseable {
+    private final AsyncLogWriter writer;
+    private final CachedClock clock;
+    private final BinaryTraceWriter trazas;
+    private boolean porBucle;
 
     /**
      * Constructor que decora un StateGraph con capacidades de logging.
@@ -26,8 +32,56 @@ public class StateGraphLogger<T> extends StateGraphDecorator<T> {
      * @param path Ruta del fichero de log.
      */
     public StateGraphLogger(Graph<T> graph, String path) {
+        this(graph, AsyncLogWriter.open(path));
+    }
+
+    /**
+     * Constructor que decora un StateGraph con un escritor de log ya configurado.
+     * 
+     * @param graph Grafo original a decorar.
+     * @param writer Escritor en el que se registran las ejecuciones.
+     */
+    public StateGraphLogger(Graph<T> graph, AsyncLogWriter writer) {
+        this(graph, writer, CachedClock.system());
+    }
+
+    /**
+     * Constructor que decora un StateGraph con un escritor de log y un reloj concretos.
+     * 
+     * @param graph Grafo original a decorar.
+     * @param writer Escritor en el que se registran las ejecuciones.
+     * @param clock Reloj del que se toma la marca de tiempo de cada registro.
+     */
+    public StateGraphLogger(Graph<T> graph, AsyncLogWriter writer, CachedClock clock) {
+        super(graph);
+        this.writer = writer;
+        this.clock = clock;
+        this.trazas = null;
+    }
+
+    /**
+     * Constructor que decora un StateGraph para registrar sus ejecuciones en un fichero de
+     * trazas binario.
+     * 
+     * @param graph Grafo original a decorar.
+     * @param trazas Fichero de trazas binario en el que se registran las ejecuciones.
+     */
+    public StateGraphLogger(Graph<T> graph, BinaryTraceWriter trazas) {
         super(graph);
-        this.path = path;
+        this.writer = null;
+        this.clock = null;
+        this.trazas = trazas;
+    }
+    
+    /**
+     * Hace que los nodos que se añadan a partir de ahora registren cada bucle sobre sí mismos
+     * en una sola línea, con el número de vueltas, en lugar de una línea por vuelta.
+     *
+     * @return Este decorador, permitiendo encadenamiento.
+     */
+    public StateGraphLogger<T> aggregateLoops() {
+        this.porBucle = true;
+        return this;
     }
     
     /**
@@ -40,9 +94,7 @@ public class StateGraphLogger<T> extends StateGraphDecorator<T> {
      */
     @Override
     public Graph<T> addNode(String nombreNodo, Consumer<T> codNodo) {
-        Node<T> node = new Node<>(nombreNodo, codNodo);
-        NodeLogger<T> decorated = new NodeLogger<>(node, path);
-        super.addNode(decorated);
+        super.addNode(decorar(new Node<>(nombreNodo, codNodo)));
         return this;
     }
     
@@ -53,8 +105,23 @@ public class StateGraphLogger<T> extends StateGraphDecorator<T> {
      * @return El grafo decorado para permitir llamadas encadenadas.
      */
     public Graph<T> addNode(ComponentNode<T> node) {
-    	NodeLogger<T> decorated = new NodeLogger<>(node, path);
-        return super.addNode(decorated);
+        return super.addNode(decorar(node));
     }
-}
 
+    private NodeLogger<T> decorar(ComponentNode<T> node) {
+        return trazas != null ? new NodeLogger<>(node, trazas, porBucle) : new NodeLogger<>(node, writer, clock, porBucle);
+    }
+    
+    /**
+     * Vuelca todos los registros pendientes y libera el escritor de log (o cierra el fichero
+     * de trazas binario).
+     */
+    @Override
+    public void close() {
+        if (trazas != null) {
+            trazas.close();
+        } else {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package decoradores;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import cache.CacheStats;
+import cache.ResultCache;
+import grafos.Graph;
+import nodos.ComponentNode;
+import nodos.Node;
+
+/**
+ * Decorador de grafos que memoriza el efecto de los nodos seleccionados con
+ * {@link #memoize}. Los nodos se envuelven en un {@link NodeMemoizer} al añadirse, por lo que
+ * hay que seleccionarlos antes de añadirlos al grafo; el resto de nodos se añade sin cambios.
+ *
+ * @param <T> Tipo de dato que procesa el grafo.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class StateGraphMemoizer<T> extends StateGraphDecorator<T> {
+	/**
+	 * Configuración de la memorización de un nodo.
+	 */
+	private static final class Configuracion<T, K, V> {
+		final Function<? super T, K> clave;
+		final Function<? super T, V> efecto;
+		final BiConsumer<? super T, ? super V> aplicar;
+		final int maxEntradas;
+		final Duration ttl;
+
+		Configuracion(Function<? super T, K> clave, Function<? super T, V> efecto,
+				BiConsumer<? super T, ? super V> aplicar, int maxEntradas, Duration ttl) {
+			this.clave = clave;
+			this.efecto = efecto;
+			this.aplicar = aplicar;
+			this.maxEntradas = maxEntradas;
+			this.ttl = ttl;
+		}
+
+		NodeMemoizer<T, K, V> decorar(ComponentNode<T> node) {
+			return new NodeMemoizer<>(node, clave, efecto, aplicar, new ResultCache<>(maxEntradas, ttl));
+		}
+	}
+
+	private final Map<String, Configuracion<T, ?, ?>> configuraciones = new HashMap<>();
+	private final Map<String, NodeMemoizer<T, ?, ?>> memorizados = new LinkedHashMap<>();
+
+	/**
+     * Constructor del decorador.
+     *
+     * @param graph Grafo a decorar.
+     */
+	public StateGraphMemoizer(Graph<T> graph) {
+		super(graph);
+	}
+
+	/**
+     * Selecciona un nodo para memorizar su efecto, con una caché sin caducidad.
+     *
+     * @param <K> Tipo de la clave.
+     * @param <V> Tipo del efecto.
+     * @param nombreNodo Nombre del nodo (todavía no añadido).
+     * @param clave Extrae de la entrada la clave de la que depende el resultado del nodo.
+     * @param efecto Extrae de la entrada, ya procesada, el efecto a guardar.
+     * @param aplicar Aplica un efecto guardado sobre una entrada.
+     * @param maxEntradas Número máximo de efectos guardados.
+     * @return Este decorador, permitiendo encadenamiento.
+     */
+	public <K, V> StateGraphMemoizer<T> memoize(String nombreNodo, Function<? super T, K> clave,
+			Function<? super T, V> efecto, BiConsumer<? super T, ? super V> aplicar, int maxEntradas) {
+		return memoize(nombreNodo, clave, efecto, aplicar, maxEntradas, null);
+	}
+
+	/**
+     * Selecciona un nodo para memorizar su efecto.
+     *
+     * @param <K> Tipo de la clave.
+     * @param <V> Tipo del efecto.
+     * @param nombreNodo Nombre del nodo (todavía no añadido).
+     * @param clave Extrae de la entrada la clave de la que depende el resultado del nodo.
+     * @param efecto Extrae de la entrada, ya procesada, el efecto a guardar.
+     * @param aplicar Aplica un efecto guardado sobre una entrada.
+     * @param maxEntradas Número máximo de efectos guardados.
+     * @param ttl Tiempo de vida de cada efecto (null si no caducan).
+     * @return Este decorador, permitiendo encadenamiento.
+     * @throws IllegalStateException Si el nodo ya se ha añadido al grafo.
+     */
+	public <K, V> StateGraphMemoizer<T> memoize(String nombreNodo, Function<? super T, K> clave,
+			Function<? super T, V> efecto, BiConsumer<? super T, ? super V> aplicar, int maxEntradas, Duration ttl) {
+		for (ComponentNode<T> n : getNodes()) {
+			if (n.getNombre().equals(nombreNodo)) {
+				throw new IllegalStateException("El nodo " + nombreNodo + " ya está en el grafo; debe memorizarse antes de añadirlo");
+			}
+		}
+		configuraciones.put(nombreNodo, new Configuracion<>(clave, efecto, aplicar, maxEntradas, ttl));
+		return this;
+	}
+
+	/**
+     * Añade un nodo al grafo original, envolviéndolo en un NodeMemoizer si se ha seleccionado.
+     *
+     * @param nombreNodo Nombre del nodo a añadir.
+     * @param codNodo Código que se ejecutará en el nodo.
+     * @return Este decorador, permitiendo encadenamiento.
+     */
+	@Override
+	public Graph<T> addNode(String nombreNodo, Consumer<T> codNodo) {
+		addNode(new Node<>(nombreNodo, codNodo));
+		return this;
+	}
+
+	/**
+     * Añade un nodo ya creado al grafo decorado, envolviéndolo en un NodeMemoizer si se ha
+     * seleccionado.
+     *
+     * @param node Nodo a añadir.
+     * @return El grafo decorado para permitir llamadas encadenadas.
+     */
+	@Override
+	public Graph<T> addNode(ComponentNode<T> node) {
+		Configuracion<T, ?, ?> conf = configuraciones.get(node.getNombre());
+		if (conf == null) {
+			return super.addNode(node);
+		}
+		NodeMemoizer<T, ?, ?> decorated = conf.decorar(node);
+		memorizados.put(node.getNombre(), decorated);
+		return super.addNode(decorated);
+	}
+
+	/**
+     * Obtiene los contadores de la caché de cada nodo memorizado.
+     *
+     * @return Mapa de nombre de nodo a sus contadores, en orden de inserción.
+     */
+	public Map<String, CacheStats> cacheStats() {
+		Map<String, CacheStats> stats = new LinkedHashMap<>();
+		for (Map.Entry<String, NodeMemoizer<T, ?, ?>> e : memorizados.entrySet()) {
+			stats.put(e.getKey(), e.getValue().getStats());
+		}
+		return stats;
+	}
+}
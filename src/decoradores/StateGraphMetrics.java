@@ -0,0 +1,250 @@
+package decoradores;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import grafos.ExecutionListener;
+import grafos.Graph;
+import nodos.ComponentNode;
+import nodos.Node;
+
+/**
+ * Decorador que añade métricas para la monitorización en vivo a un StateGraph.
+ * Cada nodo se decora con un {@link NodeMetrics} (ejecuciones, fallos y latencias por nodo) y
+ * el grafo cuenta sus ejecuciones, las que fallan, su latencia y las transiciones seguidas por
+ * cada arista, que recibe como {@link ExecutionListener}. Registrar el observador hace que el
+ * grafo deje de usar su bucle de ejecución sin avisos, por lo que las métricas tienen un
+ * pequeño coste por paso además del de los contadores.
+ *
+ * Todas las métricas se crean en un {@link MetricsRegistry}, que puede exportarlas en formato
+ * Prometheus, y con {@link #registerMBeans()} se publican también como MXBeans en el servidor
+ * JMX de la plataforma, bajo el dominio {@code grafos}.
+ *
+ * @param <T> Tipo de datos que procesa el grafo.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class StateGraphMetrics<T> extends StateGraphDecorator<T> implements StateGraphMetricsMXBean, AutoCloseable {
+	private final MetricsRegistry registry;
+	private final LongAdder ejecuciones;
+	private final LongAdder fallos;
+	private final LatencyHistogram latencias;
+	private final Map<String, Map<String, LongAdder>> transiciones = new ConcurrentHashMap<>();
+	private final ExecutionListener<T> observador;
+	private final List<ObjectName> registrados = new ArrayList<>();
+	private boolean publicado;
+
+	/**
+     * Constructor que decora un StateGraph con métricas.
+     *
+     * @param graph Grafo original a decorar.
+     * @param registry Registro en el que se crean las métricas del grafo y de sus nodos.
+     */
+	public StateGraphMetrics(Graph<T> graph, MetricsRegistry registry) {
+		super(graph);
+		this.registry = registry;
+		String grafo = graph.getNombre();
+		this.ejecuciones = registry.counter("graph_runs_total", "Graph runs", "graph", grafo);
+		this.fallos = registry.counter("graph_run_failures_total", "Graph runs that threw an exception", "graph", grafo);
+		this.latencias = registry.timer("graph_run_latency_seconds", "Graph run latency", "graph", grafo);
+		this.observador = new ExecutionListener<>() {
+			@Override
+			public void transitionTaken(String g, String origen, String destino, T data) {
+				arista(origen, destino).increment();
+			}
+		};
+		graph.addListener(observador);
+	}
+
+	/**
+     * Obtiene el contador de una arista, creándolo la primera vez que se sigue.
+     */
+	private LongAdder arista(String origen, String destino) {
+		Map<String, LongAdder> desde = transiciones.get(origen);
+		LongAdder c = desde == null ? null : desde.get(destino);
+		if (c != null) return c;
+		return transiciones.computeIfAbsent(origen, o -> new ConcurrentHashMap<>())
+				.computeIfAbsent(destino, d -> registry.counter("graph_transitions_total", "Transitions taken per edge",
+						"graph", getNombre(), "from", origen, "to", destino));
+	}
+
+	/**
+     * Añade un nodo al grafo original, envolviéndolo en un NodeMetrics.
+     *
+     * @param nombreNodo Nombre del nodo a añadir.
+     * @param codNodo Código que se ejecutará en el nodo.
+     * @return Este decorador, permitiendo encadenamiento.
+     */
+	@Override
+	public Graph<T> addNode(String nombreNodo, Consumer<T> codNodo) {
+		addNode(new Node<>(nombreNodo, codNodo));
+		return this;
+	}
+
+	/**
+     * Añade un nodo ya creado al grafo decorado, envolviéndolo en un NodeMetrics.
+     *
+     * @param node Nodo a añadir.
+     * @return El grafo decorado para permitir llamadas encadenadas.
+     */
+	@Override
+	public Graph<T> addNode(ComponentNode<T> node) {
+		NodeMetrics<T> decorated = new NodeMetrics<>(node, registry, getNombre());
+		Graph<T> g = super.addNode(decorated);
+		synchronized (this) {
+			if (publicado) publicar(nombreNodo(decorated.getNombre()), decorated);
+		}
+		return g;
+	}
+
+	/**
+     * Ejecuta el grafo decorado midiendo la ejecución.
+     *
+     * @param input Dato de entrada.
+     * @param trazado Si es true, se imprime el trazado de ejecución.
+     * @return Resultado final tras la ejecución.
+     */
+	@Override
+	public T run(T input, boolean trazado) {
+		long inicio = System.nanoTime();
+		try {
+			return super.run(input, trazado);
+		} catch (RuntimeException | Error e) {
+			fallos.increment();
+			throw e;
+		} finally {
+			latencias.record(System.nanoTime() - inicio);
+			ejecuciones.increment();
+		}
+	}
+
+	@Override
+	public long getRuns() {
+		return ejecuciones.sum();
+	}
+
+	@Override
+	public long getFailedRuns() {
+		return fallos.sum();
+	}
+
+	@Override
+	public double getMeanMs() {
+		return latencias.mean() / 1_000_000.0;
+	}
+
+	@Override
+	public double getP99Ms() {
+		return latencias.percentile(99) / 1_000_000.0;
+	}
+
+	@Override
+	public Map<String, Long> getTransitions() {
+		Map<String, Long> t = new LinkedHashMap<>();
+		transiciones.forEach((origen, desde) -> desde.forEach((destino, c) -> t.put(origen + " -> " + destino, c.sum())));
+		return t;
+	}
+
+	/**
+     * Obtiene las métricas de cada nodo del grafo, en el orden de los nodos.
+     *
+     * @return Mapa del nombre de cada nodo a sus métricas.
+     */
+	public Map<String, NodeMetrics<T>> nodeMetrics() {
+		Map<String, NodeMetrics<T>> m = new LinkedHashMap<>();
+		for (ComponentNode<T> node : getNodes()) {
+			NodeMetrics<T> metrics = buscarMetricas(node);
+			if (metrics != null) m.put(metrics.getNombre(), metrics);
+		}
+		return m;
+	}
+
+	/**
+     * Desempaqueta los decoradores de un nodo hasta encontrar su NodeMetrics.
+     *
+     * @param node Nodo del grafo.
+     * @return NodeMetrics del nodo, o null si no tiene.
+     */
+	@SuppressWarnings("unchecked")
+	private NodeMetrics<T> buscarMetricas(ComponentNode<T> node) {
+		ComponentNode<T> current = node;
+		while (current instanceof NodeDecorator) {
+			if (current instanceof NodeMetrics) {
+				return (NodeMetrics<T>) current;
+			}
+			current = ((NodeDecorator<T>) current).getDecoratedNode();
+		}
+		return null;
+	}
+
+	/**
+     * Publica las métricas del grafo y de sus nodos como MXBeans en el servidor JMX de la
+     * plataforma, con los nombres {@code grafos:type=StateGraph,name=<grafo>} y
+     * {@code grafos:type=Node,graph=<grafo>,name=<nodo>}. Los nodos que se añadan después se
+     * publican al añadirse.
+     *
+     * @return Este decorador, permitiendo encadenamiento.
+     * @throws IllegalStateException Si ya hay publicado un grafo con el mismo nombre.
+     */
+	public synchronized StateGraphMetrics<T> registerMBeans() {
+		if (publicado) return this;
+		publicado = true;
+		publicar(nombre("type=StateGraph,name=" + ObjectName.quote(getNombre())), this);
+		for (NodeMetrics<T> m : nodeMetrics().values()) {
+			publicar(nombreNodo(m.getNombre()), m);
+		}
+		return this;
+	}
+
+	private ObjectName nombreNodo(String nodo) {
+		return nombre("type=Node,graph=" + ObjectName.quote(getNombre()) + ",name=" + ObjectName.quote(nodo));
+	}
+
+	private static ObjectName nombre(String propiedades) {
+		try {
+			return new ObjectName("grafos:" + propiedades);
+		} catch (JMException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	private void publicar(ObjectName nombre, Object mbean) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, nombre);
+			registrados.add(nombre);
+		} catch (JMException e) {
+			throw new IllegalStateException("No se puede publicar " + nombre + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+     * Retira los MXBeans publicados y deja de observar las transiciones del grafo. Las métricas
+     * siguen en el registro.
+     */
+	@Override
+	public synchronized void close() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (ObjectName nombre : registrados) {
+			try {
+				server.unregisterMBean(nombre);
+			} catch (JMException e) {
+				System.err.println("Error al retirar " + nombre + ": " + e.getMessage());
+			}
+		}
+		registrados.clear();
+		publicado = false;
+		removeListener(observador);
+	}
+}
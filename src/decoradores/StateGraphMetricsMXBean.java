@@ -0,0 +1,54 @@
+package decoradores;
+
+import java.util.Map;
+
+/**
+ * Interfaz de gestión (JMX) con las métricas de un grafo decorado con {@link StateGraphMetrics}.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public interface StateGraphMetricsMXBean {
+	/**
+     * Obtiene el nombre del grafo.
+     *
+     * @return Nombre del grafo.
+     */
+	String getNombre();
+
+	/**
+     * Obtiene el número de ejecuciones del grafo, incluidas las que fallaron.
+     *
+     * @return Número de ejecuciones.
+     */
+	long getRuns();
+
+	/**
+     * Obtiene el número de ejecuciones que terminaron con una excepción.
+     *
+     * @return Número de fallos.
+     */
+	long getFailedRuns();
+
+	/**
+     * Obtiene la duración media de las ejecuciones.
+     *
+     * @return Media en milisegundos.
+     */
+	double getMeanMs();
+
+	/**
+     * Obtiene el percentil 99 de la duración de las ejecuciones.
+     *
+     * @return Percentil 99 en milisegundos.
+     */
+	double getP99Ms();
+
+	/**
+     * Obtiene el número de veces que se ha seguido cada arista.
+     *
+     * @return Mapa de "origen -> destino" al número de transiciones.
+     */
+	Map<String, Long> getTransitions();
+}
@@ -1,10 +1,11 @@
 package decoradores;
 
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
-import datos.PublicCloneable;
+import datos.Snapshottable;
 import grafos.Graph;
 import nodos.ComponentNode;
 import nodos.Node;
@@ -13,21 +14,71 @@ import nodos.Node;
  * Decorador que añade capacidad de profiling (conteo de ejecuciones) a un StateGraph.
  * Cada nodo es decorado con un NodeProfiler.
  * 
+ * Todos los nodos registran sus trazas en una única {@link Timeline}, por lo que
+ * {@link #history()} las devuelve en orden de ejecución, con un número de secuencia global,
+ * el identificador de la ejecución (run) y el número de paso. Con {@link #history(long)} se
+ * consultan solo las trazas nuevas desde una secuencia dada, sin copiar todo el historial.
+ * 
+ * Además de las trazas, cada nodo agrega sus latencias en un
+ * histograma de memoria fija, que se consulta con {@link #statistics()}. Las trazas pueden
+ * muestrearse (o desactivarse) para grafos con bucles largos, y volcarse también a un fichero
+ * de trazas binario con {@link #traceTo(BinaryTraceWriter)}.
+ * 
  * @param <T> Tipo de datos que procesa el grafo.
  * 
  * @autor Sofía Castro - sofiai.castro@estudiante.uam.es
  * @autor Sara Lorenzo - sara.lorenzot@estudiante.uam.es
  * Pareja 11
  */
-public class StateGraphProfiler<T extends PublicCloneable<T>> extends StateGraphDecorator<T> {
+public class StateGraphProfiler<T extends Snapshottable<T>> extends StateGraphDecorator<T> {
+    private final int sampleEvery;
+    private boolean porBucle;
+    private BinaryTraceWriter trazas;
+    private final Timeline<T> timeline = new Timeline<>();
 
     /**
      * Constructor que decora un StateGraph con capacidades de profiling.
+     * Se guarda una traza de cada ejecución de cada nodo.
      * 
      * @param graph Grafo original a decorar.
      */
     public StateGraphProfiler(Graph<T> graph) {
+        this(graph, 1);
+    }
+
+    /**
+     * Constructor que decora un StateGraph con capacidades de profiling y muestreo de trazas.
+     * 
+     * @param graph Grafo original a decorar.
+     * @param sampleEvery Cada cuántas ejecuciones de un nodo se guarda una traza (0 para no guardar ninguna).
+     */
+    public StateGraphProfiler(Graph<T> graph, int sampleEvery) {
         super(graph);
+        this.sampleEvery = sampleEvery;
+    }
+
+    /**
+     * Hace que los nodos que se añadan a partir de ahora midan cada bucle sobre sí mismos como
+     * una sola ejecución, con una medida de latencia y como mucho una traza por bucle, en lugar
+     * de una por vuelta.
+     *
+     * @return Este decorador, permitiendo encadenamiento.
+     */
+    public StateGraphProfiler<T> aggregateLoops() {
+        this.porBucle = true;
+        return this;
+    }
+
+    /**
+     * Hace que los nodos que se añadan a partir de ahora registren también cada ejecución en un
+     * fichero de trazas binario, con la copia de la entrada cuando se muestree.
+     *
+     * @param trazas Fichero de trazas binario, que debe cerrarse tras las ejecuciones.
+     * @return Este decorador, permitiendo encadenamiento.
+     */
+    public StateGraphProfiler<T> traceTo(BinaryTraceWriter trazas) {
+        this.trazas = trazas;
+        return this;
     }
 
     /**
@@ -41,7 +92,7 @@ public class StateGraphProfiler<T extends PublicCloneable<T>> extends StateGraph
     @Override
     public Graph<T> addNode(String nombreNodo, Consumer<T> codNodo) {
         Node<T> node = new Node<>(nombreNodo, codNodo);
-        NodeProfiler<T> decorated = new NodeProfiler<T>(node);
+        NodeProfiler<T> decorated = new NodeProfiler<T>(node, sampleEvery, timeline, porBucle, trazas);
         super.addNode(decorated);
         return this;
     }
@@ -54,31 +105,90 @@ public class StateGraphProfiler<T extends PublicCloneable<T>> extends StateGraph
      */
     @Override
     public Graph<T> addNode(ComponentNode<T> node) {
-    	NodeProfiler<T> decorated = new NodeProfiler<T>(node);
+    	NodeProfiler<T> decorated = new NodeProfiler<T>(node, sampleEvery, timeline, porBucle, trazas);
         return super.addNode(decorated);
     }
     
     /**
-     * Obtine las trazas que los nodos han generado al ejecutarse.
+     * Ejecuta el grafo decorado abriendo un nuevo identificador de ejecución, con el que se
+     * etiquetan las trazas de los nodos ejecutados en este hilo.
+     *
+     * @param input Dato de entrada.
+     * @param trazado Si es true, se imprime el trazado de ejecución.
+     * @return Resultado final tras la ejecución.
+     */
+    @Override
+    public T run(T input, boolean trazado) {
+    	RunContext ctx = RunContext.abrir();
+    	try {
+    		return super.run(input, trazado);
+    	} finally {
+    		ctx.cerrar();
+    	}
+    }
+    
+    /**
+     * Obtine las trazas que los nodos han generado al ejecutarse, en orden de ejecución.
      *
      * @return Lista de trazas.
      */
     public List<Trace<T>> history() {
-    	List<Trace<T>> history = new ArrayList<>();
-    	
+    	return timeline.all();
+    }
+
+    /**
+     * Obtiene solo las trazas generadas a partir de un número de secuencia, para consultar el
+     * historial de forma incremental.
+     *
+     * @param desdeSecuencia Primer número de secuencia a devolver.
+     * @return Lista de trazas nuevas, en orden de ejecución.
+     */
+    public List<Trace<T>> history(long desdeSecuencia) {
+    	return timeline.since(desdeSecuencia);
+    }
+
+    /**
+     * Obtiene la línea temporal compartida en la que registran sus trazas los nodos.
+     *
+     * @return Línea temporal del grafo.
+     */
+    public Timeline<T> timeline() {
+    	return timeline;
+    }
+
+    /**
+     * Obtiene las estadísticas agregadas (número de ejecuciones, mínimo, máximo, media y
+     * percentiles de latencia) de cada nodo con profiling, en el orden de los nodos del grafo.
+     *
+     * @return Mapa del nombre de cada nodo a sus estadísticas.
+     */
+    public Map<String, NodeStats> statistics() {
+    	Map<String, NodeStats> stats = new LinkedHashMap<>();
     	for (ComponentNode<T> node : super.getNodes()) {
-            // Desempaquetar el decorador hasta llegar a un NodeProfiled (si existe)
-            ComponentNode<T> current = node;
-            while (current instanceof NodeDecorator) {
-                if (current instanceof NodeProfiler) {
-                    history.addAll(((NodeProfiler<T>) current).getTraces());
-                    break;
-                }
-                current = ((NodeDecorator<T>) current).getDecoratedNode();
-            }
-        }
-    	
-    	return history;
+    		NodeProfiler<T> profiler = buscarProfiler(node);
+    		if (profiler != null) {
+    			stats.put(profiler.getNombre(), profiler.getStats());
+    		}
+    	}
+    	return stats;
+    }
+
+    /**
+     * Desempaqueta los decoradores de un nodo hasta encontrar su NodeProfiler.
+     *
+     * @param node Nodo del grafo.
+     * @return NodeProfiler del nodo, o null si no tiene.
+     */
+    @SuppressWarnings("unchecked")
+    private NodeProfiler<T> buscarProfiler(ComponentNode<T> node) {
+    	ComponentNode<T> current = node;
+    	while (current instanceof NodeDecorator) {
+    		if (current instanceof NodeProfiler) {
+    			return (NodeProfiler<T>) current;
+    		}
+    		current = ((NodeDecorator<T>) current).getDecoratedNode();
+    	}
+    	return null;
     }
 
     
@@ -0,0 +1,126 @@
+package decoradores;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Línea temporal global de trazas de ejecución, compartida por todos los nodos de un grafo
+ * con profiling. Es un registro de solo añadir, sin bloqueos: cada traza recibe un número de
+ * secuencia creciente y se guarda en segmentos de tamaño fijo encadenados, que se crean bajo
+ * demanda con operaciones CAS.
+ *
+ * Las consultas devuelven siempre un prefijo contiguo de la secuencia: si un hilo ha reservado
+ * un número de secuencia pero todavía no ha publicado su traza, la consulta se detiene ahí y
+ * la traza aparecerá en la siguiente consulta incremental ({@link #since(long)}).
+ *
+ * @param <T> Tipo de datos que procesa el grafo.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class Timeline<T> {
+	private static final int BITS = 12;
+	private static final int TAM = 1 << BITS;
+
+	/**
+	 * Segmento de la línea temporal con las trazas [base, base + TAM).
+	 */
+	private static final class Segmento<T> {
+		final long base;
+		final AtomicReferenceArray<Trace<T>> trazas = new AtomicReferenceArray<>(TAM);
+		final AtomicReference<Segmento<T>> siguiente = new AtomicReference<>();
+
+		Segmento(long base) {
+			this.base = base;
+		}
+	}
+
+	private final Segmento<T> primero = new Segmento<>(0);
+	private volatile Segmento<T> ultimo = primero;
+	private final AtomicLong secuencia = new AtomicLong();
+
+	/**
+     * Registra una traza al final de la línea temporal.
+     *
+     * @param nombreNodo Nombre del nodo ejecutado.
+     * @param duracionMs Duración de la ejecución en milisegundos.
+     * @param input Copia de la entrada del nodo.
+     * @param runId Identificador de la ejecución del grafo.
+     * @param paso Paso dentro de la ejecución.
+     * @return Traza registrada, con su número de secuencia.
+     */
+	public Trace<T> record(String nombreNodo, double duracionMs, T input, long runId, long paso) {
+		long seq = secuencia.getAndIncrement();
+		Trace<T> t = new Trace<>(seq, runId, paso, nombreNodo, duracionMs, input);
+		Segmento<T> seg = segmento(seq, true);
+		seg.trazas.set((int) (seq - seg.base), t);
+		return t;
+	}
+
+	/**
+     * Localiza el segmento que contiene un número de secuencia, creándolo si hace falta.
+     */
+	private Segmento<T> segmento(long seq, boolean crear) {
+		Segmento<T> seg = ultimo;
+		if (seg.base > seq) seg = primero;
+		while (seg.base + TAM <= seq) {
+			Segmento<T> sig = seg.siguiente.get();
+			if (sig == null) {
+				if (!crear) return null;
+				seg.siguiente.compareAndSet(null, new Segmento<>(seg.base + TAM));
+				sig = seg.siguiente.get();
+			}
+			seg = sig;
+		}
+		if (crear && seg.base > ultimo.base) {
+			ultimo = seg;
+		}
+		return seg;
+	}
+
+	/**
+     * Obtiene las trazas publicadas a partir de un número de secuencia, en orden.
+     *
+     * @param desde Primer número de secuencia a devolver.
+     * @return Trazas con secuencia mayor o igual que {@code desde}, hasta el primer hueco.
+     */
+	public List<Trace<T>> since(long desde) {
+		List<Trace<T>> resultado = new ArrayList<>();
+		long fin = secuencia.get();
+		long seq = Math.max(0, desde);
+		Segmento<T> seg = seq < fin ? segmento(seq, false) : null;
+		while (seg != null && seq < fin) {
+			Trace<T> t = seg.trazas.get((int) (seq - seg.base));
+			if (t == null) break;
+			resultado.add(t);
+			seq++;
+			if (seq == seg.base + TAM) {
+				seg = seg.siguiente.get();
+			}
+		}
+		return resultado;
+	}
+
+	/**
+     * Obtiene todas las trazas publicadas, en orden de ejecución.
+     *
+     * @return Lista de trazas.
+     */
+	public List<Trace<T>> all() {
+		return since(0);
+	}
+
+	/**
+     * Obtiene el siguiente número de secuencia que se asignará, es decir, el número de trazas
+     * reservadas hasta ahora.
+     *
+     * @return Siguiente número de secuencia.
+     */
+	public long nextSequence() {
+		return secuencia.get();
+	}
+}
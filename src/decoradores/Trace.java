@@ -3,6 +3,10 @@ package decoradores;
 /**
  * Clase que guarda información sobre la ejecución de un nodo.
  * 
+ * Cada traza registrada en un {@link Timeline} lleva un número de secuencia global y
+ * creciente, el identificador de la ejecución del grafo a la que pertenece y el número
+ * de paso dentro de esa ejecución.
+ * 
  * @param <T> Tipo de datos que procesa el grafo.
  * 
  * @autor Sofía Castro - sofiai.castro@estudiante.uam.es
@@ -10,9 +14,12 @@ package decoradores;
  * Pareja 11
  */
 public class Trace<T> {
-	private String nombreNodo;
-	private double duracionMs;
-	private T input;
+	private final long secuencia;
+	private final long runId;
+	private final long paso;
+	private final String nombreNodo;
+	private final double duracionMs;
+	private final T input;
 	
 	/**
 	 * Contructor de la clase trace.
@@ -22,11 +29,82 @@ public class Trace<T> {
 	 * @param input Entrada con la que se ejecuto el nodo.
 	 */
 	public Trace(String nombreNodo, double tiempo, T input) {
+		this(-1, 0, 0, nombreNodo, tiempo, input);
+	}
+	
+	/**
+	 * Contructor de una traza situada en la línea temporal de ejecuciones.
+	 * 
+	 * @param secuencia Número de secuencia global de la traza.
+	 * @param runId Identificador de la ejecución del grafo.
+	 * @param paso Paso dentro de la ejecución (empezando en 1).
+	 * @param nombreNodo Nombre del nodo ejecutado.
+	 * @param tiempo Tiempo que ha tardado en ejecutarse el nodo.
+	 * @param input Entrada con la que se ejecuto el nodo.
+	 */
+	public Trace(long secuencia, long runId, long paso, String nombreNodo, double tiempo, T input) {
+		this.secuencia = secuencia;
+		this.runId = runId;
+		this.paso = paso;
 		this.nombreNodo = nombreNodo;
 		this.duracionMs = tiempo;
 		this.input = input;
 	}
 	
+	/**
+	 * Obtiene el número de secuencia global de la traza (-1 si no pertenece a una línea temporal).
+	 * 
+	 * @return Número de secuencia.
+	 */
+	public long getSecuencia() {
+		return secuencia;
+	}
+	
+	/**
+	 * Obtiene el identificador de la ejecución del grafo (0 si se ejecutó fuera de un run).
+	 * 
+	 * @return Identificador de la ejecución.
+	 */
+	public long getRunId() {
+		return runId;
+	}
+	
+	/**
+	 * Obtiene el paso dentro de la ejecución.
+	 * 
+	 * @return Número de paso.
+	 */
+	public long getPaso() {
+		return paso;
+	}
+	
+	/**
+	 * Obtiene el nombre del nodo ejecutado.
+	 * 
+	 * @return Nombre del nodo.
+	 */
+	public String getNombreNodo() {
+		return nombreNodo;
+	}
+	
+	/**
+	 * Obtiene la duración de la ejecución.
+	 * 
+	 * @return Duración en milisegundos.
+	 */
+	public double getDuracionMs() {
+		return duracionMs;
+	}
+	
+	/**
+	 * Obtiene la copia de la entrada con la que se ejecutó el nodo.
+	 * 
+	 * @return Entrada del nodo.
+	 */
+	public T getInput() {
+		return input;
+	}
+	
 	@Override 
 	public String toString() {
 		return "["+nombreNodo+" with:"+ input+" "+duracionMs+" ms]";
@@ -0,0 +1,32 @@
+package decoradores;
+
+/**
+ * Registro de un fichero de trazas binario ({@link BinaryTraceReader}): una ejecución de un
+ * nodo, con los instantes ya traducidos a nanosegundos desde la época.
+ *
+ * @param runId Identificador de la ejecución del grafo (0 si se ejecutó fuera de un run).
+ * @param paso Paso dentro de la ejecución (0 si no se conoce).
+ * @param nodo Nombre del nodo ejecutado.
+ * @param inicio Instante de inicio, en nanosegundos desde la época.
+ * @param fin Instante de fin, en nanosegundos desde la época.
+ * @param vueltas Número de ejecuciones que cubre el registro (más de una en un bucle agregado).
+ * @param perfilado true si lo escribió un NodeProfiler (el contenido es su entrada) y false si
+ *        lo escribió un NodeLogger (el contenido es su salida).
+ * @param contenido Entrada o salida del nodo: su texto o, si se guardó serializada, el objeto
+ *        leído con el serializador; null si no se guardó (o no se dio el serializador).
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public record TraceRecord(long runId, long paso, String nodo, long inicio, long fin, int vueltas,
+		boolean perfilado, Object contenido) {
+	/**
+     * Obtiene la duración de la ejecución.
+     *
+     * @return Duración en nanosegundos.
+     */
+	public long duracionNanos() {
+		return fin - inicio;
+	}
+}
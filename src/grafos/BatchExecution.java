@@ -0,0 +1,136 @@
+package grafos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Utilidades para ejecutar un mismo flujo sobre un lote de entradas independientes.
+ *
+ * Si el ejecutor es un ForkJoinPool, el lote se reparte dividiendo recursivamente el
+ * Spliterator de entrada; con cualquier otro ejecutor cada entrada se envía como una
+ * tarea independiente. En ambos casos los resultados ordenados se devuelven en el mismo
+ * orden que las entradas.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public final class BatchExecution {
+
+	private BatchExecution() {
+	}
+
+	/**
+     * Ejecuta un flujo sobre todas las entradas y devuelve los resultados en orden.
+     *
+     * @param <T> Tipo de dato que procesa el flujo.
+     * @param inputs Entradas a procesar.
+     * @param executor Ejecutor en el que se lanzan las ejecuciones.
+     * @param flujo Función que ejecuta el flujo sobre una entrada.
+     * @return Lista de resultados en el orden de las entradas.
+     */
+	public static <T> List<T> ordered(Spliterator<? extends T> inputs, Executor executor, UnaryOperator<T> flujo) {
+		if (executor instanceof ForkJoinPool pool) {
+			return pool.invoke(new Lote<>(inputs, flujo, null));
+		}
+
+		List<CompletableFuture<T>> pendientes = new ArrayList<>();
+		inputs.forEachRemaining(x -> pendientes.add(CompletableFuture.supplyAsync(() -> flujo.apply(x), executor)));
+
+		List<T> resultados = new ArrayList<>(pendientes.size());
+		for (CompletableFuture<T> f : pendientes) {
+			resultados.add(esperar(f));
+		}
+		return resultados;
+	}
+
+	/**
+     * Ejecuta un flujo sobre todas las entradas y entrega cada resultado en cuanto termina,
+     * sin respetar el orden de las entradas. El consumidor puede llamarse desde varios hilos
+     * a la vez. El método vuelve cuando se han entregado todos los resultados.
+     *
+     * @param <T> Tipo de dato que procesa el flujo.
+     * @param inputs Entradas a procesar.
+     * @param executor Ejecutor en el que se lanzan las ejecuciones.
+     * @param flujo Función que ejecuta el flujo sobre una entrada.
+     * @param onResult Consumidor que recibe los resultados.
+     */
+	public static <T> void unordered(Spliterator<? extends T> inputs, Executor executor, UnaryOperator<T> flujo,
+			Consumer<? super T> onResult) {
+		if (executor instanceof ForkJoinPool pool) {
+			pool.invoke(new Lote<>(inputs, flujo, onResult));
+			return;
+		}
+
+		List<CompletableFuture<Void>> pendientes = new ArrayList<>();
+		inputs.forEachRemaining(x -> pendientes.add(
+				CompletableFuture.supplyAsync(() -> flujo.apply(x), executor).thenAccept(onResult)));
+		esperar(CompletableFuture.allOf(pendientes.toArray(new CompletableFuture<?>[0])));
+	}
+
+	/**
+     * Espera a que termine una tarea, relanzando la excepción original si falla.
+     */
+	static <R> R esperar(CompletableFuture<R> f) {
+		try {
+			return f.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException re) throw re;
+			if (e.getCause() instanceof Error err) throw err;
+			throw e;
+		}
+	}
+
+	/**
+     * Tarea fork-join que divide el lote hasta quedarse con entradas sueltas. Si hay
+     * consumidor, entrega los resultados según terminan y devuelve null; si no, devuelve
+     * los resultados de su parte del lote en orden.
+     */
+	@SuppressWarnings("serial")
+	private static final class Lote<T> extends RecursiveTask<List<T>> {
+		private static final long serialVersionUID = 1L;
+		private final Spliterator<? extends T> inputs;
+		private final UnaryOperator<T> flujo;
+		private final Consumer<? super T> onResult;
+
+		Lote(Spliterator<? extends T> inputs, UnaryOperator<T> flujo, Consumer<? super T> onResult) {
+			this.inputs = inputs;
+			this.flujo = flujo;
+			this.onResult = onResult;
+		}
+
+		@Override
+		protected List<T> compute() {
+			Spliterator<? extends T> prefijo = inputs.estimateSize() > 1 ? inputs.trySplit() : null;
+			if (prefijo != null) {
+				Lote<T> izquierda = new Lote<>(prefijo, flujo, onResult);
+				izquierda.fork();
+				List<T> derecha = new Lote<>(inputs, flujo, onResult).compute();
+				List<T> resultado = izquierda.join();
+				if (resultado != null) {
+					resultado.addAll(derecha);
+				}
+				return resultado;
+			}
+
+			List<T> resultado = onResult == null ? new ArrayList<>() : null;
+			inputs.forEachRemaining(x -> {
+				T r = flujo.apply(x);
+				if (onResult == null) {
+					resultado.add(r);
+				} else {
+					onResult.accept(r);
+				}
+			});
+			return resultado;
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package grafos;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Observador que escribe el trazado de las ejecuciones con el formato de siempre:
+ * <pre>
+ * Step 1 (grafo) -- input: ...
+ * Step 2 (grafo) -- nodo executed: ...
+ * </pre>
+ * Cada subgrafo ejecutado por un NodeG numera sus pasos desde 1, y al terminar el grafo
+ * exterior continúa con su propia numeración.
+ * 
+ * Las líneas se componen en un buffer propio de cada hilo, sin concatenar cadenas, y se
+ * escriben de golpe en la salida, que está sincronizada:
+ * <ul>
+ *   <li>{@link #INSTANCE}, el trazado de run(input, true), vuelca el buffer antes de ejecutar
+ *       cada nodo, de modo que lo que escriban los propios nodos sigue apareciendo en orden;</li>
+ *   <li>{@link #perRun()} lo vuelca solo al terminar la ejecución más externa, por lo que
+ *       escribe una vez por ejecución y el trazado de ejecuciones concurrentes no se mezcla.</li>
+ * </ul>
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class ConsoleTraceListener implements ExecutionListener<Object> {
+	/** Trazado por consola que vuelca antes de cada nodo. */
+	public static final ConsoleTraceListener INSTANCE = new ConsoleTraceListener(null, false);
+
+	private static final int MAX_RETENIDO = 1 << 16;
+
+	/**
+	 * Estado del trazado en un hilo: el texto pendiente y el siguiente paso de cada grafo anidado.
+	 */
+	private static final class Estado {
+		StringBuilder buffer = new StringBuilder(256);
+		int[] pasos = new int[8];
+		int nivel;
+	}
+
+	private final PrintStream salida;
+	private final boolean porEjecucion;
+	private final ThreadLocal<Estado> estados = ThreadLocal.withInitial(Estado::new);
+
+	/**
+     * Crea un trazado por consola.
+     * 
+     * @param salida Flujo en el que se escribe; si es null, System.out en cada volcado.
+     * @param porEjecucion Si es true, solo se vuelca al terminar la ejecución más externa.
+     */
+	public ConsoleTraceListener(PrintStream salida, boolean porEjecucion) {
+		this.salida = salida;
+		this.porEjecucion = porEjecucion;
+	}
+
+	/**
+     * Crea un trazado por System.out que escribe cada ejecución completa de una vez.
+     * 
+     * @return Trazado por ejecución.
+     */
+	public static ConsoleTraceListener perRun() {
+		return new ConsoleTraceListener(null, true);
+	}
+
+	@Override
+	public void runStarted(String grafo, Object input) {
+		Estado e = estados.get();
+		if (e.nivel == e.pasos.length) {
+			e.pasos = Arrays.copyOf(e.pasos, e.nivel * 2);
+		}
+		e.pasos[e.nivel++] = 2;
+		e.buffer.append("Step 1 (").append(grafo).append(") -- input: ").append(input).append('\n');
+	}
+
+	@Override
+	public void nodeStarted(String grafo, String nodo, Object data) {
+		if (!porEjecucion) volcar(estados.get());
+	}
+
+	@Override
+	public void nodeFinished(String grafo, String nodo, Object data) {
+		Estado e = estados.get();
+		int paso = e.nivel > 0 ? e.pasos[e.nivel - 1]++ : 2;
+		e.buffer.append("Step ").append(paso).append(" (").append(grafo).append(") -- ")
+				.append(nodo).append(" executed: ").append(data).append('\n');
+		if (e.nivel == 0) volcar(e);
+	}
+
+	@Override
+	public void runFinished(String grafo, Object output) {
+		terminar();
+	}
+
+	@Override
+	public void runFailed(String grafo, Throwable error) {
+		terminar();
+	}
+
+	private void terminar() {
+		Estado e = estados.get();
+		if (e.nivel > 0) e.nivel--;
+		if (e.nivel == 0 || !porEjecucion) volcar(e);
+	}
+
+	/**
+     * Escribe el texto pendiente del hilo y vacía el buffer.
+     */
+	private void volcar(Estado e) {
+		if (e.buffer.length() == 0) return;
+		PrintStream out = salida != null ? salida : System.out;
+		out.print(e.buffer);
+		out.flush();
+		if (e.buffer.capacity() > MAX_RETENIDO) {
+			e.buffer = new StringBuilder(256);
+		} else {
+			e.buffer.setLength(0);
+		}
+	}
+}
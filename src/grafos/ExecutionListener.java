@@ -0,0 +1,73 @@
+package grafos;
+
+/**
+ * Observador de la ejecución de un grafo. Recibe el inicio y el fin de cada ejecución, el
+ * inicio y el fin de cada nodo y cada transición entre nodos. Todos los métodos tienen una
+ * implementación vacía, de modo que basta con sobrescribir los que interesen.
+ * 
+ * Los avisos se hacen en el hilo que ejecuta el grafo; si el grafo se ejecuta desde varios
+ * hilos a la vez, el observador debe ser seguro entre hilos. Cuando un grafo no tiene
+ * observadores ni trazado, su bucle de ejecución no comprueba ni construye nada para ellos.
+ * 
+ * Los observadores de un grafo no reciben los pasos de los subgrafos que ejecutan sus NodeG;
+ * para ello hay que registrarlos también en el subgrafo.
+ * 
+ * @param <T> Tipo de dato sobre el cual operan los nodos del grafo.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public interface ExecutionListener<T> {
+	/**
+     * Se llama al empezar una ejecución del grafo.
+     * 
+     * @param grafo Nombre del grafo.
+     * @param input Dato de entrada.
+     */
+	default void runStarted(String grafo, T input) {}
+
+	/**
+     * Se llama antes de ejecutar un nodo.
+     * 
+     * @param grafo Nombre del grafo.
+     * @param nodo Nombre del nodo.
+     * @param data Dato que recibe el nodo.
+     */
+	default void nodeStarted(String grafo, String nodo, T data) {}
+
+	/**
+     * Se llama después de ejecutar un nodo.
+     * 
+     * @param grafo Nombre del grafo.
+     * @param nodo Nombre del nodo.
+     * @param data Dato tras ejecutar el nodo.
+     */
+	default void nodeFinished(String grafo, String nodo, T data) {}
+
+	/**
+     * Se llama cuando se sigue una arista hacia el siguiente nodo.
+     * 
+     * @param grafo Nombre del grafo.
+     * @param origen Nombre del nodo de origen.
+     * @param destino Nombre del nodo de destino.
+     * @param data Dato que se pasa al siguiente nodo.
+     */
+	default void transitionTaken(String grafo, String origen, String destino, T data) {}
+
+	/**
+     * Se llama al terminar correctamente una ejecución del grafo.
+     * 
+     * @param grafo Nombre del grafo.
+     * @param output Resultado de la ejecución.
+     */
+	default void runFinished(String grafo, T output) {}
+
+	/**
+     * Se llama cuando una ejecución del grafo termina con una excepción.
+     * 
+     * @param grafo Nombre del grafo.
+     * @param error Excepción lanzada.
+     */
+	default void runFailed(String grafo, Throwable error) {}
+}
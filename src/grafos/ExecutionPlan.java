@@ -0,0 +1,511 @@
+package grafos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import nodos.ComponentNode;
+import nodos.ForkNode;
+import nodos.Node;
+
+/**
+ * La clase ExecutionPlan representa la versión compilada e inmutable de un StateGraph.
+ * Los nodos se numeran con enteros y las aristas de salida de cada nodo se guardan en
+ * arrays planos, con los predicados ya resueltos, de forma que el bucle de ejecución
+ * no calcula hashes de cadenas ni crea iteradores en cada paso.
+ *
+ * Las aristas del nodo i ocupan las posiciones [primeraArista[i], primeraArista[i+1])
+ * de los arrays destinos y condiciones, en el mismo orden en que se añadieron al grafo.
+ *
+ * Al llegar a un ForkNode no se sigue solo la primera arista válida: todas las ramas válidas
+ * se recorren en paralelo hasta su JoinNode, donde se combinan sus resultados. Dentro de una
+ * rama, llegar al nodo final o a un nodo sin salida termina solo esa rama.
+ *
+ * Los bucles de un solo nodo (su primera arista es condicional y vuelve a él) se detectan al
+ * compilar y, sin observadores, se ejecutan en un bucle cerrado que solo alterna el código del
+ * nodo y la condición, sin buscar la transición en cada vuelta.
+ *
+ * @param <T> Tipo de dato sobre el cual operan los nodos del grafo.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public final class ExecutionPlan<T> {
+	private final String nombre;
+	private final ComponentNode<T>[] nodos;
+	private final int[] primeraArista;
+	private final int[] destinos;
+	private final Predicate<T>[] condiciones;
+	private final int inicial;
+	private final int fin;
+	private final ForkNode<T>[] forks;
+	private final int[] joins;
+	private final Predicate<T>[] bucles;
+	private final Consumer<T>[] codigos;
+
+	/**
+     * Compila el estado actual de un grafo en un plan de ejecución.
+     *
+     * @param nombre Nombre del grafo compilado (se usa en el trazado).
+     * @param grafo Nodos del grafo en orden de inserción.
+     * @param nodoI Nodo inicial (puede ser null).
+     * @param nodoF Nodo final (puede ser null).
+     */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	ExecutionPlan(String nombre, Iterable<ComponentNode<T>> grafo, ComponentNode<T> nodoI, ComponentNode<T> nodoF) {
+		this.nombre = nombre;
+
+		// Numerar los nodos por orden de inserción
+		List<ComponentNode<T>> orden = new ArrayList<>();
+		Map<ComponentNode<T>, Integer> indices = new IdentityHashMap<>();
+		for (ComponentNode<T> nodo : grafo) {
+			indexar(nodo, orden, indices);
+		}
+
+		// Aplanar las aristas; los destinos que no estén en el grafo también se numeran. Salvo
+		// en las bifurcaciones, las aristas detrás de una no condicional nunca se toman y se omiten
+		List<Integer> listaDestinos = new ArrayList<>();
+		List<Predicate<T>> listaCondiciones = new ArrayList<>();
+		List<Integer> inicios = new ArrayList<>();
+		for (int i = 0; i < orden.size(); i++) {
+			ComponentNode<T> nodo = orden.get(i);
+			boolean bifurcacion = nodo.asFork() != null;
+			inicios.add(listaDestinos.size());
+			for (ComponentNode<T> next : nodo.getNextNodes()) {
+				Predicate<T> cond = nodo.getCondition(next.getNombre());
+				listaDestinos.add(indexar(next, orden, indices));
+				listaCondiciones.add(cond);
+				if (cond == null && !bifurcacion) break;
+			}
+		}
+		inicios.add(listaDestinos.size());
+
+		this.nodos = orden.toArray(new ComponentNode[0]);
+		this.primeraArista = inicios.stream().mapToInt(Integer::intValue).toArray();
+		this.destinos = listaDestinos.stream().mapToInt(Integer::intValue).toArray();
+		this.condiciones = listaCondiciones.toArray(new Predicate[0]);
+		this.inicial = nodoI == null ? -1 : indexar(nodoI, orden, indices);
+		this.fin = nodoF == null ? -1 : indices.getOrDefault(nodoF, -1);
+
+		// Resolver el nodo de unión de cada bifurcación; sin bifurcaciones los arrays quedan a null
+		ForkNode<T>[] f = null;
+		int[] j = null;
+		for (int i = 0; i < nodos.length; i++) {
+			ForkNode<T> fork = nodos[i].asFork();
+			if (fork == null) continue;
+			if (f == null) {
+				f = new ForkNode[nodos.length];
+				j = new int[nodos.length];
+			}
+			f[i] = fork;
+			j[i] = buscarJoin(fork);
+		}
+		this.forks = f;
+		this.joins = j;
+
+		// Detectar los bucles de un solo nodo: su primera arista es condicional y va a sí mismo
+		Predicate<T>[] b = null;
+		Consumer<T>[] c = null;
+		for (int i = 0; i < nodos.length; i++) {
+			int e = primeraArista[i];
+			if (i == fin || e == primeraArista[i + 1] || destinos[e] != i || condiciones[e] == null) continue;
+			if (forks != null && forks[i] != null) continue;
+			if (b == null) {
+				b = new Predicate[nodos.length];
+				c = new Consumer[nodos.length];
+			}
+			b[i] = condiciones[e];
+			c[i] = nodos[i].getClass() == Node.class ? nodos[i].getCodigo() : null;
+		}
+		this.bucles = b;
+		this.codigos = c;
+	}
+
+	/**
+     * Busca el índice del nodo de unión de una bifurcación.
+     *
+     * @throws IllegalStateException Si el grafo no tiene un JoinNode con ese nombre.
+     */
+	private int buscarJoin(ForkNode<T> fork) {
+		for (int i = 0; i < nodos.length; i++) {
+			if (nodos[i].getNombre().equals(fork.getJoin())) {
+				if (nodos[i].asJoin() == null) {
+					throw new IllegalStateException("El nodo " + fork.getJoin() + " de la bifurcación " + fork.getNombre() + " no es un JoinNode");
+				}
+				return i;
+			}
+		}
+		throw new IllegalStateException("La bifurcación " + fork.getNombre() + " no encuentra su nodo de unión " + fork.getJoin());
+	}
+
+	/**
+     * Devuelve el índice de un nodo, numerándolo si todavía no lo estaba.
+     */
+	private static <T> int indexar(ComponentNode<T> nodo, List<ComponentNode<T>> orden, Map<ComponentNode<T>, Integer> indices) {
+		Integer i = indices.get(nodo);
+		if (i == null) {
+			i = orden.size();
+			orden.add(nodo);
+			indices.put(nodo, i);
+		}
+		return i;
+	}
+
+	/**
+     * Ejecuta el plan desde el nodo inicial.
+     *
+     * @param data Dato a procesar.
+     * @param debug Si es true, se imprime el trazado de pasos por consola.
+     * @return Resultado tras procesar el flujo.
+     */
+	public T execute(T data, boolean debug) {
+		return execute(data, debug, debug ? ConsoleTraceListener.INSTANCE : null);
+	}
+
+	/**
+     * Ejecuta el plan desde el nodo inicial avisando a un observador de cada paso. Sin
+     * observador se usa un bucle aparte que no comprueba nada relacionado con el trazado.
+     *
+     * @param data Dato a procesar.
+     * @param debug Valor que se pasa a los nodos (los NodeG trazan su subgrafo si es true).
+     * @param listener Observador de la ejecución (puede ser null).
+     * @return Resultado tras procesar el flujo.
+     */
+	public T execute(T data, boolean debug, ExecutionListener<? super T> listener) {
+		if (listener == null) {
+			return ejecutar(data, debug);
+		}
+		listener.runStarted(nombre, data);
+		try {
+			T resultado = ejecutar(data, debug, listener);
+			listener.runFinished(nombre, resultado);
+			return resultado;
+		} catch (RuntimeException | Error e) {
+			listener.runFailed(nombre, e);
+			throw e;
+		}
+	}
+
+	/**
+     * Bucle de ejecución sin observadores.
+     */
+	private T ejecutar(T data, boolean debug) {
+		return recorrer(inicial, -1, data, debug);
+	}
+
+	/**
+     * Recorre el grafo sin observadores desde un nodo hasta llegar a la parada (una unión de
+     * ramas, o -1 para el flujo principal), al nodo final o a un nodo sin salida.
+     */
+	private T recorrer(int actual, int parada, T data, boolean debug) {
+		while (actual >= 0 && actual != parada) {
+			// Un bucle de un solo nodo se repite aquí mismo y después se prueban el resto de aristas
+			if (bucles != null && bucles[actual] != null) {
+				repetir(actual, data, debug);
+				actual = siguiente(actual, primeraArista[actual] + 1, data);
+				continue;
+			}
+
+			// Ejecutar el código del nodo actual
+			nodos[actual].execute(data, debug);
+
+			// Si es el nodo final, detener
+			if (actual == fin) break;
+
+			if (forks != null && forks[actual] != null) {
+				actual = bifurcar(actual, data, debug, null);
+			} else {
+				actual = siguiente(actual, data);
+			}
+		}
+
+		return data;
+	}
+
+	/**
+     * Bucle de ejecución que avisa al observador de cada nodo y de cada transición.
+     */
+	private T ejecutar(T data, boolean debug, ExecutionListener<? super T> listener) {
+		return recorrer(inicial, -1, data, debug, listener);
+	}
+
+	/**
+     * Recorre el grafo como {@link #recorrer(int, int, Object, boolean)}, avisando al observador.
+     */
+	private T recorrer(int actual, int parada, T data, boolean debug, ExecutionListener<? super T> listener) {
+		while (actual >= 0 && actual != parada) {
+			ComponentNode<T> nodo = nodos[actual];
+			listener.nodeStarted(nombre, nodo.getNombre(), data);
+			nodo.execute(data, debug);
+			listener.nodeFinished(nombre, nodo.getNombre(), data);
+
+			if (actual == fin) break;
+
+			if (forks != null && forks[actual] != null) {
+				actual = bifurcar(actual, data, debug, listener);
+				continue;
+			}
+			int siguiente = siguiente(actual, data);
+			if (siguiente >= 0) {
+				listener.transitionTaken(nombre, nodo.getNombre(), nodos[siguiente].getNombre(), data);
+			}
+			actual = siguiente;
+		}
+
+		return data;
+	}
+
+	/**
+     * Ejecuta en paralelo todas las ramas de una bifurcación cuya condición se cumple, cada
+     * una sobre su copia del dato, y combina los resultados en el dato original. La primera
+     * rama se ejecuta en el hilo actual y el resto en el ejecutor de la bifurcación.
+     *
+     * @return Índice del nodo de unión, que es el siguiente a ejecutar.
+     */
+	private int bifurcar(int actual, T data, boolean debug, ExecutionListener<? super T> listener) {
+		ForkNode<T> fork = forks[actual];
+		int join = joins[actual];
+
+		List<Integer> ramas = new ArrayList<>();
+		for (int e = primeraArista[actual], lim = primeraArista[actual + 1]; e < lim; e++) {
+			Predicate<T> cond = condiciones[e];
+			if (cond == null || cond.test(data)) {
+				ramas.add(destinos[e]);
+			}
+		}
+
+		List<CompletableFuture<T>> pendientes = new ArrayList<>(ramas.size());
+		for (int r = 1; r < ramas.size(); r++) {
+			int destino = ramas.get(r);
+			T copia = fork.getCopia().apply(data);
+			if (listener != null) listener.transitionTaken(nombre, fork.getNombre(), nodos[destino].getNombre(), copia);
+			pendientes.add(CompletableFuture.supplyAsync(() -> rama(destino, join, copia, debug, listener), fork.getExecutor()));
+		}
+
+		List<T> resultados = new ArrayList<>(ramas.size());
+		if (!ramas.isEmpty()) {
+			int destino = ramas.get(0);
+			T copia = fork.getCopia().apply(data);
+			if (listener != null) listener.transitionTaken(nombre, fork.getNombre(), nodos[destino].getNombre(), copia);
+			resultados.add(rama(destino, join, copia, debug, listener));
+		}
+		for (CompletableFuture<T> f : pendientes) {
+			resultados.add(BatchExecution.esperar(f));
+		}
+
+		nodos[join].asJoin().combine(data, resultados);
+		if (listener != null) listener.transitionTaken(nombre, fork.getNombre(), nodos[join].getNombre(), data);
+		return join;
+	}
+
+	private T rama(int destino, int join, T copia, boolean debug, ExecutionListener<? super T> listener) {
+		return listener == null ? recorrer(destino, join, copia, debug) : recorrer(destino, join, copia, debug, listener);
+	}
+
+	/**
+     * Ejecuta un bucle de un solo nodo mientras se cumpla la condición de su arista. Si es un
+     * Node sin decorar se llama directamente a su código; si no, a
+     * {@link ComponentNode#executeLoop(Object, Predicate, boolean)}, para que los decoradores
+     * se apliquen igual que sin el atajo.
+     */
+	private void repetir(int actual, T data, boolean debug) {
+		Predicate<T> cond = bucles[actual];
+		Consumer<T> codigo = codigos[actual];
+		if (codigo == null) {
+			nodos[actual].executeLoop(data, cond, debug);
+			return;
+		}
+		do {
+			codigo.accept(data);
+		} while (cond.test(data));
+	}
+
+	/**
+     * Busca la primera arista del nodo cuya condición se cumpla.
+     *
+     * @return Índice del nodo destino, o -1 si no hay ninguna.
+     */
+	private int siguiente(int actual, T data) {
+		return siguiente(actual, primeraArista[actual], data);
+	}
+
+	/**
+     * Busca la primera arista del nodo, a partir de una dada, cuya condición se cumpla.
+     *
+     * @return Índice del nodo destino, o -1 si no hay ninguna.
+     */
+	private int siguiente(int actual, int desde, T data) {
+		for (int e = desde, lim = primeraArista[actual + 1]; e < lim; e++) {
+			Predicate<T> cond = condiciones[e];
+			if (cond == null || cond.test(data)) {
+				return destinos[e];
+			}
+		}
+		return -1;
+	}
+
+	/**
+     * Índice del nodo inicial, o -1 si no hay.
+     */
+	int inicio() {
+		return inicial;
+	}
+
+	/**
+     * Índice del nodo final, o -1 si no hay.
+     */
+	int nodoFinal() {
+		return fin;
+	}
+
+	/**
+     * Decide el siguiente nodo tras ejecutar el nodo actual sin observadores. Si el nodo es
+     * una bifurcación, ejecuta sus ramas y devuelve su nodo de unión.
+     *
+     * @return Índice del siguiente nodo, o -1 si no hay.
+     */
+	int avanzar(int actual, T data) {
+		if (forks != null && forks[actual] != null) {
+			return bifurcar(actual, data, false, null);
+		}
+		return siguiente(actual, data);
+	}
+
+	/**
+     * Obtiene los posibles siguientes nodos de un nodo. Para una bifurcación es solo su nodo
+     * de unión, ya que las ramas se recorren dentro de la propia bifurcación.
+     *
+     * @return Índices de los nodos siguientes.
+     */
+	int[] sucesores(int nodo) {
+		if (forks != null && forks[nodo] != null) {
+			return new int[] {joins[nodo]};
+		}
+		return Arrays.copyOfRange(destinos, primeraArista[nodo], primeraArista[nodo + 1]);
+	}
+
+	/**
+     * Observador de los pasos de una ejecución con puntos de control.
+     */
+	interface Paso<T> {
+		/**
+	     * Se llama tras el paso pedido, si no termina la ejecución.
+	     *
+	     * @param siguiente Índice del siguiente nodo a ejecutar.
+	     * @param pasos Pasos completados desde el inicio de la ejecución.
+	     * @param data Dato tras el paso.
+	     * @return Número de pasos tras el que se debe volver a llamar.
+	     */
+		long completado(int siguiente, long pasos, T data);
+	}
+
+	/**
+     * Ejecuta el plan desde un nodo cualquiera, sin trazado ni observadores, avisando tras los
+     * pasos que pida el observador; entre aviso y aviso cada paso solo compara dos contadores.
+     * Las ramas de una bifurcación se ejecutan dentro del paso de la bifurcación.
+     *
+     * @param desde Índice del nodo por el que se empieza.
+     * @param pasos Pasos ya completados antes de ese nodo.
+     * @param data Dato a procesar.
+     * @param proximo Número de pasos tras el que se avisa por primera vez.
+     * @param paso Observador de los pasos.
+     * @return Pasos completados al terminar (el resultado es el propio dato).
+     */
+	long ejecutarDesde(int desde, long pasos, T data, long proximo, Paso<T> paso) {
+		int actual = desde;
+		while (actual >= 0) {
+			// Los bucles de un solo nodo usan también el atajo, cortado en las vueltas en que hay que avisar
+			if (bucles != null && bucles[actual] != null) {
+				while (true) {
+					int n = vueltas(actual, data, (int) Math.max(1, Math.min(Integer.MAX_VALUE, proximo - pasos)));
+					if (n < 0) {
+						pasos -= n;
+						break;
+					}
+					pasos += n;
+					proximo = paso.completado(actual, pasos, data);
+				}
+				actual = siguiente(actual, primeraArista[actual] + 1, data);
+			} else {
+				nodos[actual].execute(data, false);
+				pasos++;
+				if (actual == fin) break;
+				actual = avanzar(actual, data);
+			}
+			if (actual >= 0 && pasos >= proximo) proximo = paso.completado(actual, pasos, data);
+		}
+		return pasos;
+	}
+
+	/**
+     * Ejecuta hasta un máximo de vueltas de un bucle de un solo nodo.
+     *
+     * @return Vueltas ejecutadas, en negativo si el bucle ha terminado.
+     */
+	private int vueltas(int actual, T data, int max) {
+		Predicate<T> cond = bucles[actual];
+		Consumer<T> codigo = codigos[actual];
+		int n = 0;
+		if (codigo == null) {
+			ComponentNode<T> nodo = nodos[actual];
+			do {
+				nodo.execute(data, false);
+				n++;
+				if (!cond.test(data)) return -n;
+			} while (n < max);
+			return n;
+		}
+		do {
+			codigo.accept(data);
+			n++;
+			if (!cond.test(data)) return -n;
+		} while (n < max);
+		return n;
+	}
+
+	/**
+     * Busca el índice de un nodo por su nombre.
+     *
+     * @return Índice del nodo, o -1 si no está en el plan.
+     */
+	int indice(String nombreNodo) {
+		for (int i = 0; i < nodos.length; i++) {
+			if (nodos[i].getNombre().equals(nombreNodo)) return i;
+		}
+		return -1;
+	}
+
+	/**
+     * Obtiene el número de nodos del plan.
+     *
+     * @return Número de nodos numerados.
+     */
+	public int size() {
+		return nodos.length;
+	}
+
+	/**
+     * Obtiene el nodo asociado a un índice.
+     *
+     * @param index Índice del nodo.
+     * @return Nodo con ese índice.
+     */
+	public ComponentNode<T> getNode(int index) {
+		return nodos[index];
+	}
+
+	/**
+     * Obtiene el nombre del grafo compilado.
+     *
+     * @return Nombre del grafo.
+     */
+	public String getNombre() {
+		return nombre;
+	}
+}
@@ -1,10 +1,21 @@
 package grafos;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
+import checkpoint.CheckpointPolicy;
+import checkpoint.CheckpointStore;
+import datos.PublicCloneable;
+import datos.Snapshottable;
 import nodos.ComponentNode;
+import nodos.ForkNode;
+import nodos.JoinNode;
 import nodos.NodeG;
 
 /**
@@ -26,6 +37,54 @@ public interface Graph<T> {
      * @return Resultado tras ejecutar el grafo.
      */
     T run(T input, boolean trace);
+
+    /**
+     * Ejecuta el grafo desde su nodo inicial guardando puntos de control.
+     *
+     * @param input Input de entrada para ejecutar el grafo.
+     * @param store Fichero de puntos de control (se descartan los que tuviera).
+     * @param policy Frecuencia de los puntos de control.
+     * @return Resultado tras ejecutar el grafo.
+     */
+    T run(T input, CheckpointStore<T> store, CheckpointPolicy policy);
+
+    /**
+     * Continúa una ejecución desde el último punto de control guardado.
+     *
+     * @param store Fichero de puntos de control.
+     * @param policy Frecuencia de los nuevos puntos de control.
+     * @return Resultado tras ejecutar el resto del grafo.
+     */
+    T resume(CheckpointStore<T> store, CheckpointPolicy policy);
+    
+    /**
+     * Ejecuta el grafo sobre un lote de entradas independientes en paralelo, sin trazado.
+     * Si el ejecutor es un ForkJoinPool el lote se reparte dividiéndolo recursivamente.
+     *
+     * @param inputs Entradas a procesar.
+     * @param executor Ejecutor en el que se lanzan las ejecuciones.
+     * @return Resultados en el mismo orden que las entradas.
+     */
+    List<T> runAll(Collection<? extends T> inputs, Executor executor);
+
+    /**
+     * Ejecuta el grafo sobre un lote de entradas independientes en paralelo, sin trazado.
+     *
+     * @param inputs Spliterator con las entradas a procesar.
+     * @param executor Ejecutor en el que se lanzan las ejecuciones.
+     * @return Resultados en el mismo orden que las entradas.
+     */
+    List<T> runAll(Spliterator<? extends T> inputs, Executor executor);
+
+    /**
+     * Ejecuta el grafo sobre un lote de entradas en paralelo y entrega cada resultado en
+     * cuanto termina, sin respetar el orden. El consumidor puede llamarse desde varios hilos.
+     *
+     * @param inputs Spliterator con las entradas a procesar.
+     * @param executor Ejecutor en el que se lanzan las ejecuciones.
+     * @param onResult Consumidor que recibe los resultados.
+     */
+    void runAllUnordered(Spliterator<? extends T> inputs, Executor executor, Consumer<? super T> onResult);
     
     /**
      * Añade un nodo al grafo con su código asociado.
@@ -44,6 +103,52 @@ public interface Graph<T> {
      */
     public Graph<T> addNode(ComponentNode<T> node);
 
+    /**
+     * Añade un nodo de bifurcación: al ejecutarse, el grafo recorre en paralelo todas sus
+     * aristas de salida cuya condición se cumpla, cada una sobre su copia del dato, hasta el
+     * nodo de unión indicado. Se añade con {@link #addNode(ComponentNode)}, de modo que los
+     * decoradores lo envuelven como a cualquier otro nodo.
+     *
+     * @param nombreNodo Nombre del nodo.
+     * @param nombreJoin Nombre del nodo de unión en el que terminan las ramas.
+     * @param executor Ejecutor en el que se lanzan las ramas.
+     * @param copia Función que crea el dato de cada rama (una copia o una partición del estado).
+     * @return Referencia al grafo actual para permitir llamadas encadenadas.
+     */
+    default Graph<T> addForkNode(String nombreNodo, String nombreJoin, Executor executor, UnaryOperator<T> copia) {
+        addNode(new ForkNode<>(nombreNodo, nombreJoin, executor, copia));
+        return this;
+    }
+
+    /**
+     * Añade un nodo de bifurcación cuyas ramas trabajan sobre una instantánea del dato, que
+     * debe ser {@link Snapshottable} (como todo {@link PublicCloneable}).
+     *
+     * @param nombreNodo Nombre del nodo.
+     * @param nombreJoin Nombre del nodo de unión en el que terminan las ramas.
+     * @param executor Ejecutor en el que se lanzan las ramas.
+     * @return Referencia al grafo actual para permitir llamadas encadenadas.
+     */
+    @SuppressWarnings("unchecked")
+    default Graph<T> addForkNode(String nombreNodo, String nombreJoin, Executor executor) {
+        return addForkNode(nombreNodo, nombreJoin, executor, (T data) -> {
+            if (data instanceof Snapshottable<?> c) return (T) c.snapshot();
+            throw new IllegalStateException("El dato de la bifurcación " + nombreNodo + " no es Snapshottable: " + data);
+        });
+    }
+
+    /**
+     * Añade el nodo de unión de una bifurcación.
+     *
+     * @param nombreNodo Nombre del nodo.
+     * @param combinador Función que incorpora al dato original los resultados de las ramas.
+     * @return Referencia al grafo actual para permitir llamadas encadenadas.
+     */
+    default Graph<T> addJoinNode(String nombreNodo, BiConsumer<T, List<T>> combinador) {
+        addNode(new JoinNode<>(nombreNodo, combinador));
+        return this;
+    }
+
     /**
      * Devuelve el nombre identificador del grafo.
      *
@@ -115,6 +220,27 @@ public interface Graph<T> {
      */
     ComponentNode<T> getFinal();
 
+    /**
+     * Sella el grafo para que sea de solo lectura y pueda ejecutarse desde varios hilos a la vez.
+     *
+     * @return Plan de ejecución del grafo sellado.
+     */
+    ExecutionPlan<T> seal();
+
+    /**
+     * Valida el grafo sin ejecutarlo.
+     *
+     * @return Resultado de la validación.
+     */
+    GraphValidation validate();
+
+    /**
+     * Valida el grafo y elimina las aristas que la ejecución nunca puede tomar.
+     *
+     * @return Resultado de la validación previa a la eliminación.
+     */
+    GraphValidation optimize();
+
     /**
      * Ejecuta el flujo del grafo desde el nodo inicial de forma recursiva.
      *
@@ -123,6 +249,20 @@ public interface Graph<T> {
      * @return Resultado tras ejecutar el flujo.
      */
     T executeFrom(T data, boolean debug);
+
+    /**
+     * Registra un observador de las ejecuciones del grafo.
+     *
+     * @param listener Observador a registrar.
+     */
+    void addListener(ExecutionListener<? super T> listener);
+
+    /**
+     * Quita un observador de las ejecuciones del grafo.
+     *
+     * @param listener Observador a quitar.
+     */
+    void removeListener(ExecutionListener<? super T> listener);
     
     /**
      * Obtiene los nodos del grafo.
@@ -0,0 +1,118 @@
+package grafos;
+
+import java.util.List;
+
+/**
+ * Resultado de la validación estática de un grafo ({@link StateGraph#validate()}).
+ *
+ * Recoge los problemas que pueden detectarse sin ejecutar el grafo:
+ * <ul>
+ *   <li>Falta el nodo inicial (el grafo no puede ejecutarse) o el final (la ejecución
+ *       termina en el primer nodo sin transición válida).</li>
+ *   <li>Nodos inalcanzables desde el nodo inicial.</li>
+ *   <li>Nodos alcanzables desde los que no se puede llegar al nodo final, donde una ejecución
+ *       terminaría antes de tiempo o se quedaría en un bucle.</li>
+ *   <li>Aristas muertas: las que están detrás de una arista no condicional del mismo nodo,
+ *       ya que la ejecución sigue siempre la primera transición válida y nunca llega a ellas.
+ *       En las bifurcaciones se recorren todas las ramas, por lo que no hay aristas muertas.</li>
+ * </ul>
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public final class GraphValidation {
+	private final String nombre;
+	private final boolean tieneInicial;
+	private final boolean tieneFinal;
+	private final List<String> inalcanzables;
+	private final List<String> sinCaminoAlFinal;
+	private final List<String> aristasMuertas;
+
+	/**
+     * Crea el resultado de una validación.
+     *
+     * @param nombre Nombre del grafo validado.
+     * @param tieneInicial Si el grafo tiene nodo inicial.
+     * @param tieneFinal Si el grafo tiene nodo final.
+     * @param inalcanzables Nombres de los nodos inalcanzables.
+     * @param sinCaminoAlFinal Nombres de los nodos alcanzables que no pueden llegar al final.
+     * @param aristasMuertas Aristas muertas, con el formato "origen -> destino".
+     */
+	GraphValidation(String nombre, boolean tieneInicial, boolean tieneFinal, List<String> inalcanzables,
+			List<String> sinCaminoAlFinal, List<String> aristasMuertas) {
+		this.nombre = nombre;
+		this.tieneInicial = tieneInicial;
+		this.tieneFinal = tieneFinal;
+		this.inalcanzables = List.copyOf(inalcanzables);
+		this.sinCaminoAlFinal = List.copyOf(sinCaminoAlFinal);
+		this.aristasMuertas = List.copyOf(aristasMuertas);
+	}
+
+	/**
+     * Indica si el grafo tiene nodo inicial.
+     *
+     * @return true si hay nodo inicial.
+     */
+	public boolean hasInitial() {
+		return tieneInicial;
+	}
+
+	/**
+     * Indica si el grafo tiene nodo final.
+     *
+     * @return true si hay nodo final.
+     */
+	public boolean hasFinal() {
+		return tieneFinal;
+	}
+
+	/**
+     * Obtiene los nodos a los que no se llega desde el nodo inicial.
+     *
+     * @return Nombres de los nodos, en orden de inserción.
+     */
+	public List<String> getUnreachable() {
+		return inalcanzables;
+	}
+
+	/**
+     * Obtiene los nodos alcanzables desde los que no hay camino hasta el nodo final. Si el grafo
+     * no tiene nodo final la lista está vacía.
+     *
+     * @return Nombres de los nodos, en orden de inserción.
+     */
+	public List<String> getCannotReachFinal() {
+		return sinCaminoAlFinal;
+	}
+
+	/**
+     * Obtiene las aristas que la ejecución nunca puede tomar.
+     *
+     * @return Aristas con el formato "origen -> destino".
+     */
+	public List<String> getShadowedEdges() {
+		return aristasMuertas;
+	}
+
+	/**
+     * Indica si el grafo es válido: tiene nodo inicial y todos los nodos alcanzables pueden
+     * llegar al final. Los nodos inalcanzables y las aristas muertas no impiden la ejecución.
+     *
+     * @return true si el grafo es válido.
+     */
+	public boolean isValid() {
+		return tieneInicial && sinCaminoAlFinal.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		String s = "Validation of '" + nombre + "': " + (isValid() ? "OK" : "ERRORS") + "\n";
+		s += "-- Initial: " + (tieneInicial ? "yes" : "missing") + "\n";
+		s += "-- Final: " + (tieneFinal ? "yes" : "missing") + "\n";
+		s += "-- Unreachable: " + inalcanzables + "\n";
+		s += "-- Cannot reach final: " + sinCaminoAlFinal + "\n";
+		s += "-- Shadowed edges: " + aristasMuertas;
+		return s;
+	}
+}
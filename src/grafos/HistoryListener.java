@@ -0,0 +1,28 @@
+package grafos;
+
+/**
+ * Observador de los cambios de un {@link StreamHistory}: recibe cada evento cuando entra
+ * en el historial y cuando la política de retención lo descarta. Los descartes llegan
+ * siempre en el mismo orden en que entraron los eventos.
+ * 
+ * @param <T> Tipo de los eventos.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public interface HistoryListener<T> {
+	/**
+     * Se llama cuando un evento entra en el historial.
+     * 
+     * @param evento Evento añadido.
+     */
+	void added(T evento);
+
+	/**
+     * Se llama cuando un evento sale del historial.
+     * 
+     * @param evento Evento descartado.
+     */
+	void evicted(T evento);
+}
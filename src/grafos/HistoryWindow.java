@@ -0,0 +1,221 @@
+package grafos;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Historial en memoria respaldado por un buffer circular, con una política de retención
+ * que decide qué eventos se conservan:
+ * <ul>
+ *   <li>{@link #unbounded()}: todos los eventos (el buffer crece según haga falta).</li>
+ *   <li>{@link #sliding(int)}: los últimos n eventos.</li>
+ *   <li>{@link #slidingTime(Duration, int)}: los eventos recibidos en el último intervalo de
+ *       tiempo, con un máximo de eventos para acotar la memoria.</li>
+ *   <li>{@link #tumbling(int)}: bloques consecutivos de n eventos; al llegar el evento n+1 la
+ *       ventana se vacía y empieza de nuevo.</li>
+ * </ul>
+ * Salvo en el modo sin límite, la capacidad es fija, por lo que un flujo de millones de
+ * eventos se procesa en memoria constante.
+ *
+ * @param <T> Tipo de los eventos.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class HistoryWindow<T> extends StreamHistory<T> {
+	private static final int CAPACIDAD_INICIAL = 16;
+
+	/**
+	 * Política de retención de la ventana.
+	 */
+	public enum Retention {
+		/** Se conservan todos los eventos. */
+		UNBOUNDED,
+		/** Ventana deslizante por número de eventos. */
+		SLIDING_COUNT,
+		/** Ventana deslizante por tiempo. */
+		SLIDING_TIME,
+		/** Ventana fija que se vacía al llenarse. */
+		TUMBLING
+	}
+
+	private final Retention retention;
+	private final long ventanaNanos;
+	private final LongSupplier reloj;
+	private Object[] eventos;
+	private long[] llegadas;
+	private int inicio;
+	private int size;
+
+	/**
+     * Constructor general del historial.
+     *
+     * @param retention Política de retención.
+     * @param capacidad Número máximo de eventos (capacidad inicial si no hay límite).
+     * @param ventana Duración de la ventana (solo para SLIDING_TIME).
+     * @param reloj Fuente de tiempo en nanosegundos (solo para SLIDING_TIME).
+     */
+	public HistoryWindow(Retention retention, int capacidad, Duration ventana, LongSupplier reloj) {
+		if (capacidad <= 0) {
+			throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacidad);
+		}
+		this.retention = retention;
+		this.eventos = new Object[capacidad];
+		if (retention == Retention.SLIDING_TIME) {
+			this.ventanaNanos = ventana.toNanos();
+			this.reloj = reloj;
+			this.llegadas = new long[capacidad];
+		} else {
+			this.ventanaNanos = 0;
+			this.reloj = null;
+		}
+	}
+
+	/**
+     * Crea un historial que conserva todos los eventos.
+     *
+     * @param <T> Tipo de los eventos.
+     * @return Historial sin límite.
+     */
+	public static <T> HistoryWindow<T> unbounded() {
+		return new HistoryWindow<>(Retention.UNBOUNDED, CAPACIDAD_INICIAL, null, null);
+	}
+
+	/**
+     * Crea una ventana deslizante con los últimos n eventos.
+     *
+     * @param <T> Tipo de los eventos.
+     * @param n Número de eventos que se conservan.
+     * @return Ventana deslizante por número.
+     */
+	public static <T> HistoryWindow<T> sliding(int n) {
+		return new HistoryWindow<>(Retention.SLIDING_COUNT, n, null, null);
+	}
+
+	/**
+     * Crea una ventana deslizante con los eventos recibidos en el último intervalo de tiempo.
+     *
+     * @param <T> Tipo de los eventos.
+     * @param ventana Antigüedad máxima de los eventos conservados.
+     * @param maxEventos Número máximo de eventos que se conservan aunque sean recientes.
+     * @return Ventana deslizante por tiempo.
+     */
+	public static <T> HistoryWindow<T> slidingTime(Duration ventana, int maxEventos) {
+		return new HistoryWindow<>(Retention.SLIDING_TIME, maxEventos, ventana, System::nanoTime);
+	}
+
+	/**
+     * Crea una ventana fija de n eventos que se vacía cuando llega el evento n+1.
+     *
+     * @param <T> Tipo de los eventos.
+     * @param n Tamaño de cada bloque de eventos.
+     * @return Ventana fija.
+     */
+	public static <T> HistoryWindow<T> tumbling(int n) {
+		return new HistoryWindow<>(Retention.TUMBLING, n, null, null);
+	}
+
+	/**
+     * Obtiene la política de retención del historial.
+     *
+     * @return Política de retención.
+     */
+	public Retention getRetention() {
+		return retention;
+	}
+
+	/**
+     * Añade un evento aplicando la política de retención.
+     *
+     * @param evento Evento recibido.
+     */
+	@Override
+	public void append(T evento) {
+		long ahora = 0;
+		switch (retention) {
+		case UNBOUNDED:
+			if (size == eventos.length) crecer();
+			break;
+		case SLIDING_COUNT:
+			if (size == eventos.length) descartarPrimero();
+			break;
+		case SLIDING_TIME:
+			ahora = reloj.getAsLong();
+			while (size > 0 && ahora - llegadas[inicio] > ventanaNanos) descartarPrimero();
+			if (size == eventos.length) descartarPrimero();
+			break;
+		case TUMBLING:
+			if (size == eventos.length) {
+				while (size > 0) descartarPrimero();
+			}
+			break;
+		}
+
+		int pos = posicion(size);
+		eventos[pos] = evento;
+		if (llegadas != null) llegadas[pos] = ahora;
+		size++;
+		modCount++;
+		notifyAdded(evento);
+	}
+
+	/**
+     * Descarta el evento más antiguo.
+     *
+     * @return Evento descartado.
+     */
+	@SuppressWarnings("unchecked")
+	private T descartarPrimero() {
+		T viejo = (T) eventos[inicio];
+		eventos[inicio] = null;
+		inicio = (inicio + 1) % eventos.length;
+		size--;
+		modCount++;
+		notifyEvicted(viejo);
+		return viejo;
+	}
+
+	/**
+     * Duplica la capacidad del buffer, dejando los eventos a partir de la posición 0.
+     */
+	private void crecer() {
+		Object[] nuevo = new Object[eventos.length * 2];
+		for (int i = 0; i < size; i++) {
+			nuevo[i] = eventos[posicion(i)];
+		}
+		eventos = nuevo;
+		inicio = 0;
+	}
+
+	private int posicion(int indice) {
+		int p = inicio + indice;
+		return p < eventos.length ? p : p - eventos.length;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public T get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Índice " + index + " fuera del historial de tamaño " + size);
+		}
+		return (T) eventos[posicion(index)];
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public T set(int index, T evento) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Índice " + index + " fuera del historial de tamaño " + size);
+		}
+		int pos = posicion(index);
+		T viejo = (T) eventos[pos];
+		eventos[pos] = evento;
+		return viejo;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+}
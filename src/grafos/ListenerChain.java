@@ -0,0 +1,86 @@
+package grafos;
+
+import java.util.Arrays;
+
+/**
+ * Lista inmutable de observadores que reenvía cada aviso a todos ellos, en orden de registro.
+ * Añadir o quitar un observador crea una lista nueva, de forma que puede publicarse con un
+ * campo volatile y recorrerse sin bloqueos.
+ * 
+ * @param <T> Tipo de dato sobre el cual operan los nodos del grafo.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+final class ListenerChain<T> implements ExecutionListener<T> {
+	private final ExecutionListener<? super T>[] oyentes;
+
+	private ListenerChain(ExecutionListener<? super T>[] oyentes) {
+		this.oyentes = oyentes;
+	}
+
+	/**
+     * Combina una lista (o un observador suelto) con un observador más.
+     * 
+     * @param actual Observadores actuales (puede ser null).
+     * @param nuevo Observador a añadir (puede ser null).
+     * @return Observador combinado, o null si no hay ninguno.
+     */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	static <T> ExecutionListener<T> with(ExecutionListener<T> actual, ExecutionListener<? super T> nuevo) {
+		if (nuevo == null) return actual;
+		if (actual == null) return (ExecutionListener<T>) nuevo;
+		ExecutionListener<? super T>[] base = actual instanceof ListenerChain<T> c ? c.oyentes : new ExecutionListener[] {actual};
+		ExecutionListener<? super T>[] lista = Arrays.copyOf(base, base.length + 1);
+		lista[base.length] = nuevo;
+		return new ListenerChain<>(lista);
+	}
+
+	/**
+     * Quita un observador de una lista.
+     * 
+     * @param actual Observadores actuales (puede ser null).
+     * @param viejo Observador a quitar.
+     * @return Observadores restantes, o null si no queda ninguno.
+     */
+	@SuppressWarnings("unchecked")
+	static <T> ExecutionListener<T> without(ExecutionListener<T> actual, ExecutionListener<? super T> viejo) {
+		if (actual == viejo) return null;
+		if (!(actual instanceof ListenerChain<T> c)) return actual;
+		ExecutionListener<? super T>[] lista = Arrays.stream(c.oyentes).filter(o -> o != viejo).toArray(ExecutionListener[]::new);
+		if (lista.length == 0) return null;
+		if (lista.length == 1) return (ExecutionListener<T>) lista[0];
+		return new ListenerChain<>(lista);
+	}
+
+	@Override
+	public void runStarted(String grafo, T input) {
+		for (ExecutionListener<? super T> o : oyentes) o.runStarted(grafo, input);
+	}
+
+	@Override
+	public void nodeStarted(String grafo, String nodo, T data) {
+		for (ExecutionListener<? super T> o : oyentes) o.nodeStarted(grafo, nodo, data);
+	}
+
+	@Override
+	public void nodeFinished(String grafo, String nodo, T data) {
+		for (ExecutionListener<? super T> o : oyentes) o.nodeFinished(grafo, nodo, data);
+	}
+
+	@Override
+	public void transitionTaken(String grafo, String origen, String destino, T data) {
+		for (ExecutionListener<? super T> o : oyentes) o.transitionTaken(grafo, origen, destino, data);
+	}
+
+	@Override
+	public void runFinished(String grafo, T output) {
+		for (ExecutionListener<? super T> o : oyentes) o.runFinished(grafo, output);
+	}
+
+	@Override
+	public void runFailed(String grafo, Throwable error) {
+		for (ExecutionListener<? super T> o : oyentes) o.runFailed(grafo, error);
+	}
+}
@@ -0,0 +1,277 @@
+package grafos;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import checkpoint.StateCodec;
+
+/**
+ * Historial persistente que conserva todos los eventos en un fichero de solo añadir, escrito
+ * mediante mapeos en memoria, en lugar de en el heap.
+ *
+ * Cada evento se guarda serializado con un {@link StateCodec} en un registro con su longitud,
+ * un CRC32C y su posición en el historial; la longitud se escribe la última, como en los
+ * puntos de control. El último evento, el que están procesando los nodos, se mantiene en
+ * memoria y se guarda (con los cambios de los nodos) cuando el grafo termina de procesarlo.
+ * Reemplazar un evento anterior con set añade un registro nuevo que sustituye al viejo.
+ *
+ * Al abrir un fichero existente se recorren sus registros y el historial continúa donde se
+ * quedó; los observadores que se registren después (por ejemplo, los agregados de
+ * {@link StreamingStateGraph#addAggregateNode}) reciben todos los eventos guardados, así que
+ * las estadísticas se recuperan tras un reinicio. Los eventos solo se leen del fichero cuando
+ * se piden, de forma que los nodos pueden recorrer historiales mayores que la memoria; a
+ * cambio, cada lectura devuelve un objeto nuevo y sus cambios no se guardan si no se usa set.
+ *
+ * El índice de posiciones de los eventos se guarda en un segundo fichero mapeado
+ * ({@code <path>.idx}), que se reconstruye al abrir.
+ *
+ * @param <T> Tipo de los eventos.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class MappedHistory<T> extends StreamHistory<T> implements AutoCloseable {
+	private static final int MAGIA = 0x47485354; // "GHST"
+	private static final int VERSION = 1;
+	private static final int CABECERA_FICHERO = 8;
+	private static final int CABECERA_REGISTRO = 16;
+	private static final int SALTO = -1;
+	private static final int SEGMENTO = 1 << 26;
+	private static final int POSICIONES_POR_SEGMENTO = SEGMENTO / Long.BYTES;
+
+	private final StateCodec<T> codec;
+	private final FileChannel datos;
+	private final FileChannel indice;
+	private final List<MappedByteBuffer> segmentosDatos = new ArrayList<>();
+	private final List<MappedByteBuffer> segmentosIndice = new ArrayList<>();
+	private final CRC32C crc = new CRC32C();
+	private long pos = CABECERA_FICHERO;
+	private int size;
+	private T ultimo;
+	private boolean pendiente;
+
+	/**
+     * Abre (o crea) un historial persistente, recuperando los eventos que ya contenga.
+     *
+     * @param path Ruta del fichero de eventos.
+     * @param codec Serializador de los eventos.
+     * @throws UncheckedIOException Si no se puede abrir o no es un fichero de historial.
+     */
+	public MappedHistory(Path path, StateCodec<T> codec) {
+		this.codec = codec;
+		try {
+			this.datos = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			this.indice = FileChannel.open(path.resolveSibling(path.getFileName() + ".idx"), StandardOpenOption.CREATE,
+					StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			recuperar();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Error al abrir el historial: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+     * Recorre los registros del fichero reconstruyendo el índice, hasta el primero que no es
+     * válido (un registro a medio escribir cuando murió la JVM), que se descarta.
+     */
+	private void recuperar() throws IOException {
+		boolean nuevo = datos.size() == 0;
+		MappedByteBuffer cabecera = segmento(segmentosDatos, datos, 0);
+		if (nuevo) {
+			cabecera.putInt(0, MAGIA).putInt(4, VERSION);
+		} else if (cabecera.getInt(0) != MAGIA || cabecera.getInt(4) != VERSION) {
+			throw new IOException("No es un fichero de historial");
+		}
+
+		while (true) {
+			MappedByteBuffer seg = segmento(segmentosDatos, datos, (int) (pos / SEGMENTO));
+			int off = (int) (pos % SEGMENTO);
+			int len = off + CABECERA_REGISTRO <= SEGMENTO ? seg.getInt(off) : SALTO;
+			if (len == SALTO) {
+				pos = siguienteSegmento(pos);
+				continue;
+			}
+			if (len <= 0 || len > SEGMENTO - off - CABECERA_REGISTRO
+					|| seg.getInt(off + 4) != crc(seg, off + CABECERA_REGISTRO, len)) {
+				break;
+			}
+			long i = seg.getLong(off + 8);
+			if (i > size) break;
+			posicion(i, pos);
+			if (i == size) size++;
+			pos += CABECERA_REGISTRO + len;
+		}
+		segmento(segmentosDatos, datos, (int) (pos / SEGMENTO)).putInt((int) (pos % SEGMENTO), 0);
+	}
+
+	private static long siguienteSegmento(long p) {
+		return (p / SEGMENTO + 1) * SEGMENTO;
+	}
+
+	/**
+     * Obtiene un segmento mapeado de un fichero, mapeándolo si todavía no lo está.
+     */
+	private static MappedByteBuffer segmento(List<MappedByteBuffer> segmentos, FileChannel canal, int i) {
+		while (segmentos.size() <= i) {
+			try {
+				segmentos.add(canal.map(FileChannel.MapMode.READ_WRITE, (long) segmentos.size() * SEGMENTO, SEGMENTO));
+			} catch (IOException e) {
+				throw new UncheckedIOException("Error al ampliar el historial: " + e.getMessage(), e);
+			}
+		}
+		return segmentos.get(i);
+	}
+
+	private int crc(ByteBuffer seg, int inicio, int len) {
+		crc.reset();
+		crc.update(seg.slice(inicio, len));
+		return (int) crc.getValue();
+	}
+
+	private void posicion(long i, long p) {
+		segmento(segmentosIndice, indice, (int) (i / POSICIONES_POR_SEGMENTO))
+				.putLong((int) (i % POSICIONES_POR_SEGMENTO) * Long.BYTES, p);
+	}
+
+	private long posicion(int i) {
+		return segmentosIndice.get(i / POSICIONES_POR_SEGMENTO).getLong((i % POSICIONES_POR_SEGMENTO) * Long.BYTES);
+	}
+
+	/**
+     * Añade un evento al final del historial. El evento anterior se guarda si el grafo no lo
+     * había guardado ya.
+     *
+     * @param evento Evento recibido.
+     */
+	@Override
+	public void append(T evento) {
+		processed();
+		if (size == Integer.MAX_VALUE) {
+			throw new IllegalStateException("El historial está lleno");
+		}
+		ultimo = evento;
+		pendiente = true;
+		size++;
+		modCount++;
+		notifyAdded(evento);
+	}
+
+	/**
+     * Guarda en el fichero el último evento, con los cambios que hayan hecho los nodos.
+     */
+	@Override
+	public void processed() {
+		if (pendiente) {
+			escribir(size - 1, ultimo);
+			pendiente = false;
+		}
+	}
+
+	/**
+     * Añade al fichero un registro con un evento y apunta su posición en el índice.
+     */
+	private void escribir(int i, T evento) {
+		while (true) {
+			int off = (int) (pos % SEGMENTO);
+			if (off + CABECERA_REGISTRO > SEGMENTO) {
+				pos = siguienteSegmento(pos);
+				continue;
+			}
+			MappedByteBuffer seg = segmento(segmentosDatos, datos, (int) (pos / SEGMENTO));
+			try {
+				seg.position(off + CABECERA_REGISTRO);
+				codec.encode(evento, seg);
+			} catch (BufferOverflowException e) {
+				if (off == (pos < SEGMENTO ? CABECERA_FICHERO : 0)) {
+					throw new IllegalArgumentException("El evento no cabe en un segmento del historial", e);
+				}
+				seg.putInt(off, SALTO);
+				pos = siguienteSegmento(pos);
+				continue;
+			}
+			int len = seg.position() - off - CABECERA_REGISTRO;
+			long siguiente = pos + CABECERA_REGISTRO + len;
+			// El registro siguiente queda marcado como inexistente antes de confirmar este
+			if (siguiente % SEGMENTO + CABECERA_REGISTRO > SEGMENTO) siguiente = siguienteSegmento(siguiente);
+			segmento(segmentosDatos, datos, (int) (siguiente / SEGMENTO)).putInt((int) (siguiente % SEGMENTO), 0);
+			seg.putLong(off + 8, i);
+			seg.putInt(off + 4, crc(seg, off + CABECERA_REGISTRO, len));
+			seg.putInt(off, len);
+			posicion(i, pos);
+			pos += CABECERA_REGISTRO + len;
+			return;
+		}
+	}
+
+	@Override
+	public T get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Índice " + index + " fuera del historial de tamaño " + size);
+		}
+		if (index == size - 1 && ultimo != null) {
+			return ultimo;
+		}
+		long p = posicion(index);
+		MappedByteBuffer seg = segmentosDatos.get((int) (p / SEGMENTO));
+		int off = (int) (p % SEGMENTO);
+		return codec.decode(seg.slice(off + CABECERA_REGISTRO, seg.getInt(off)));
+	}
+
+	/**
+     * Reemplaza un evento. Si no es el último, se guarda en un registro nuevo.
+     *
+     * @param index Posición del evento.
+     * @param evento Nuevo evento.
+     * @return Evento anterior.
+     */
+	@Override
+	public T set(int index, T evento) {
+		T viejo = get(index);
+		if (index == size - 1) {
+			ultimo = evento;
+			pendiente = true;
+		} else {
+			escribir(index, evento);
+		}
+		return viejo;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+     * Obliga a escribir en disco los eventos guardados.
+     */
+	public void force() {
+		processed();
+		for (MappedByteBuffer seg : segmentosDatos) {
+			seg.force();
+		}
+	}
+
+	/**
+     * Guarda el último evento, escribe en disco el historial y cierra sus ficheros.
+     */
+	@Override
+	public void close() {
+		force();
+		try {
+			datos.truncate(pos);
+			datos.close();
+			indice.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Error al cerrar el historial: " + e.getMessage(), e);
+		}
+	}
+}
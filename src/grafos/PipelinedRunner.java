@@ -0,0 +1,336 @@
+package grafos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ejecutor segmentado (pipeline) de un grafo sobre un flujo de entradas: cada grupo de nodos
+ * es una etapa con su propio hilo, y las etapas se comunican por colas acotadas de un
+ * productor y un consumidor, de modo que mientras una entrada está en un nodo, la siguiente
+ * puede estar ya en un nodo anterior.
+ *
+ * Las etapas se forman con las componentes fuertemente conexas del grafo, en orden
+ * topológico: los ciclos (como un nodo que vuelve sobre sí mismo) quedan enteros dentro de
+ * una etapa y se recorren de forma secuencial, y como las aristas entre componentes siempre
+ * van hacia delante, cada entrada atraviesa las etapas en orden, saltándose las que no le
+ * tocan. Por eso los resultados salen en el mismo orden en que entraron. Una bifurcación
+ * (ForkNode) se ejecuta completa, con sus ramas, dentro de su etapa.
+ *
+ * Cuando las colas se llenan, {@link #submit(Object)} espera: es la contrapresión que impide
+ * que las entradas se acumulen sin límite. Solo un hilo puede llamar a submit y solo un hilo
+ * a {@link #take()}; {@link #close()} hace de consumidor, por lo que debe llamarlo el hilo que
+ * recoge los resultados (o cualquiera si nadie los recoge) después de la última llamada a
+ * submit. Los nodos se ejecutan sin trazado ni observadores.
+ *
+ * @param <T> Tipo de dato sobre el cual operan los nodos del grafo.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public final class PipelinedRunner<T> implements AutoCloseable {
+	/**
+	 * Entrada en tránsito por las etapas, con el nodo por el que debe continuar.
+	 */
+	private static final class Elemento<T> {
+		final T data;
+		int actual;
+		Throwable error;
+
+		Elemento(T data, int actual) {
+			this.data = data;
+			this.actual = actual;
+		}
+	}
+
+	private final Elemento<T> finDeFlujo = new Elemento<>(null, -1);
+	private final ExecutionPlan<T> plan;
+	private final int[] etapaDe;
+	private final List<SpscQueue<Elemento<T>>> colas = new ArrayList<>();
+	private final List<Thread> hilos = new ArrayList<>();
+	private volatile Thread productor;
+	private boolean cerrado;
+
+	/**
+     * Crea un pipeline con una etapa por cada componente del grafo.
+     *
+     * @param graph Grafo a ejecutar; se sella.
+     * @param capacidad Capacidad de cada cola entre etapas.
+     */
+	public PipelinedRunner(Graph<T> graph, int capacidad) {
+		this(graph, capacidad, Integer.MAX_VALUE);
+	}
+
+	/**
+     * Crea un pipeline agrupando las componentes del grafo en como mucho maxEtapas etapas
+     * consecutivas con un número parecido de nodos.
+     *
+     * @param graph Grafo a ejecutar; se sella.
+     * @param capacidad Capacidad de cada cola entre etapas.
+     * @param maxEtapas Número máximo de etapas (hilos).
+     */
+	public PipelinedRunner(Graph<T> graph, int capacidad, int maxEtapas) {
+		if (capacidad <= 0 || maxEtapas <= 0) {
+			throw new IllegalArgumentException("La capacidad y el número de etapas deben ser positivos");
+		}
+		this.plan = graph.seal();
+		if (plan.inicio() < 0) {
+			throw new IllegalStateException("El grafo " + plan.getNombre() + " no tiene nodo inicial");
+		}
+		this.etapaDe = asignarEtapas(componentes(), maxEtapas);
+
+		int etapas = Arrays.stream(etapaDe).max().orElse(0) + 1;
+		for (int i = 0; i <= etapas; i++) {
+			colas.add(new SpscQueue<>(capacidad));
+		}
+		for (int i = 0; i < etapas; i++) {
+			int etapa = i;
+			Thread t = new Thread(() -> etapa(etapa), "pipeline-" + plan.getNombre() + "-" + i);
+			t.setDaemon(true);
+			hilos.add(t);
+			t.start();
+		}
+	}
+
+	/**
+     * Obtiene el número de etapas del pipeline.
+     *
+     * @return Número de etapas (hilos).
+     */
+	public int stages() {
+		return hilos.size();
+	}
+
+	/**
+     * Introduce una entrada en el pipeline, esperando si está lleno.
+     *
+     * @param input Entrada a procesar.
+     */
+	public void submit(T input) {
+		if (cerrado) throw new IllegalStateException("El pipeline está cerrado");
+		try {
+			colas.get(0).put(new Elemento<>(input, plan.inicio()));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrumpido al introducir una entrada", e);
+		}
+	}
+
+	/**
+     * Obtiene el siguiente resultado, en el orden en que entraron las entradas, esperando si
+     * todavía no está listo. Si el flujo de esa entrada lanzó una excepción, se relanza aquí.
+     *
+     * @return Resultado de la siguiente entrada.
+     */
+	public T take() {
+		Elemento<T> e;
+		try {
+			e = colas.get(colas.size() - 1).take();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrumpido al esperar un resultado", ex);
+		}
+		if (e.error != null) relanzar(e.error);
+		return e.data;
+	}
+
+	private static void relanzar(Throwable t) {
+		if (t instanceof RuntimeException re) throw re;
+		if (t instanceof Error err) throw err;
+		throw new IllegalStateException(t);
+	}
+
+	/**
+     * Procesa un lote de entradas: un hilo virtual las introduce mientras el hilo actual
+     * recoge los resultados. No debe llamarse a submit mientras dura. Si introducir las
+     * entradas falla (por ejemplo, porque el iterador de la colección lanza una excepción),
+     * el fallo recorre el pipeline detrás de las entradas ya introducidas y se relanza aquí.
+     *
+     * @param inputs Entradas a procesar.
+     * @return Resultados en el mismo orden que las entradas.
+     */
+	public List<T> runAll(Collection<? extends T> inputs) {
+		Thread p = Thread.ofVirtual().unstarted(() -> {
+			try {
+				for (T input : inputs) submit(input);
+			} catch (Throwable t) {
+				Elemento<T> fallo = new Elemento<>(null, -1);
+				fallo.error = t;
+				try {
+					colas.get(0).put(fallo);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		productor = p;
+		p.start();
+		List<T> resultados = new ArrayList<>(inputs.size());
+		for (int i = 0; i < inputs.size(); i++) {
+			resultados.add(take());
+		}
+		try {
+			p.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return resultados;
+	}
+
+	/**
+     * Cierra el pipeline: descarta los resultados que nadie haya recogido y detiene las etapas.
+     * El fin de flujo se introduce desde un hilo virtual, cuando ha terminado el productor de
+     * {@link #runAll(Collection)} si lo hay, mientras este hilo consume la salida hasta verlo
+     * llegar; las dos esperas son bloqueantes, sin sondeo.
+     */
+	@Override
+	public void close() {
+		if (cerrado) return;
+		cerrado = true;
+		Thread p = productor;
+		Thread fin = Thread.ofVirtual().start(() -> {
+			try {
+				if (p != null) p.join();
+				colas.get(0).put(finDeFlujo);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		SpscQueue<Elemento<T>> salida = colas.get(colas.size() - 1);
+		try {
+			while (salida.take() != finDeFlujo) {
+				// Resultado que nadie ha recogido
+			}
+			fin.join();
+			for (Thread t : hilos) {
+				t.join();
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+     * Bucle de una etapa: ejecuta los nodos que le corresponden a cada entrada y la pasa a la
+     * siguiente etapa.
+     */
+	private void etapa(int etapa) {
+		SpscQueue<Elemento<T>> entrada = colas.get(etapa);
+		SpscQueue<Elemento<T>> salida = colas.get(etapa + 1);
+		try {
+			while (true) {
+				Elemento<T> e = entrada.take();
+				if (e != finDeFlujo && e.error == null) {
+					try {
+						e.actual = recorrer(etapa, e.actual, e.data);
+					} catch (Throwable t) {
+						e.error = t;
+					}
+				}
+				salida.put(e);
+				if (e == finDeFlujo) return;
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+     * Ejecuta los nodos de una etapa mientras la entrada siga dentro de ella.
+     *
+     * @return Nodo por el que debe continuar la entrada, o -1 si ha terminado.
+     */
+	private int recorrer(int etapa, int actual, T data) {
+		int fin = plan.nodoFinal();
+		while (actual >= 0 && etapaDe[actual] == etapa) {
+			plan.getNode(actual).execute(data, false);
+			if (actual == fin) return -1;
+			actual = plan.avanzar(actual, data);
+		}
+		return actual;
+	}
+
+	/**
+     * Calcula las componentes fuertemente conexas alcanzables desde el nodo inicial (algoritmo
+     * de Tarjan, iterativo) y las devuelve en orden topológico.
+     */
+	private List<int[]> componentes() {
+		int n = plan.size();
+		int[][] sucesores = new int[n][];
+		for (int i = 0; i < n; i++) {
+			sucesores[i] = plan.sucesores(i);
+		}
+		int[] indice = new int[n];
+		int[] bajo = new int[n];
+		boolean[] enPila = new boolean[n];
+		Arrays.fill(indice, -1);
+		int[] pila = new int[n];
+		int cima = 0;
+		int[] llamadas = new int[n];
+		int[] arista = new int[n];
+		int contador = 0;
+		List<int[]> resultado = new ArrayList<>();
+
+		int profundidad = 0;
+		llamadas[profundidad++] = plan.inicio();
+		indice[plan.inicio()] = bajo[plan.inicio()] = contador++;
+		pila[cima++] = plan.inicio();
+		enPila[plan.inicio()] = true;
+		while (profundidad > 0) {
+			int v = llamadas[profundidad - 1];
+			if (arista[v] < sucesores[v].length) {
+				int w = sucesores[v][arista[v]++];
+				if (indice[w] < 0) {
+					indice[w] = bajo[w] = contador++;
+					pila[cima++] = w;
+					enPila[w] = true;
+					llamadas[profundidad++] = w;
+				} else if (enPila[w]) {
+					bajo[v] = Math.min(bajo[v], indice[w]);
+				}
+				continue;
+			}
+			profundidad--;
+			if (profundidad > 0) {
+				int padre = llamadas[profundidad - 1];
+				bajo[padre] = Math.min(bajo[padre], bajo[v]);
+			}
+			if (bajo[v] == indice[v]) {
+				int tam = 0;
+				while (pila[cima - 1 - tam] != v) tam++;
+				int[] componente = Arrays.copyOfRange(pila, cima - 1 - tam, cima);
+				cima -= tam + 1;
+				for (int x : componente) enPila[x] = false;
+				resultado.add(componente);
+			}
+		}
+		// Tarjan las produce en orden topológico inverso
+		Collections.reverse(resultado);
+		return resultado;
+	}
+
+	/**
+     * Reparte las componentes, en orden, en como mucho maxEtapas grupos consecutivos con un
+     * número parecido de nodos. Los nodos inalcanzables quedan en la etapa 0 (nunca se ejecutan).
+     */
+	private int[] asignarEtapas(List<int[]> componentes, int maxEtapas) {
+		int[] etapas = new int[plan.size()];
+		int total = 0;
+		for (int[] c : componentes) total += c.length;
+		int grupos = Math.min(maxEtapas, componentes.size());
+		int etapa = 0, acumulados = 0;
+		for (int i = 0; i < componentes.size(); i++) {
+			int[] c = componentes.get(i);
+			for (int x : c) etapas[x] = etapa;
+			acumulados += c.length;
+			int restantes = componentes.size() - i - 1;
+			if (etapa < grupos - 1 && (acumulados * (long) grupos >= (long) total * (etapa + 1) || restantes == grupos - 1 - etapa)) {
+				etapa++;
+			}
+		}
+		return etapas;
+	}
+}
@@ -0,0 +1,114 @@
+package grafos;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Cola acotada para un único productor y un único consumidor, sobre un buffer circular.
+ * Cada extremo solo escribe su propio índice, así que no hacen falta cerrojos: basta con
+ * publicar el índice después de escribir (o vaciar) la casilla.
+ *
+ * Las operaciones bloqueantes esperan primero activamente unas pocas vueltas y después se
+ * duermen hasta que el otro extremo las despierta: el hilo que espera se anuncia y vuelve a
+ * mirar la cola antes de dormirse, y cada offer (o poll) despierta al consumidor (o al
+ * productor) anunciado después de publicar su índice. Así la latencia es baja y una cola
+ * parada no gasta CPU. Cuando la cola está llena el productor espera, lo que frena a las
+ * etapas anteriores.
+ *
+ * @param <E> Tipo de los elementos.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+final class SpscQueue<E> {
+	private static final int VUELTAS_ACTIVAS = 128;
+
+	private final Object[] buffer;
+	private final int mascara;
+	private final AtomicLong cola = new AtomicLong();
+	private final AtomicLong cabeza = new AtomicLong();
+	// Hilos dormidos esperando elementos (consumidor) o hueco (productor)
+	private volatile Thread consumidor;
+	private volatile Thread productor;
+
+	/**
+     * Crea la cola con al menos la capacidad indicada (se redondea a potencia de dos).
+     */
+	SpscQueue(int capacidad) {
+		int n = Integer.highestOneBit(Math.max(2, capacidad - 1)) << 1;
+		this.buffer = new Object[n];
+		this.mascara = n - 1;
+	}
+
+	/**
+     * Añade un elemento si hay hueco, despertando al consumidor si está dormido. Solo puede
+     * llamarla el productor.
+     *
+     * @return true si se ha añadido.
+     */
+	boolean offer(E e) {
+		long t = cola.get();
+		if (t - cabeza.get() == buffer.length) return false;
+		buffer[(int) t & mascara] = e;
+		cola.set(t + 1);
+		despertar(consumidor);
+		return true;
+	}
+
+	/**
+     * Saca un elemento si lo hay, despertando al productor si está dormido. Solo puede
+     * llamarla el consumidor.
+     *
+     * @return Elemento, o null si la cola está vacía.
+     */
+	@SuppressWarnings("unchecked")
+	E poll() {
+		long h = cabeza.get();
+		if (h == cola.get()) return null;
+		int i = (int) h & mascara;
+		E e = (E) buffer[i];
+		buffer[i] = null;
+		cabeza.set(h + 1);
+		despertar(productor);
+		return e;
+	}
+
+	/**
+     * Añade un elemento, esperando a que haya hueco.
+     */
+	void put(E e) throws InterruptedException {
+		for (int vuelta = 0; !offer(e); vuelta++) {
+			if (vuelta < VUELTAS_ACTIVAS) {
+				Thread.onSpinWait();
+				continue;
+			}
+			productor = Thread.currentThread();
+			if (cola.get() - cabeza.get() == buffer.length) LockSupport.park(this);
+			productor = null;
+			if (Thread.interrupted()) throw new InterruptedException();
+		}
+	}
+
+	/**
+     * Saca un elemento, esperando a que lo haya.
+     */
+	E take() throws InterruptedException {
+		E e;
+		for (int vuelta = 0; (e = poll()) == null; vuelta++) {
+			if (vuelta < VUELTAS_ACTIVAS) {
+				Thread.onSpinWait();
+				continue;
+			}
+			consumidor = Thread.currentThread();
+			if (cabeza.get() == cola.get()) LockSupport.park(this);
+			consumidor = null;
+			if (Thread.interrupted()) throw new InterruptedException();
+		}
+		return e;
+	}
+
+	private static void despertar(Thread hilo) {
+		if (hilo != null) LockSupport.unpark(hilo);
+	}
+}
@@ -1,10 +1,21 @@
 package grafos;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+import checkpoint.Checkpoint;
+import checkpoint.CheckpointPolicy;
+import checkpoint.CheckpointStore;
 import nodos.ComponentNode;
 import nodos.Node;
 import nodos.NodeG;
@@ -17,6 +28,15 @@ import nodos.NodeG;
  * Permite construir flujos de ejecución dinámicos mediante nodos y aristas (condicionales o no),
  * y ejecutar el flujo completo desde un nodo inicial hasta uno final.
  * 
+ * Ejecución concurrente: mientras se construye, el grafo no es seguro entre hilos. Una vez
+ * sellado con {@link #seal()} pasa a ser de solo lectura (cualquier modificación lanza
+ * IllegalStateException) y varios hilos pueden llamar a {@link #run(Object, boolean)} a la vez
+ * sin bloqueos, siempre que cada hilo use su propio dato de entrada y el código de los nodos
+ * no comparta estado mutable. El plan compilado es inmutable y se publica de forma segura.
+ * 
+ * La ejecución puede observarse registrando un {@link ExecutionListener}; el trazado por
+ * consola de run(input, true) es uno de ellos ({@link ConsoleTraceListener}).
+ * 
  * @param <T> Tipo de dato sobre el cual operan los nodos del grafo.
  * 
  * @author Sofía Castro - sofiai.castro@estudiante.uam.es
@@ -29,6 +49,9 @@ public class StateGraph<T> implements Graph<T>{
 	private LinkedHashMap<String, ComponentNode<T>> nodos = new LinkedHashMap<>();
 	private ComponentNode<T> nodoI;
 	private ComponentNode<T> nodoF;
+	private volatile ExecutionPlan<T> plan;
+	private volatile boolean sellado;
+	private volatile ExecutionListener<T> listeners;
 	
 	/**
      * Constructor de la clase StateGraph.
@@ -41,6 +64,19 @@ public class StateGraph<T> implements Graph<T>{
 		this.desc = desc;
 	}
 	
+	/**
+     * Constructor que recibe los nodos ya conectados, usado por {@link StateGraphBuilder}.
+     * 
+     * @param nombre Nombre identificador del grafo.
+     * @param desc Descripción del propósito del grafo.
+     * @param nodos Nodos del grafo indexados por su nombre, en orden de inserción.
+     */
+	StateGraph(String nombre, String desc, LinkedHashMap<String, ComponentNode<T>> nodos) {
+		this.nombre = nombre;
+		this.desc = desc;
+		this.nodos = nodos;
+	}
+	
 	/**
      * Obtiene el nombre del grafo.
      *
@@ -77,6 +113,7 @@ public class StateGraph<T> implements Graph<T>{
      */
 	@Override
 	public StateGraph<T> addNode(String nombreNodo, Consumer<T> codNodo) {
+		modificar();
 		Node<T> node = new Node<T>(nombreNodo, codNodo);
 		this.nodos.put(nombreNodo, node);
 		return this;
@@ -89,6 +126,7 @@ public class StateGraph<T> implements Graph<T>{
      * @return Referencia al grafo actual para permitir llamadas encadenadas.
      */
     public Graph<T> addNode(ComponentNode<T> node) {
+    	modificar();
     	this.nodos.put(node.getNombre(), node);
 		return this;
     }
@@ -101,6 +139,7 @@ public class StateGraph<T> implements Graph<T>{
      * @return Referencia al grafo actual para permitir llamadas encadenadas.
      */
 	public <U> NodeG<T, U> addWfNode(String nombreGrafo, StateGraph<U> grafo) {
+		modificar();
 		NodeG<T, U> node = new NodeG<T, U>(nombreGrafo, grafo);
 		this.nodos.put(nombreGrafo, node);
 		return node;
@@ -112,11 +151,13 @@ public class StateGraph<T> implements Graph<T>{
      * @param origen Nombre del nodo de origen.
      * @param destino Nombre del nodo de destino.
      * @return Referencia al grafo actual para permitir llamadas encadenadas.
+     * @throws IllegalArgumentException Si alguno de los nodos no está en el grafo.
      */
 	public StateGraph<T> addEdge(String origen, String destino) {
+		modificar();
 		ComponentNode<T> nodoI = null, nodoF = null;
-		nodoI = this.nodos.get(origen);
-		nodoF = this.nodos.get(destino);
+		nodoI = buscar(origen);
+		nodoF = buscar(destino);
 		nodoI.addNextNode(nodoF);
 		nodoI.addCondition(destino, null);
 		return this;
@@ -129,22 +170,38 @@ public class StateGraph<T> implements Graph<T>{
      * @param destino Nombre del nodo de destino.
      * @param condExecute Condición que debe cumplirse para realizar la transición.
      * @return Referencia al grafo actual para permitir llamadas encadenadas.
+     * @throws IllegalArgumentException Si alguno de los nodos no está en el grafo.
      */
 	public StateGraph<T> addConditionalEdge(String origen, String destino, Predicate<T> condExecute) {
+		modificar();
 		ComponentNode<T> nodoI = null, nodoF = null;
-		nodoI = this.nodos.get(origen);
-		nodoF = this.nodos.get(destino);
+		nodoI = buscar(origen);
+		nodoF = buscar(destino);
 		nodoI.addNextNode(nodoF);
 		nodoI.addCondition(destino, condExecute);
 		return this;
 	}
 	
+	/**
+     * Busca un nodo del grafo por su nombre.
+     * 
+     * @throws IllegalArgumentException Si no hay ningún nodo con ese nombre.
+     */
+	private ComponentNode<T> buscar(String nombreNodo) {
+		ComponentNode<T> nodo = nodos.get(nombreNodo);
+		if (nodo == null) {
+			throw new IllegalArgumentException("El nodo '" + nombreNodo + "' no existe en el grafo '" + nombre + "'");
+		}
+		return nodo;
+	}
+	
 	/**
      * Define el nodo inicial del grafo.
      * 
      * @param init Nombre del nodo inicial.
      */
 	public void setInitial(String init) {
+		modificar();
 		ComponentNode<T> nodo = nodos.get(init);
 		this.nodoI = nodo;
 	}
@@ -155,6 +212,7 @@ public class StateGraph<T> implements Graph<T>{
      * @param fin Nombre del nodo final.
      */
 	public void setFinal(String fin) {
+		modificar();
 		ComponentNode<T> nodo = nodos.get(fin);
 		this.nodoF = nodo;
 	}
@@ -186,55 +244,334 @@ public class StateGraph<T> implements Graph<T>{
      */
 	@Override
 	public T run(T input, boolean trazado) {
-		int i = 1;
-		if(trazado) {
-			System.out.println("Step " + i + " (" + this.getNombre() + ") -- input: " + input.toString());
-			i++;
-		}
 		T result = executeFrom(input, trazado);
 		return result;
 	}
 	
 	/**
-     * Ejecuta recursivamente el flujo desde el nodo inicial.
+     * Ejecuta el grafo desde el nodo inicial guardando puntos de control según la política
+     * dada, de forma que si la JVM muere la ejecución pueda continuar con
+     * {@link #resume(CheckpointStore, CheckpointPolicy)}. Los puntos de control anteriores del
+     * fichero se descartan. La ejecución no tiene trazado ni avisa a los observadores.
      * 
-     * @param data Dato a procesar.
-     * @param debug Si es true, se imprime el paso actual.
-     * @return Resultado tras procesar el flujo desde el nodo dado.
+     * @param input Dato de entrada para el flujo.
+     * @param store Fichero de puntos de control.
+     * @param policy Frecuencia de los puntos de control.
+     * @return Resultado final tras ejecutar el flujo completo.
      */
-	public T executeFrom(T data, boolean debug) {
-        int step = 2;
-        ComponentNode<T> actual = nodoI;
-        
-        while (actual != null) {
-    		// Ejecutar el código del nodo actual
-    		actual.execute(data, debug);
-    		if(debug) {
-    			System.out.println("Step " + step + " (" + nombre + ") -- " + actual.getNombre() + " executed: " + data.toString());
-    			step++;
-    		}
-
-    		// Si es el nodo final, detener
-    		if (actual == nodoF) break;
-
-    		// Buscar el siguiente nodo válido
-    		ComponentNode<T> siguiente = null;
-    		for (ComponentNode<T> next : actual.getNextNodes()) {
-    			Predicate<T> cond = actual.getCondition(next.getNombre());
-    			if (cond == null || cond.test(data)) {
-    				siguiente = next;
-    				break; // Solo seguimos el primer nodo cuya condición se cumpla
-    			}
-    		}
+	@Override
+	public T run(T input, CheckpointStore<T> store, CheckpointPolicy policy) {
+		store.reset();
+		ExecutionPlan<T> p = compile();
+		return conPuntosDeControl(p, p.inicio(), 0, input, store, policy);
+	}
+	
+	/**
+     * Continúa una ejecución desde el último punto de control del fichero, guardando nuevos
+     * puntos de control según la política dada. Si la ejecución ya había terminado, devuelve
+     * directamente su resultado.
+     * 
+     * @param store Fichero de puntos de control.
+     * @param policy Frecuencia de los puntos de control.
+     * @return Resultado final tras ejecutar el resto del flujo.
+     * @throws IllegalStateException Si el fichero no tiene puntos de control o el nodo
+     *         guardado no está en el grafo.
+     */
+	@Override
+	public T resume(CheckpointStore<T> store, CheckpointPolicy policy) {
+		Checkpoint<T> c = store.latest().orElseThrow(
+				() -> new IllegalStateException("No hay ningún punto de control desde el que reanudar el grafo '" + nombre + "'"));
+		if (c.isFinished()) return c.estado();
+		ExecutionPlan<T> p = compile();
+		int desde = p.indice(c.nodo());
+		if (desde < 0) {
+			throw new IllegalStateException("El nodo '" + c.nodo() + "' del punto de control no existe en el grafo '" + nombre + "'");
+		}
+		return conPuntosDeControl(p, desde, c.pasos(), c.estado(), store, policy);
+	}
+	
+	/**
+     * Ejecuta el plan desde un nodo guardando un punto de control cuando lo pide la política,
+     * y uno final al terminar. Si la política limita el tiempo, los pasos entre dos consultas
+     * al reloj se ajustan al ritmo medido en la anterior para que entre ellas pase 1/16 del
+     * intervalo: empiezan en 1, como mucho se doblan de una consulta a la siguiente, bajan de
+     * golpe si los pasos se hacen más lentos y nunca superan
+     * {@value CheckpointPolicy#PASOS_ENTRE_RELOJ}. Así con pasos rápidos casi no se interrumpe
+     * el bucle del plan y con pasos lentos el punto de control no se retrasa.
+     */
+	private T conPuntosDeControl(ExecutionPlan<T> p, int desde, long pasos, T data, CheckpointStore<T> store, CheckpointPolicy policy) {
+		long cadaPasos = policy.pasos() == 0 ? Long.MAX_VALUE : policy.pasos();
+		boolean porTiempo = policy.intervalo() != null;
+		long cadaNanos = porTiempo ? policy.intervalo().toNanos() : Long.MAX_VALUE;
+		long maxSalto = Math.min(cadaPasos, Integer.MAX_VALUE);
+		long inicio = System.nanoTime();
+		// Paso y momento del último punto de control; pasos entre consultas al reloj, y momento y paso de la última consulta
+		long[] ultimo = {pasos, inicio};
+		long[] reloj = {porTiempo ? 1 : maxSalto, inicio, pasos};
+		long total = p.ejecutarDesde(desde, pasos, data, pasos + reloj[0], (siguiente, n, d) -> {
+			long ahora = porTiempo ? System.nanoTime() : 0;
+			if (porTiempo) {
+				// Pasos que caben en 1/16 del intervalo al ritmo de los últimos
+				double presupuesto = (double) (n - reloj[2]) * (cadaNanos / 16) / Math.max(1, ahora - reloj[1]);
+				long tope = Math.min(maxSalto, Math.min(CheckpointPolicy.PASOS_ENTRE_RELOJ, reloj[0] * 2));
+				reloj[0] = Math.max(1, Math.min(tope, (long) presupuesto));
+				reloj[1] = ahora;
+				reloj[2] = n;
+			}
+			if (n - ultimo[0] >= cadaPasos || (porTiempo && ahora - ultimo[1] >= cadaNanos)) {
+				store.append(p.getNode(siguiente).getNombre(), n, d);
+				ultimo[0] = n;
+				ultimo[1] = porTiempo ? System.nanoTime() : 0;
+				// El tiempo de guardar no cuenta para el ritmo de los pasos
+				reloj[1] = ultimo[1];
+			}
+			return n + Math.min(reloj[0], cadaPasos - (n - ultimo[0]));
+		});
+		store.append(null, total, data);
+		return data;
+	}
+	
+	/**
+     * Registra un observador de las ejecuciones del grafo. Puede hacerse también con el
+     * grafo sellado; las ejecuciones en curso no lo ven.
+     * 
+     * @param listener Observador a registrar.
+     */
+	@Override
+	public synchronized void addListener(ExecutionListener<? super T> listener) {
+		this.listeners = ListenerChain.with(listeners, listener);
+	}
+	
+	/**
+     * Quita un observador de las ejecuciones del grafo.
+     * 
+     * @param listener Observador a quitar.
+     */
+	@Override
+	public synchronized void removeListener(ExecutionListener<? super T> listener) {
+		this.listeners = ListenerChain.without(listeners, listener);
+	}
+	
+	/**
+     * Ejecuta el grafo sobre un lote de entradas independientes en paralelo, sin trazado.
+     * El grafo no debe modificarse mientras dura el lote (ver {@link #seal()}).
+     * 
+     * @param inputs Entradas a procesar.
+     * @param executor Ejecutor en el que se lanzan las ejecuciones.
+     * @return Resultados en el mismo orden que las entradas.
+     */
+	@Override
+	public List<T> runAll(Collection<? extends T> inputs, Executor executor) {
+		return runAll(inputs.spliterator(), executor);
+	}
+	
+	/**
+     * Ejecuta el grafo sobre un lote de entradas independientes en paralelo, sin trazado.
+     * 
+     * @param inputs Spliterator con las entradas a procesar.
+     * @param executor Ejecutor en el que se lanzan las ejecuciones.
+     * @return Resultados en el mismo orden que las entradas.
+     */
+	@Override
+	public List<T> runAll(Spliterator<? extends T> inputs, Executor executor) {
+		return BatchExecution.ordered(inputs, executor, x -> run(x, false));
+	}
+	
+	/**
+     * Ejecuta el grafo sobre un lote de entradas en paralelo y entrega cada resultado en
+     * cuanto termina, sin respetar el orden.
+     * 
+     * @param inputs Spliterator con las entradas a procesar.
+     * @param executor Ejecutor en el que se lanzan las ejecuciones.
+     * @param onResult Consumidor que recibe los resultados (puede llamarse desde varios hilos).
+     */
+	@Override
+	public void runAllUnordered(Spliterator<? extends T> inputs, Executor executor, Consumer<? super T> onResult) {
+		BatchExecution.<T>unordered(inputs, executor, x -> run(x, false), onResult);
+	}
+	
+	/**
+     * Sella el grafo: lo compila y a partir de ese momento lo deja en modo de solo lectura,
+     * de forma que puede compartirse entre varios hilos que lo ejecutan concurrentemente.
+     * 
+     * @return Plan de ejecución del grafo sellado.
+     */
+	public ExecutionPlan<T> seal() {
+		ExecutionPlan<T> p = compile();
+		this.sellado = true;
+		return p;
+	}
+	
+	/**
+     * Valida el grafo sin ejecutarlo: comprueba que tiene nodo inicial y final, busca los nodos
+     * inalcanzables, los que no pueden llegar al nodo final y las aristas que nunca se toman
+     * por estar detrás de una arista no condicional. El coste es lineal en nodos y aristas.
+     * 
+     * @return Resultado de la validación.
+     */
+	@Override
+	public GraphValidation validate() {
+		List<ComponentNode<T>> orden = new ArrayList<>(nodos.values());
+		Map<ComponentNode<T>, Integer> indices = new IdentityHashMap<>();
+		for (ComponentNode<T> nodo : orden) {
+			indices.put(nodo, indices.size());
+		}
+		int n = orden.size();
 
-    		// Si no se encontró un siguiente nodo válido, terminar
-    		if (siguiente == null) break;
+		// Aristas efectivas hacia delante y hacia atrás (listas de adyacencia en arrays)
+		List<String> muertas = new ArrayList<>();
+		int[][] salida = new int[n][];
+		int[] grados = new int[n];
+		for (int i = 0; i < n; i++) {
+			ComponentNode<T> nodo = orden.get(i);
+			List<ComponentNode<T>> vivas = aristasVivas(nodo);
+			for (ComponentNode<T> next : nodo.getNextNodes().subList(vivas.size(), nodo.getNextNodes().size())) {
+				muertas.add(nodo.getNombre() + " -> " + next.getNombre());
+			}
+			ComponentNode<T> join = nodo.asFork() == null ? null : nodos.get(nodo.asFork().getJoin());
+			int[] destinos = new int[vivas.size() + (join == null ? 0 : 1)];
+			int k = 0;
+			for (ComponentNode<T> next : vivas) {
+				Integer d = indices.get(next);
+				if (d != null) destinos[k++] = d;
+			}
+			if (join != null) destinos[k++] = indices.get(join);
+			salida[i] = Arrays.copyOf(destinos, k);
+			for (int d : salida[i]) grados[d]++;
+		}
+		int[][] entrada = new int[n][];
+		for (int i = 0; i < n; i++) {
+			entrada[i] = new int[grados[i]];
+		}
+		for (int i = 0; i < n; i++) {
+			for (int d : salida[i]) entrada[d][--grados[d]] = i;
+		}
 
-    		actual = siguiente;
-    	}
+		Integer inicial = nodoI == null ? null : indices.get(nodoI);
+		Integer fin = nodoF == null ? null : indices.get(nodoF);
+		boolean[] alcanzables = inicial == null ? new boolean[n] : recorrer(salida, inicial);
+		boolean[] llegan = fin == null ? null : recorrer(entrada, fin);
 
-        return data;
-    }
+		List<String> inalcanzables = new ArrayList<>();
+		List<String> sinCamino = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			if (!alcanzables[i]) {
+				inalcanzables.add(orden.get(i).getNombre());
+			} else if (llegan != null && !llegan[i]) {
+				sinCamino.add(orden.get(i).getNombre());
+			}
+		}
+		return new GraphValidation(nombre, inicial != null, fin != null, inalcanzables, sinCamino, muertas);
+	}
+	
+	/**
+     * Valida el grafo y elimina sus aristas muertas, que la ejecución nunca puede tomar.
+     * 
+     * @return Resultado de la validación previa a la eliminación.
+     * @throws IllegalStateException Si el grafo está sellado.
+     */
+	@Override
+	public GraphValidation optimize() {
+		modificar();
+		GraphValidation v = validate();
+		for (ComponentNode<T> nodo : nodos.values()) {
+			List<ComponentNode<T>> next = nodo.getNextNodes();
+			int vivas = aristasVivas(nodo).size();
+			for (ComponentNode<T> muerta : new ArrayList<>(next.subList(vivas, next.size()))) {
+				nodo.removeNextNode(muerta);
+			}
+		}
+		return v;
+	}
+	
+	/**
+     * Obtiene las aristas de un nodo que la ejecución puede tomar: en una bifurcación todas,
+     * y en el resto hasta la primera no condicional, incluida.
+     */
+	private List<ComponentNode<T>> aristasVivas(ComponentNode<T> nodo) {
+		List<ComponentNode<T>> next = nodo.getNextNodes();
+		if (nodo.asFork() != null) return next;
+		for (int e = 0; e < next.size(); e++) {
+			if (nodo.getCondition(next.get(e).getNombre()) == null) {
+				return next.subList(0, e + 1);
+			}
+		}
+		return next;
+	}
+	
+	/**
+     * Marca los nodos alcanzables desde uno dado siguiendo las listas de adyacencia.
+     */
+	private static boolean[] recorrer(int[][] adyacencia, int origen) {
+		boolean[] visitados = new boolean[adyacencia.length];
+		ArrayDeque<Integer> pendientes = new ArrayDeque<>();
+		visitados[origen] = true;
+		pendientes.push(origen);
+		while (!pendientes.isEmpty()) {
+			for (int d : adyacencia[pendientes.pop()]) {
+				if (!visitados[d]) {
+					visitados[d] = true;
+					pendientes.push(d);
+				}
+			}
+		}
+		return visitados;
+	}
+	
+	/**
+     * Indica si el grafo está sellado y es, por tanto, de solo lectura.
+     * 
+     * @return true si el grafo ya no admite modificaciones.
+     */
+	public boolean isSealed() {
+		return sellado;
+	}
+	
+	/**
+     * Comprueba que el grafo admite modificaciones y descarta el plan compilado.
+     * 
+     * @throws IllegalStateException Si el grafo está sellado.
+     */
+	private void modificar() {
+		if (sellado) {
+			throw new IllegalStateException("El grafo '" + nombre + "' está sellado y no admite modificaciones");
+		}
+		this.plan = null;
+	}
+	
+	/**
+     * Compila el grafo en un plan de ejecución inmutable, con los nodos numerados
+     * y las aristas en arrays planos. El plan se guarda y se reutiliza en cada
+     * ejecución hasta que el grafo se modifica (añadir nodos o aristas, o cambiar
+     * el nodo inicial o final), momento en que se descarta y se vuelve a compilar.
+     * 
+     * Las modificaciones hechas directamente sobre los nodos, sin pasar por el grafo,
+     * no invalidan el plan.
+     * 
+     * @return Plan de ejecución del estado actual del grafo.
+     */
+	public ExecutionPlan<T> compile() {
+		ExecutionPlan<T> p = this.plan;
+		if (p == null) {
+			p = new ExecutionPlan<>(nombre, nodos.values(), nodoI, nodoF);
+			this.plan = p;
+		}
+		return p;
+	}
+	
+	/**
+     * Ejecuta el flujo desde el nodo inicial usando el plan compilado del grafo, avisando a
+     * los observadores registrados y, si se pide el trazado, al de consola.
+     * 
+     * @param data Dato a procesar.
+     * @param debug Si es true, se imprime el trazado de pasos por consola.
+     * @return Resultado tras procesar el flujo desde el nodo dado.
+     */
+	public T executeFrom(T data, boolean debug) {
+		ExecutionListener<T> l = listeners;
+		if (debug) l = ListenerChain.with(l, ConsoleTraceListener.INSTANCE);
+		return compile().execute(data, debug, l);
+	}
 	
 	/**
      * Devuelve una representación en cadena del grafo, incluyendo nodos y conexiones.
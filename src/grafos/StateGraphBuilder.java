@@ -0,0 +1,242 @@
+package grafos;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import nodos.ComponentNode;
+import nodos.Node;
+
+/**
+ * Constructor en bloque de grafos grandes, pensado para flujos generados a partir de una
+ * configuración con decenas de miles de nodos.
+ *
+ * Los nodos y las aristas se acumulan en listas (de uno en uno o en bloque) y se conectan todos
+ * a la vez en {@link #build()}, con las estructuras del grafo reservadas de antemano según el
+ * número de nodos. Las comprobaciones de duplicados usan conjuntos hash, por lo que el coste de
+ * construir el grafo es lineal en nodos y aristas.
+ *
+ * La semántica es la de StateGraph: las aristas de cada nodo se prueban en el orden en que se
+ * añadieron, y repetir una arista solo sustituye su condición. En cambio, un nombre de nodo
+ * repetido o una arista hacia un nodo inexistente son errores.
+ *
+ * @param <T> Tipo de dato sobre el cual operan los nodos del grafo.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class StateGraphBuilder<T> {
+	/**
+	 * Arista del grafo.
+	 *
+	 * @param <T> Tipo de dato sobre el cual operan los nodos del grafo.
+	 * @param origen Nombre del nodo de origen.
+	 * @param destino Nombre del nodo de destino.
+	 * @param condicion Condición de la transición (null si no es condicional).
+	 */
+	public record Edge<T>(String origen, String destino, Predicate<T> condicion) {
+		/**
+	     * Crea una arista no condicional.
+	     *
+	     * @param <T> Tipo de dato del grafo.
+	     * @param origen Nombre del nodo de origen.
+	     * @param destino Nombre del nodo de destino.
+	     * @return Arista creada.
+	     */
+		public static <T> Edge<T> of(String origen, String destino) {
+			return new Edge<>(origen, destino, null);
+		}
+	}
+
+	private final String nombre;
+	private final String desc;
+	private final List<ComponentNode<T>> nodos;
+	private final List<Edge<T>> aristas;
+	private String inicial;
+	private String fin;
+	private boolean construido;
+
+	/**
+     * Crea un constructor de grafos vacío.
+     *
+     * @param nombre Nombre identificador del grafo.
+     * @param desc Descripción del propósito del grafo.
+     */
+	public StateGraphBuilder(String nombre, String desc) {
+		this(nombre, desc, 16, 16);
+	}
+
+	/**
+     * Crea un constructor de grafos con espacio para el número de nodos y aristas previsto.
+     *
+     * @param nombre Nombre identificador del grafo.
+     * @param desc Descripción del propósito del grafo.
+     * @param nodosPrevistos Número aproximado de nodos.
+     * @param aristasPrevistas Número aproximado de aristas.
+     */
+	public StateGraphBuilder(String nombre, String desc, int nodosPrevistos, int aristasPrevistas) {
+		this.nombre = nombre;
+		this.desc = desc;
+		this.nodos = new ArrayList<>(nodosPrevistos);
+		this.aristas = new ArrayList<>(aristasPrevistas);
+	}
+
+	/**
+     * Añade un nodo con su código asociado.
+     *
+     * @param nombreNodo Nombre identificador del nodo.
+     * @param codNodo Código que se ejecutará al activar el nodo.
+     * @return Referencia al constructor para permitir llamadas encadenadas.
+     */
+	public StateGraphBuilder<T> addNode(String nombreNodo, Consumer<T> codNodo) {
+		nodos.add(new Node<>(nombreNodo, codNodo));
+		return this;
+	}
+
+	/**
+     * Añade un nodo ya creado (por ejemplo, decorado o una bifurcación).
+     *
+     * @param node Nodo que se desea añadir.
+     * @return Referencia al constructor para permitir llamadas encadenadas.
+     */
+	public StateGraphBuilder<T> addNode(ComponentNode<T> node) {
+		nodos.add(node);
+		return this;
+	}
+
+	/**
+     * Añade en bloque un nodo por cada entrada del mapa, en el orden de iteración del mapa.
+     *
+     * @param codigos Código de cada nodo, indexado por su nombre.
+     * @return Referencia al constructor para permitir llamadas encadenadas.
+     */
+	public StateGraphBuilder<T> addNodes(Map<String, ? extends Consumer<T>> codigos) {
+		for (Map.Entry<String, ? extends Consumer<T>> e : codigos.entrySet()) {
+			nodos.add(new Node<>(e.getKey(), e.getValue()));
+		}
+		return this;
+	}
+
+	/**
+     * Añade en bloque nodos ya creados.
+     *
+     * @param nodes Nodos que se desean añadir.
+     * @return Referencia al constructor para permitir llamadas encadenadas.
+     */
+	public StateGraphBuilder<T> addNodes(Collection<? extends ComponentNode<T>> nodes) {
+		nodos.addAll(nodes);
+		return this;
+	}
+
+	/**
+     * Añade una arista no condicional entre dos nodos.
+     *
+     * @param origen Nombre del nodo de origen.
+     * @param destino Nombre del nodo de destino.
+     * @return Referencia al constructor para permitir llamadas encadenadas.
+     */
+	public StateGraphBuilder<T> addEdge(String origen, String destino) {
+		aristas.add(new Edge<>(origen, destino, null));
+		return this;
+	}
+
+	/**
+     * Añade una arista condicional entre dos nodos.
+     *
+     * @param origen Nombre del nodo de origen.
+     * @param destino Nombre del nodo de destino.
+     * @param condExecute Condición que debe cumplirse para realizar la transición.
+     * @return Referencia al constructor para permitir llamadas encadenadas.
+     */
+	public StateGraphBuilder<T> addConditionalEdge(String origen, String destino, Predicate<T> condExecute) {
+		aristas.add(new Edge<>(origen, destino, condExecute));
+		return this;
+	}
+
+	/**
+     * Añade aristas en bloque.
+     *
+     * @param edges Aristas que se desean añadir, en orden.
+     * @return Referencia al constructor para permitir llamadas encadenadas.
+     */
+	public StateGraphBuilder<T> addEdges(Collection<Edge<T>> edges) {
+		aristas.addAll(edges);
+		return this;
+	}
+
+	/**
+     * Define el nodo inicial del grafo.
+     *
+     * @param init Nombre del nodo inicial.
+     * @return Referencia al constructor para permitir llamadas encadenadas.
+     */
+	public StateGraphBuilder<T> setInitial(String init) {
+		this.inicial = init;
+		return this;
+	}
+
+	/**
+     * Define el nodo final del grafo.
+     *
+     * @param fin Nombre del nodo final.
+     * @return Referencia al constructor para permitir llamadas encadenadas.
+     */
+	public StateGraphBuilder<T> setFinal(String fin) {
+		this.fin = fin;
+		return this;
+	}
+
+	/**
+     * Construye el grafo conectando todos los nodos y aristas acumulados. Solo puede llamarse
+     * una vez, ya que los nodos pasan a formar parte del grafo construido.
+     *
+     * @return Grafo construido, todavía sin sellar.
+     * @throws IllegalArgumentException Si hay nombres de nodo repetidos o alguna arista, el
+     *         nodo inicial o el final hacen referencia a un nodo inexistente.
+     * @throws IllegalStateException Si el grafo ya se había construido.
+     */
+	public StateGraph<T> build() {
+		if (construido) {
+			throw new IllegalStateException("El grafo '" + nombre + "' ya se ha construido");
+		}
+		construido = true;
+
+		LinkedHashMap<String, ComponentNode<T>> mapa = LinkedHashMap.newLinkedHashMap(nodos.size());
+		for (ComponentNode<T> nodo : nodos) {
+			if (mapa.putIfAbsent(nodo.getNombre(), nodo) != null) {
+				throw new IllegalArgumentException("El nodo '" + nodo.getNombre() + "' está repetido en el grafo '" + nombre + "'");
+			}
+		}
+
+		// Los nodos descartan los destinos repetidos, y la condición de una arista repetida
+		// sustituye a la anterior como en StateGraph.addEdge
+		for (Edge<T> arista : aristas) {
+			ComponentNode<T> origen = buscar(mapa, arista.origen());
+			origen.addNextNode(buscar(mapa, arista.destino()));
+			origen.addCondition(arista.destino(), arista.condicion());
+		}
+
+		StateGraph<T> sg = new StateGraph<>(nombre, desc, mapa);
+		if (inicial != null) sg.setInitial(buscar(mapa, inicial).getNombre());
+		if (fin != null) sg.setFinal(buscar(mapa, fin).getNombre());
+		return sg;
+	}
+
+	/**
+     * Busca un nodo por su nombre.
+     *
+     * @throws IllegalArgumentException Si no hay ningún nodo con ese nombre.
+     */
+	private ComponentNode<T> buscar(Map<String, ComponentNode<T>> mapa, String nombreNodo) {
+		ComponentNode<T> nodo = mapa.get(nombreNodo);
+		if (nodo == null) {
+			throw new IllegalArgumentException("El nodo '" + nombreNodo + "' no existe en el grafo '" + nombre + "'");
+		}
+		return nodo;
+	}
+}
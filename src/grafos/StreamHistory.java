@@ -0,0 +1,78 @@
+package grafos;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Historial de eventos de un StreamingStateGraph. Es la lista que reciben los nodos en cada
+ * ejecución, con los eventos en orden de llegada; el último elemento es siempre el evento
+ * que se está procesando.
+ * 
+ * Cada implementación decide qué eventos conserva (todos, una ventana, los que caben en
+ * disco...). Los nodos pueden leer y reemplazar elementos, pero no añadir ni quitar: solo
+ * el grafo añade eventos, mediante {@link #append(Object)}.
+ * 
+ * Las implementaciones avisan a los {@link HistoryListener} registrados de cada evento que
+ * entra o sale. Reemplazar un elemento con set no genera avisos.
+ * 
+ * @param <T> Tipo de los eventos.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public abstract class StreamHistory<T> extends AbstractList<T> implements RandomAccess {
+	private final List<HistoryListener<? super T>> listeners = new ArrayList<>();
+
+	/**
+     * Registra un observador de los eventos que entran y salen del historial. Se le avisa
+     * primero de los eventos que ya contiene el historial.
+     * 
+     * @param listener Observador a registrar.
+     */
+	public void addListener(HistoryListener<? super T> listener) {
+		for (T evento : this) {
+			listener.added(evento);
+		}
+		listeners.add(listener);
+	}
+
+	/**
+     * Avisa a los observadores de que un evento ha entrado en el historial.
+     * 
+     * @param evento Evento añadido.
+     */
+	protected void notifyAdded(T evento) {
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).added(evento);
+		}
+	}
+
+	/**
+     * Avisa a los observadores de que un evento ha salido del historial.
+     * 
+     * @param evento Evento descartado.
+     */
+	protected void notifyEvicted(T evento) {
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).evicted(evento);
+		}
+	}
+
+	/**
+     * Añade un evento al final del historial, descartando los que ya no deban conservarse.
+     * 
+     * @param evento Evento recibido.
+     */
+	public abstract void append(T evento);
+
+	/**
+     * Indica que el grafo ha terminado de procesar el último evento. Los historiales
+     * persistentes lo guardan entonces, con los cambios que hayan hecho los nodos; por defecto
+     * no se hace nada.
+     */
+	public void processed() {
+	}
+}
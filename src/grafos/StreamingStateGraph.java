@@ -1,12 +1,28 @@
 package grafos;
 
-import java.util.LinkedList;
+import java.util.AbstractList;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+import agregados.Aggregate;
+import nodos.AggregateNode;
 
 /**
  * La clase StreamingStateGraph representa un grafo dirigido que modela un flujo de estados o ejecución.
  * Guarda el estado de cada ejecución en un historial que luego pasa como input a los nodos en su ejecución.
  * 
+ * Por defecto el historial conserva todos los eventos; para flujos largos puede usarse una
+ * ventana ({@link HistoryWindow}) deslizante por número o por tiempo, o fija, de forma que
+ * la memoria y el coste de los nodos que recorren el historial no crecen con cada evento.
+ * Los nodos de agregado ({@link #addAggregateNode}) evitan además recorrer el historial:
+ * sus agregados se actualizan con cada evento que entra o sale de él. Con un
+ * {@link MappedHistory} el historial se guarda en disco y sobrevive a los reinicios.
+ * 
+ * Como cada evento depende de todos los anteriores, las ejecuciones sobre un mismo grafo se
+ * serializan: puede llamarse a run desde varios hilos, pero los eventos se procesan de uno en uno.
+ * 
  * @param <T> Tipo de dato sobre el cual operan los nodos del grafo.
  * 
  * @author Sofía Castro - sofiai.castro@estudiante.uam.es
@@ -14,12 +30,55 @@ import java.util.List;
  * Pareja 11
  */
 public class StreamingStateGraph<T extends Comparable<T>> extends StateGraph<List<T>> {
-	private List<T> history = new LinkedList<>();
+	private final StreamHistory<T> history;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final List<T> vista = new Vista();
 
+	/**
+     * Constructor de un grafo en streaming que conserva todos los eventos.
+     * 
+     * @param nombre Nombre identificador del grafo.
+     * @param desc Descripción del propósito del grafo.
+     */
 	public StreamingStateGraph(String nombre, String desc) {
+		this(nombre, desc, HistoryWindow.unbounded());
+	}
+
+	/**
+     * Constructor de un grafo en streaming con un historial concreto.
+     * 
+     * @param nombre Nombre identificador del grafo.
+     * @param desc Descripción del propósito del grafo.
+     * @param history Historial (con su política de retención) que se pasa a los nodos.
+     */
+	public StreamingStateGraph(String nombre, String desc, StreamHistory<T> history) {
 		super(nombre, desc);
+		this.history = history;
 	}
 	
+	/**
+     * Añade un nodo que guarda en el último evento el resultado de un agregado incremental
+     * (suma, media, varianza, mínimo, máximo, recuento o top-k). El agregado se registra en
+     * el historial del grafo, por lo que tiene en cuenta la política de retención.
+     * 
+     * @param <R> Tipo del resultado del agregado.
+     * @param nombreNodo Nombre del nodo.
+     * @param aggregate Agregado a mantener.
+     * @param salida Función que guarda el resultado en el último evento.
+     * @return El propio grafo, para encadenar llamadas.
+     */
+	public <R> StreamingStateGraph<T> addAggregateNode(String nombreNodo, Aggregate<? super T, R> aggregate,
+			BiConsumer<? super T, ? super R> salida) {
+		addNode(new AggregateNode<>(nombreNodo, aggregate, salida));
+		lock.lock();
+		try {
+			history.addListener(aggregate);
+		} finally {
+			lock.unlock();
+		}
+		return this;
+	}
+
 	/**
      * Ejecuta el grafo desde el nodo inicial con un dato de entrada.
      * Guardando el estado del grafo al finalizar.
@@ -29,22 +88,53 @@ public class StreamingStateGraph<T extends Comparable<T>> extends StateGraph<Lis
      * @return Resultado final tras ejecutar el flujo completo.
      */
 	public T run(T input, boolean trazado) {
-		int i = 1;
-		history.add(input);
-		if(trazado) {
-			System.out.println("Step " + i + " (" + super.getNombre() + ") -- input: " + history.toString());
-			i++;
+		lock.lock();
+		try {
+			history.append(input);
+			List<T> result = executeFrom(history, trazado);
+			history.processed();
+			return result.getLast();
+		} finally {
+			lock.unlock();
 		}
-		List<T> result = executeFrom(history, trazado);
-		return result.getLast();
 	}
 	
 	/**
-     * Obtiene el historial de estados de ejecuciones de los nodos del grafo.
+     * Obtiene una vista de solo lectura de los estados conservados en el historial del grafo.
+     * La vista no copia los eventos: cada acceso lee el historial en ese momento, por lo que con
+     * un {@link MappedHistory} solo se decodifican los eventos que se consultan y el historial
+     * puede ser mayor que la memoria. Si se recorre mientras otro hilo ejecuta el grafo, la
+     * ventana puede moverse durante el recorrido; para una copia estable basta con
+     * {@code new ArrayList<>(history())} entre ejecuciones.
      * 
-     * @return Lista con el historial de estados.
+     * @return Vista del historial de estados.
      */
 	public List<T> history() {
-		return history;
+		return vista;
+	}
+
+	/**
+     * Vista de solo lectura del historial que toma el cerrojo del grafo en cada acceso.
+     */
+	private final class Vista extends AbstractList<T> implements RandomAccess {
+		@Override
+		public T get(int index) {
+			lock.lock();
+			try {
+				return history.get(index);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		@Override
+		public int size() {
+			lock.lock();
+			try {
+				return history.size();
+			} finally {
+				lock.unlock();
+			}
+		}
 	}
 }
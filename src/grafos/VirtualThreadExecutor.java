@@ -0,0 +1,116 @@
+package grafos;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Ejecutor que lanza cada ejecución de un grafo en su propio hilo virtual, pensado para
+ * flujos cuyos nodos se bloquean en operaciones de entrada/salida.
+ *
+ * Limita el número de ejecuciones en curso: cuando se alcanza el máximo, quien envía una
+ * nueva ejecución se bloquea hasta que termine alguna de las anteriores, lo que aplica
+ * contrapresión al productor. Puede usarse directamente o como ejecutor de
+ * {@link Graph#runAll(java.util.Collection, Executor)}.
+ *
+ * Los subgrafos de los NodeG se ejecutan de forma síncrona en el mismo hilo virtual que el
+ * grafo que los contiene, por lo que no consumen permisos adicionales.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class VirtualThreadExecutor implements Executor, AutoCloseable {
+	private final ExecutorService hilos;
+	private final Semaphore permisos;
+
+	/**
+     * Constructor del ejecutor.
+     *
+     * @param maxEnCurso Número máximo de ejecuciones simultáneas.
+     */
+	public VirtualThreadExecutor(int maxEnCurso) {
+		if (maxEnCurso <= 0) {
+			throw new IllegalArgumentException("El máximo de ejecuciones en curso debe ser positivo: " + maxEnCurso);
+		}
+		this.hilos = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("graph-vt-", 0).factory());
+		this.permisos = new Semaphore(maxEnCurso);
+	}
+
+	/**
+     * Lanza una tarea en un nuevo hilo virtual, esperando antes a que haya hueco si se ha
+     * alcanzado el máximo de ejecuciones en curso.
+     *
+     * @param tarea Tarea a ejecutar.
+     * @throws RejectedExecutionException Si el ejecutor está cerrado o el hilo es interrumpido mientras espera.
+     */
+	@Override
+	public void execute(Runnable tarea) {
+		try {
+			permisos.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RejectedExecutionException("Interrumpido esperando hueco para ejecutar", e);
+		}
+		try {
+			hilos.execute(() -> {
+				try {
+					tarea.run();
+				} finally {
+					permisos.release();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			permisos.release();
+			throw e;
+		}
+	}
+
+	/**
+     * Ejecuta un grafo con una entrada en un hilo virtual, sin trazado.
+     *
+     * @param <T> Tipo de dato que procesa el grafo.
+     * @param graph Grafo a ejecutar.
+     * @param input Dato de entrada.
+     * @return Futuro con el resultado de la ejecución.
+     */
+	public <T> Future<T> submit(Graph<T> graph, T input) {
+		return CompletableFuture.supplyAsync(() -> graph.run(input, false), this);
+	}
+
+	/**
+     * Ejecuta un grafo con una entrada en un hilo virtual y espera a su resultado.
+     *
+     * @param <T> Tipo de dato que procesa el grafo.
+     * @param graph Grafo a ejecutar.
+     * @param input Dato de entrada.
+     * @return Resultado de la ejecución.
+     * @throws InterruptedException Si el hilo que espera es interrumpido.
+     * @throws ExecutionException Si la ejecución del grafo lanza una excepción.
+     */
+	public <T> T run(Graph<T> graph, T input) throws InterruptedException, ExecutionException {
+		return submit(graph, input).get();
+	}
+
+	/**
+     * Obtiene el número de ejecuciones que todavía pueden lanzarse sin esperar.
+     *
+     * @return Permisos disponibles.
+     */
+	public int available() {
+		return permisos.availablePermits();
+	}
+
+	/**
+     * Cierra el ejecutor esperando a que terminen las ejecuciones en curso.
+     */
+	@Override
+	public void close() {
+		hilos.close();
+	}
+}
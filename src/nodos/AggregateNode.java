@@ -0,0 +1,43 @@
+package nodos;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import agregados.Aggregate;
+
+/**
+ * Nodo de un StreamingStateGraph que escribe el valor de un agregado incremental en el último
+ * evento del historial. El agregado se mantiene actualizado con cada evento que entra o sale
+ * del historial, así que el nodo no recorre el historial y su coste no depende de su tamaño.
+ * 
+ * @param <T> Tipo de los eventos.
+ * @param <R> Tipo del resultado del agregado.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class AggregateNode<T, R> extends Node<List<T>> {
+	private final Aggregate<? super T, R> aggregate;
+
+	/**
+     * Constructor del nodo.
+     * 
+     * @param nombre Nombre identificador del nodo.
+     * @param aggregate Agregado registrado en el historial del grafo.
+     * @param salida Función que guarda el resultado del agregado en el último evento.
+     */
+	public AggregateNode(String nombre, Aggregate<? super T, R> aggregate, BiConsumer<? super T, ? super R> salida) {
+		super(nombre, (List<T> eventos) -> salida.accept(eventos.getLast(), aggregate.result()));
+		this.aggregate = aggregate;
+	}
+
+	/**
+     * Obtiene el agregado del nodo.
+     * 
+     * @return Agregado incremental.
+     */
+	public Aggregate<? super T, R> getAggregate() {
+		return aggregate;
+	}
+}
@@ -60,6 +60,14 @@ public interface ComponentNode<S> {
      */
     void addNextNode(ComponentNode<S> node);
 
+    /**
+     * Quita un nodo de los siguientes, junto con la condición de la transición.
+     *
+     * @param node Nodo a quitar.
+     * @return true si el nodo estaba entre los siguientes.
+     */
+    boolean removeNextNode(ComponentNode<S> node);
+
     /**
      * Añade una condición para ejecutar la transición hacia un nodo específico.
      *
@@ -75,4 +83,40 @@ public interface ComponentNode<S> {
      * @return Condición asociada (puede ser null).
      */
     Predicate<S> getCondition(String node);
+
+    /**
+     * Ejecuta el nodo y lo repite mientras se cumpla la condición de su arista sobre sí mismo.
+     * El plan de ejecución lo usa para los bucles de un solo nodo; por defecto equivale a
+     * llamar a {@link #execute(Object, boolean)} en cada vuelta, y los decoradores pueden
+     * sobrescribirlo para tratar el bucle completo como una sola ejecución.
+     *
+     * @param input Dato de entrada a procesar.
+     * @param condicion Condición de la arista del nodo hacia sí mismo.
+     * @param debug Si es true, se puede imprimir información de depuración.
+     * @return El mismo objeto de entrada, posiblemente modificado.
+     */
+    default S executeLoop(S input, Predicate<S> condicion, boolean debug) {
+        do {
+            execute(input, debug);
+        } while (condicion.test(input));
+        return input;
+    }
+
+    /**
+     * Devuelve el nodo como bifurcación, atravesando los decoradores que lo envuelvan.
+     *
+     * @return El ForkNode, o null si el nodo no es una bifurcación.
+     */
+    default ForkNode<S> asFork() {
+        return null;
+    }
+
+    /**
+     * Devuelve el nodo como unión de ramas, atravesando los decoradores que lo envuelvan.
+     *
+     * @return El JoinNode, o null si el nodo no es una unión.
+     */
+    default JoinNode<S> asJoin() {
+        return null;
+    }
 }
\ No newline at end of file
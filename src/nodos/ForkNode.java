@@ -0,0 +1,77 @@
+package nodos;
+
+import java.util.concurrent.Executor;
+import java.util.function.UnaryOperator;
+
+/**
+ * Nodo que abre ramas paralelas. Al ejecutarse, el grafo sigue todas sus aristas de salida
+ * cuya condición se cumple (no solo la primera), y ejecuta cada rama en el ejecutor indicado
+ * sobre su propia copia del dato, hasta llegar al {@link JoinNode} asociado. Allí se combinan
+ * los resultados de las ramas y el flujo continúa con un único dato.
+ * 
+ * La copia de cada rama la hace una función de copia: normalmente clone(), pero puede
+ * devolver también una vista sobre una parte independiente del estado (estado particionado).
+ * 
+ * @param <S> Tipo de dato sobre el cual opera el nodo.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class ForkNode<S> extends Node<S> {
+	private final String join;
+	private final Executor executor;
+	private final UnaryOperator<S> copia;
+
+	/**
+     * Constructor del nodo de bifurcación.
+     * 
+     * @param nombre Nombre identificador del nodo.
+     * @param join Nombre del JoinNode en el que terminan las ramas.
+     * @param executor Ejecutor en el que se lanzan las ramas.
+     * @param copia Función que crea el dato de cada rama a partir del dato de entrada.
+     */
+	public ForkNode(String nombre, String join, Executor executor, UnaryOperator<S> copia) {
+		super(nombre, (S data) -> {});
+		this.join = join;
+		this.executor = executor;
+		this.copia = copia;
+	}
+
+	/**
+     * Obtiene el nombre del nodo en el que se unen las ramas.
+     * 
+     * @return Nombre del JoinNode.
+     */
+	public String getJoin() {
+		return join;
+	}
+
+	/**
+     * Obtiene el ejecutor de las ramas.
+     * 
+     * @return Ejecutor.
+     */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+     * Obtiene la función que crea el dato de cada rama.
+     * 
+     * @return Función de copia.
+     */
+	public UnaryOperator<S> getCopia() {
+		return copia;
+	}
+
+	@Override
+	public ForkNode<S> asFork() {
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "Fork " + getNombre() + " (" + getNextNodes().size() + " branches, join " + join + ")";
+	}
+}
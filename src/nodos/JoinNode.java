@@ -0,0 +1,51 @@
+package nodos;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Nodo en el que terminan las ramas abiertas por un {@link ForkNode}. Antes de ejecutarlo,
+ * el grafo pasa al combinador el dato original y los resultados de las ramas, en el orden de
+ * las aristas del ForkNode, para que los incorpore al dato original. Después el nodo se
+ * ejecuta como cualquier otro y el flujo sigue por sus aristas de salida.
+ * 
+ * @param <S> Tipo de dato sobre el cual opera el nodo.
+ * 
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class JoinNode<S> extends Node<S> {
+	private final BiConsumer<S, List<S>> combinador;
+
+	/**
+     * Constructor del nodo de unión.
+     * 
+     * @param nombre Nombre identificador del nodo.
+     * @param combinador Función que incorpora al dato original los resultados de las ramas.
+     */
+	public JoinNode(String nombre, BiConsumer<S, List<S>> combinador) {
+		super(nombre, (S data) -> {});
+		this.combinador = combinador;
+	}
+
+	/**
+     * Combina los resultados de las ramas con el dato original.
+     * 
+     * @param data Dato que llegó al ForkNode.
+     * @param ramas Resultados de las ramas.
+     */
+	public void combine(S data, List<S> ramas) {
+		combinador.accept(data, ramas);
+	}
+
+	@Override
+	public JoinNode<S> asJoin() {
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "Join " + getNombre() + " (" + getNextNodes().size() + " output nodes)";
+	}
+}
@@ -1,8 +1,10 @@
 package nodos;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -24,8 +26,11 @@ import java.util.function.Predicate;
  */
 public class Node<S> implements ComponentNode<S>{
 	private String nombre;
-	private List<ComponentNode<S>> nextNodes = new LinkedList<>();
-	private HashMap<String, Predicate<S>> condExecutes = new HashMap<>();
+	private static final int UMBRAL_CONJUNTO = 8;
+	
+	private List<ComponentNode<S>> nextNodes = new ArrayList<>();
+	private Set<ComponentNode<S>> conjuntoNext;
+	private HashMap<String, Predicate<S>> condExecutes;
 	private Consumer<S> codigo;
 	
 	/**
@@ -82,13 +87,40 @@ public class Node<S> implements ComponentNode<S>{
 	
 	/**
      * Añade un nodo como siguiente en el flujo de ejecución desde este nodo.
+     * Si ya estaba no se añade de nuevo. Con pocos siguientes se comprueba recorriendo la
+     * lista; a partir de {@value #UMBRAL_CONJUNTO} se usa un conjunto, de forma que el coste no
+     * depende del número de nodos siguientes y los nodos con pocas salidas no lo reservan.
      * 
      * @param node Nodo a añadir como siguiente.
      */
 	@Override
 	public void addNextNode(ComponentNode<S> node) {
-		if(nextNodes.contains(node)) { return; }
+		if(contiene(node)) { return; }
 		this.nextNodes.add(node);
+		if(conjuntoNext != null) {
+			conjuntoNext.add(node);
+		} else if(nextNodes.size() > UMBRAL_CONJUNTO) {
+			conjuntoNext = new HashSet<>(nextNodes);
+		}
+	}
+	
+	private boolean contiene(ComponentNode<S> node) {
+		return conjuntoNext != null ? conjuntoNext.contains(node) : nextNodes.contains(node);
+	}
+	
+	/**
+     * Quita un nodo de los siguientes de este nodo, junto con la condición de la transición.
+     * 
+     * @param node Nodo a quitar.
+     * @return true si el nodo estaba entre los siguientes.
+     */
+	@Override
+	public boolean removeNextNode(ComponentNode<S> node) {
+		if(!contiene(node)) { return false; }
+		this.nextNodes.remove(node);
+		if(conjuntoNext != null) { conjuntoNext.remove(node); }
+		if(condExecutes != null) { condExecutes.remove(node.getNombre()); }
+		return true;
 	}
 	
 	/**
@@ -99,6 +131,10 @@ public class Node<S> implements ComponentNode<S>{
      */
 	@Override
 	public void addCondition(String node, Predicate<S> condExecute) {
+		if(condExecutes == null) {
+			if(condExecute == null) { return; }
+			condExecutes = new HashMap<>();
+		}
 		this.condExecutes.put(node, condExecute);
 	}
 	
@@ -110,7 +146,7 @@ public class Node<S> implements ComponentNode<S>{
      */
 	@Override
 	public Predicate<S> getCondition(String node) {
-		return this.condExecutes.get(node) ;
+		return condExecutes == null ? null : condExecutes.get(node);
 	}
 	
 	/**
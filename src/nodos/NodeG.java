@@ -1,8 +1,12 @@
 package nodos;
 
+import java.time.Duration;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 
+import cache.CacheStats;
+import cache.ResultCache;
+import datos.Snapshottable;
 import grafos.StateGraph;
 
 /**
@@ -13,6 +17,13 @@ import grafos.StateGraph;
  * Utiliza funciones de inyección y extracción para transformar los datos entre el tipo
  * del grafo principal y el tipo del subgrafo, facilitando la integración entre diferentes tipos.
  * 
+ * El subgrafo se ejecuta de forma síncrona en el mismo hilo que el grafo principal, ya sea
+ * un hilo de plataforma o uno virtual.
+ * 
+ * Opcionalmente ({@link #withCache(int)}) el nodo guarda la salida del subgrafo para cada
+ * entrada inyectada, de modo que las entradas repetidas no vuelven a ejecutarlo. Los aciertos
+ * no muestran el trazado del subgrafo.
+ * 
  * @param <S> Tipo de dato del grafo principal (contenedor).
  * @param <V> Tipo de dato del grafo encapsulado (interno).
  * 
@@ -24,6 +35,8 @@ public class NodeG<S, V> extends Node<S>{
 	private StateGraph<V> graph;
 	private Function<S, V> inyectorGenerico;
 	private BiConsumer<V, S> extractorGenerico;
+	private Function<? super V, ?> claveCache;
+	private ResultCache<Object, V> cache;
 
 	/**
      * Constructor de la clase NodeG.
@@ -47,10 +60,65 @@ public class NodeG<S, V> extends Node<S>{
 	@Override
 	public S execute(S input, boolean debug) {
 		V dataReturn;
-		dataReturn = graph.run(getInjector().apply(input), debug);
+		V subInput = getInjector().apply(input);
+		if (cache == null) {
+			dataReturn = graph.run(subInput, debug);
+		} else {
+			Object clave = claveCache.apply(subInput);
+			dataReturn = cache.get(clave);
+			if (dataReturn == null) {
+				dataReturn = graph.run(subInput, debug);
+				if (dataReturn != null) cache.put(clave, dataReturn);
+			}
+		}
 		getExtractor().accept(dataReturn, input);
 		return input;
 	}
+
+	/**
+     * Activa la caché de salidas del subgrafo, usando como clave la propia entrada inyectada.
+     * Como el subgrafo modifica su entrada, la clave es una instantánea si la entrada es
+     * Snapshottable; si no, debe usarse {@link #withCache(Function, int, Duration)}.
+     * La entrada inyectada debe implementar equals y hashCode.
+     * 
+     * @param maxEntradas Número máximo de salidas guardadas.
+     * @return Referencia a este nodo para permitir llamadas encadenadas.
+     */
+	public NodeG<S, V> withCache(int maxEntradas) {
+		return withCache(NodeG::copiaClave, maxEntradas, null);
+	}
+
+	/**
+     * Activa la caché de salidas del subgrafo con una clave calculada a partir de la entrada
+     * inyectada, antes de ejecutar el subgrafo. Las salidas guardadas se comparten entre
+     * ejecuciones, así que el extractor no debe modificarlas.
+     * 
+     * @param clave Función que obtiene la clave de la entrada inyectada.
+     * @param maxEntradas Número máximo de salidas guardadas.
+     * @param ttl Tiempo de vida de cada salida (null si no caducan).
+     * @return Referencia a este nodo para permitir llamadas encadenadas.
+     */
+	public NodeG<S, V> withCache(Function<? super V, ?> clave, int maxEntradas, Duration ttl) {
+		this.claveCache = clave;
+		this.cache = new ResultCache<>(maxEntradas, ttl);
+		return this;
+	}
+
+	/**
+     * Obtiene los contadores de la caché de salidas del subgrafo.
+     * 
+     * @return Aciertos, fallos, descartes y tamaño, o null si la caché no está activada.
+     */
+	public CacheStats getCacheStats() {
+		return cache == null ? null : cache.stats();
+	}
+
+	/**
+     * Copia la entrada inyectada para usarla como clave, si es posible.
+     */
+	private static Object copiaClave(Object v) {
+		return v instanceof Snapshottable<?> c ? c.snapshot() : v;
+	}
 	
 	/**
      * Define la función inyectora que transforma el dato del grafo principal al tipo del subgrafo.
@@ -0,0 +1,124 @@
+package testers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import datos.NumericData;
+import decoradores.AsyncLogWriter;
+import decoradores.StateGraphLogger;
+import grafos.StateGraph;
+
+/**
+ * Tester de las garantías del escritor de logs asíncrono.
+ *
+ * Comprueba que flush deja en el fichero todo lo escrito, que cada close de un escritor
+ * compartido vuelca lo pendiente aunque no sea el último (dos StateGraphLogger sobre el
+ * mismo fichero), que con el buffer lleno la política DROP cuenta los descartes y BLOCK no
+ * pierde registros, y que los registros mayores que el buffer se escriben en orden.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class AsyncLogWriterTester {
+	private static final int REGISTROS = 10_000;
+
+	/**
+     * Método principal que lanza las comprobaciones.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) throws IOException {
+		comprobarFlush();
+		comprobarCloseCompartido();
+		comprobarDesbordamiento(AsyncLogWriter.OverflowPolicy.DROP);
+		comprobarDesbordamiento(AsyncLogWriter.OverflowPolicy.BLOCK);
+		comprobarRegistroGrande();
+	}
+
+	private static void comprobarFlush() throws IOException {
+		Path fichero = temporal();
+		try (AsyncLogWriter writer = new AsyncLogWriter(fichero.toString())) {
+			for (int i = 0; i < 10; i++) {
+				writer.write("linea " + i + "\n");
+			}
+			writer.flush();
+			informar("flush", lineas(fichero), 10);
+		}
+	}
+
+	private static void comprobarCloseCompartido() throws IOException {
+		Path fichero = temporal();
+		StateGraphLogger<NumericData> primero = loopDown(new StateGraph<>("primero", ""), fichero);
+		StateGraphLogger<NumericData> segundo = loopDown(new StateGraph<>("segundo", ""), fichero);
+		primero.run(new NumericData(3, 0), false);
+		segundo.run(new NumericData(3, 0), false);
+		long tras2 = lineas(fichero);
+		primero.close();
+		long tras1 = lineas(fichero);
+		segundo.run(new NumericData(2, 0), false);
+		segundo.close();
+		System.out.println("close compartido: " + tras2 + " líneas antes de cerrar, " + tras1
+				+ " tras el primer close, " + lineas(fichero) + " tras el segundo");
+		informar("close del primer logger", tras1, 6);
+		informar("close del último logger", lineas(fichero), 8);
+	}
+
+	private static void comprobarDesbordamiento(AsyncLogWriter.OverflowPolicy policy) throws IOException {
+		Path fichero = temporal();
+		long aceptados = 0;
+		long descartados;
+		try (AsyncLogWriter writer = new AsyncLogWriter(fichero.toString(), 256, 128, 1000, policy, false)) {
+			for (int i = 0; i < REGISTROS; i++) {
+				if (writer.write(String.format("registro %05d%n", i))) aceptados++;
+			}
+			descartados = writer.dropped();
+		}
+		System.out.println(policy + ": " + aceptados + " aceptados, " + descartados + " descartados");
+		informar(policy + " (aceptados + descartados)", aceptados + descartados, REGISTROS);
+		informar(policy + " (líneas en el fichero)", lineas(fichero), aceptados);
+	}
+
+	private static void comprobarRegistroGrande() throws IOException {
+		Path fichero = temporal();
+		try (AsyncLogWriter writer = new AsyncLogWriter(fichero.toString(), 64, 32, 1000,
+				AsyncLogWriter.OverflowPolicy.BLOCK, false)) {
+			writer.write("antes\n");
+			writer.write("x".repeat(1000) + "\n");
+			writer.write("después\n");
+		}
+		var contenido = Files.readAllLines(fichero);
+		boolean enOrden = contenido.size() == 3 && contenido.get(0).equals("antes")
+				&& contenido.get(1).length() == 1000 && contenido.get(2).equals("después");
+		System.out.println("Registro mayor que el buffer: " + (enOrden ? "OK" : "ERROR " + contenido.size() + " líneas"));
+	}
+
+	/**
+     * Construye el flujo loop-down de MainAp5 con un logger sobre un fichero compartido.
+     */
+	private static StateGraphLogger<NumericData> loopDown(StateGraph<NumericData> g, Path fichero) {
+		StateGraphLogger<NumericData> lg = new StateGraphLogger<>(g, fichero.toString());
+		lg.addNode("decrease", (NumericData mo) -> mo.put("op1", mo.get("op1") - 1))
+		  .addConditionalEdge("decrease", "decrease", (NumericData mo) -> mo.get("op1") > 0)
+		  .setInitial("decrease");
+		return lg;
+	}
+
+	private static Path temporal() throws IOException {
+		File f = File.createTempFile("async-log", ".txt");
+		f.deleteOnExit();
+		return f.toPath();
+	}
+
+	private static long lineas(Path fichero) throws IOException {
+		try (var lineas = Files.lines(fichero)) {
+			return lineas.count();
+		}
+	}
+
+	private static void informar(String prueba, long obtenido, long esperado) {
+		System.out.println(prueba + ": " + obtenido + (obtenido == esperado ? " (OK)" : " (ERROR, esperado " + esperado + ")"));
+	}
+}
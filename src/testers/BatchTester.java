@@ -0,0 +1,80 @@
+package testers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import datos.NumericData;
+import decoradores.StateGraphProfiler;
+import grafos.StateGraph;
+
+/**
+ * Tester de la ejecución por lotes (runAll) de un grafo decorado con profiling.
+ *
+ * Ejecuta un lote de entradas NumericData en un ForkJoinPool y en un pool de hilos fijo,
+ * comprueba que los resultados llegan en el orden de las entradas y que el profiler
+ * registra todas las ejecuciones, y prueba también la entrega sin orden.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class BatchTester {
+	/**
+     * Método principal que lanza las ejecuciones por lotes.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) {
+		StateGraph<NumericData> base = new StateGraph<>("math1", "Add two numbers, and square if even");
+		StateGraphProfiler<NumericData> sg = new StateGraphProfiler<>(base);
+		sg.addNode("sum", (NumericData mo) -> mo.put("result", mo.get("op1") + mo.get("op2")))
+		  .addNode("square", (NumericData mo) -> mo.put("result", mo.get("result") * mo.get("result")));
+		sg.addConditionalEdge("sum", "square", (NumericData mo) -> mo.get("result") % 2 == 0);
+		sg.setInitial("sum");
+		sg.setFinal("square");
+		sg.seal();
+
+		List<NumericData> inputs = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			inputs.add(new NumericData(i, 1));
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		List<NumericData> ordenados = sg.runAll(inputs, pool);
+		System.out.println("ForkJoinPool: " + ordenados.size() + " resultados, en orden = " + enOrden(ordenados)
+				+ ", primeros = " + ordenados.subList(0, 3));
+		pool.shutdown();
+
+		ExecutorService fijo = Executors.newFixedThreadPool(4);
+		List<NumericData> otros = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			otros.add(new NumericData(i, 1));
+		}
+		System.out.println("FixedThreadPool: en orden = " + enOrden(sg.runAll(otros, fijo)));
+
+		AtomicInteger recibidos = new AtomicInteger();
+		List<NumericData> sinOrden = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			sinOrden.add(new NumericData(i, 1));
+		}
+		sg.runAllUnordered(sinOrden.spliterator(), fijo, r -> recibidos.incrementAndGet());
+		System.out.println("Sin orden: recibidos " + recibidos.get() + " resultados");
+		fijo.shutdown();
+
+		System.out.println("Trazas del profiler = " + sg.history().size());
+	}
+
+	/**
+     * Comprueba que cada resultado corresponde a la entrada de su posición.
+     */
+	private static boolean enOrden(List<NumericData> resultados) {
+		for (int i = 0; i < resultados.size(); i++) {
+			if (resultados.get(i).get("op1") != i) return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,137 @@
+package testers;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import checkpoint.Codecs;
+import checkpoint.StateCodec;
+import datos.NumericData;
+import decoradores.AsyncLogWriter;
+import decoradores.BinaryTraceReader;
+import decoradores.BinaryTraceWriter;
+import decoradores.StateGraphLogger;
+import decoradores.StateGraphProfiler;
+import decoradores.TraceRecord;
+import grafos.Graph;
+import grafos.StateGraph;
+
+/**
+ * Tester del formato binario de trazas.
+ *
+ * Ejecuta el flujo loop-down de MainAp5 registrando la traza en un fichero binario (desde el
+ * logger y desde el profiler), la lee de nuevo y la convierte al formato de texto. Después
+ * compara, sobre un bucle largo, el tiempo de escritura, el tamaño del fichero y el tiempo de
+ * lectura de la traza de texto y de la binaria (con las salidas como texto, serializadas con
+ * un StateCodec y sin salidas), y convierte a texto la traza serializada.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class BinaryTraceTester {
+	private static final int VUELTAS = 1_000_000;
+
+	/**
+     * Método principal que lanza las comprobaciones.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) throws IOException {
+		Path bin = Files.createTempFile("traces", ".bin");
+		Path txt = Files.createTempFile("traces", ".txt");
+		bin.toFile().deleteOnExit();
+		txt.toFile().deleteOnExit();
+
+		BinaryTraceWriter trazas = new BinaryTraceWriter(bin);
+		StateGraphLogger<NumericData> lg = new StateGraphLogger<>(new StateGraph<>("loop-down", "Get a number, and decrease if positive"), trazas);
+		StateGraphProfiler<NumericData> sg = new StateGraphProfiler<>(lg).traceTo(trazas);
+		decrease(sg);
+		System.out.println("result = " + sg.run(new NumericData(3, 0), false));
+
+		try (BinaryTraceReader reader = new BinaryTraceReader(bin)) {
+			System.out.println("Leído sin cerrar el escritor: " + reader.readAll().size() + " registros");
+		}
+		lg.close();
+		try (BinaryTraceReader reader = new BinaryTraceReader(bin)) {
+			for (TraceRecord r : reader) {
+				System.out.println("run " + r.runId() + ", paso " + r.paso() + ": " + r.nodo()
+						+ (r.perfilado() ? " (profiler) input " : " (logger) output ") + r.contenido());
+			}
+			StringWriter texto = new StringWriter();
+			reader.toText(texto);
+			System.out.print(texto);
+		}
+
+		System.out.println("\nBucle de " + VUELTAS + " pasos:");
+		Files.deleteIfExists(txt);
+		long t0 = System.nanoTime();
+		try (AsyncLogWriter writer = new AsyncLogWriter(txt.toString())) {
+			bucle(new StateGraphLogger<>(new StateGraph<>("loop-down", ""), writer));
+		}
+		long t1 = System.nanoTime();
+		long lineas;
+		try (Stream<String> s = Files.lines(txt)) {
+			lineas = s.count();
+		}
+		long t2 = System.nanoTime();
+		informe("texto", Files.size(txt), t1 - t0, t2 - t1, lineas);
+
+		for (String formato : new String[] {"binario (texto)", "binario (codec)", "binario (sin salidas)"}) {
+			StateCodec<NumericData> codec = formato.endsWith("(codec)") ? Codecs.numericData() : null;
+			t0 = System.nanoTime();
+			try (BinaryTraceWriter w = codec != null ? new BinaryTraceWriter(bin, codec)
+					: new BinaryTraceWriter(bin, formato.endsWith("(texto)"))) {
+				bucle(new StateGraphLogger<>(new StateGraph<>("loop-down", ""), w));
+			}
+			t1 = System.nanoTime();
+			long registros;
+			try (BinaryTraceReader reader = new BinaryTraceReader(bin, codec)) {
+				registros = reader.readAll().size();
+			}
+			t2 = System.nanoTime();
+			informe(formato, Files.size(bin), t1 - t0, t2 - t1, registros);
+			if (codec != null) {
+				t0 = System.nanoTime();
+				BinaryTraceReader.convert(bin, txt, codec);
+				System.out.printf("Conversión a texto: %.0f ms, %s%n", (System.nanoTime() - t0) / 1e6, ultimaLinea(txt));
+			}
+		}
+	}
+
+	/**
+     * Obtiene la última línea de un fichero de texto.
+     */
+	private static String ultimaLinea(Path fichero) throws IOException {
+		try (Stream<String> s = Files.lines(fichero)) {
+			return s.reduce((a, b) -> b).orElse("");
+		}
+	}
+
+	/**
+     * Añade al grafo el nodo decrease de MainAp5, con su bucle sobre sí mismo.
+     */
+	private static void decrease(Graph<NumericData> sg) {
+		sg.addNode("decrease", (NumericData mo) -> mo.put("op1", mo.get("op1") - 1))
+		  .addConditionalEdge("decrease", "decrease", (NumericData mo) -> mo.get("op1") > 0)
+		  .setInitial("decrease");
+	}
+
+	/**
+     * Ejecuta el bucle loop-down de VUELTAS pasos sobre un grafo con logger.
+     */
+	private static void bucle(StateGraphLogger<NumericData> lg) {
+		decrease(lg);
+		lg.run(new NumericData(VUELTAS, 0), false);
+	}
+
+	/**
+     * Imprime el tamaño y los tiempos de escritura y lectura de una traza.
+     */
+	private static void informe(String formato, long bytes, long escritura, long lectura, long registros) {
+		System.out.printf("%-22s %7.1f MB, escritura %5.0f ms, lectura %5.0f ms (%d registros)%n",
+				formato + ":", bytes / 1e6, escritura / 1e6, lectura / 1e6, registros);
+	}
+}
@@ -0,0 +1,160 @@
+package testers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import checkpoint.CheckpointPolicy;
+import checkpoint.CheckpointStore;
+import checkpoint.Codecs;
+import checkpoint.StateCodec;
+import datos.NumericData;
+import grafos.StateGraph;
+
+/**
+ * Tester de los puntos de control y la reanudación de ejecuciones.
+ *
+ * Mide el coste de los puntos de control sobre el bucle loop-down de MainAp5. Después lo
+ * interrumpe con una excepción a mitad de ejecución (como si la JVM muriera), vuelve a abrir
+ * el fichero de puntos de control y reanuda la ejecución, comprobando que el resultado es el
+ * de una ejecución sin interrupciones. Por último comprueba que con una política por tiempo
+ * los puntos de control siguen llegando a tiempo cuando los pasos se vuelven más lentos.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class CheckpointTester {
+	private static final int VUELTAS = 2_000_000;
+	private static final int FALLO = 1_234_567;
+	private static final int REPETICIONES = 41;
+	private static final int CALENTAMIENTO = 20;
+	private static final int INTERVALO = 50;
+	private static final int PASO_RAPIDO = 5;
+	private static final int PASO_LENTO = 25;
+	private static final int RAPIDOS = 40_000;
+	private static final int LENTOS = 16_000;
+
+	private static boolean fallar;
+
+	/**
+     * Método principal que lanza las comprobaciones.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) throws IOException {
+		Path fichero = Files.createTempFile("loop-down", ".ckpt");
+		fichero.toFile().deleteOnExit();
+		CheckpointPolicy policy = CheckpointPolicy.every(100_000, Duration.ofMillis(100));
+		StateGraph<NumericData> sg = buildWorkflow();
+		NumericData esperado = sg.run(new NumericData(VUELTAS, 0), false);
+
+		// El coste se mide antes de simular el fallo: la excepción desoptimizaría el bucle con
+		// puntos de control, y en un caso real la reanudación ocurre en otra JVM
+		try (CheckpointStore<NumericData> store = CheckpointStore.open(fichero, Codecs.numericData())) {
+			long[] sin = new long[REPETICIONES];
+			long[] con = new long[REPETICIONES];
+			for (int r = -CALENTAMIENTO; r < REPETICIONES; r++) {
+				// Se alterna el orden para que ninguna variante se beneficie siempre de ir segunda
+				for (int k = 0; k < 2; k++) {
+					boolean conPuntos = (r & 1) == k;
+					long t0 = System.nanoTime();
+					if (conPuntos) {
+						sg.run(new NumericData(VUELTAS, 0), store, policy);
+					} else {
+						sg.run(new NumericData(VUELTAS, 0), false);
+					}
+					if (r >= 0) (conPuntos ? con : sin)[r] = System.nanoTime() - t0;
+				}
+			}
+			Arrays.sort(sin);
+			Arrays.sort(con);
+			double medianaSin = sin[REPETICIONES / 2] / 1e6, medianaCon = con[REPETICIONES / 2] / 1e6;
+			System.out.printf("Mediana sin puntos de control: %.1f ms, con puntos de control: %.1f ms (%+.1f%%)%n",
+					medianaSin, medianaCon, (medianaCon - medianaSin) / medianaSin * 100);
+		}
+
+		fallar = true;
+		try (CheckpointStore<NumericData> store = CheckpointStore.open(fichero, Codecs.numericData())) {
+			sg.run(new NumericData(VUELTAS, 0), store, policy);
+		} catch (IllegalStateException e) {
+			System.out.println("Ejecución interrumpida: " + e.getMessage());
+		}
+		fallar = false;
+
+		try (CheckpointStore<NumericData> store = CheckpointStore.open(fichero, Codecs.numericData())) {
+			System.out.println("Último punto de control = " + store.latest().orElseThrow());
+			NumericData reanudado = sg.resume(store, policy);
+			System.out.println("Reanudado = " + reanudado + ", esperado = " + esperado
+					+ (reanudado.equals(esperado) ? " (OK)" : " (ERROR)"));
+			System.out.println("Reanudar de nuevo = " + sg.resume(store, policy) + ", " + store.latest().orElseThrow());
+		}
+
+		comprobarRitmo(fichero);
+	}
+
+	/**
+     * Ejecuta un bucle cuyos pasos pasan de {@value #PASO_RAPIDO} a {@value #PASO_LENTO}
+     * microsegundos con una política de {@value #INTERVALO} ms, y mide el mayor hueco entre
+     * dos puntos de control, que no debería llegar al doble del intervalo.
+     */
+	private static void comprobarRitmo(Path fichero) throws IOException {
+		StateCodec<NumericData> codec = Codecs.numericData();
+		List<Long> guardados = new ArrayList<>();
+		StateCodec<NumericData> anotador = new StateCodec<>() {
+			@Override
+			public void encode(NumericData estado, ByteBuffer out) {
+				guardados.add(System.nanoTime());
+				codec.encode(estado, out);
+			}
+
+			@Override
+			public NumericData decode(ByteBuffer in) {
+				return codec.decode(in);
+			}
+		};
+		StateGraph<NumericData> sg = new StateGraph<>("slow-down", "Steps that become slower");
+		sg.addNode("step", (NumericData mo) -> {
+			long fin = System.nanoTime() + 1000L * (mo.get("op1") > LENTOS ? PASO_RAPIDO : PASO_LENTO);
+			while (System.nanoTime() < fin) {
+				Thread.onSpinWait();
+			}
+			mo.put("op1", mo.get("op1") - 1);
+		  })
+		  .addConditionalEdge("step", "step", (NumericData mo) -> mo.get("op1") > 0)
+		  .setInitial("step");
+		try (CheckpointStore<NumericData> store = CheckpointStore.open(fichero, anotador)) {
+			store.reset();
+			long inicio = System.nanoTime();
+			sg.run(new NumericData(RAPIDOS + LENTOS, 0), store, CheckpointPolicy.every(Duration.ofMillis(INTERVALO)));
+			long hueco = 0, anterior = inicio;
+			for (long t : guardados) {
+				hueco = Math.max(hueco, t - anterior);
+				anterior = t;
+			}
+			System.out.printf("Pasos %d -> %d us, %d puntos de control, mayor hueco %.1f ms (intervalo %d ms)%s%n",
+					PASO_RAPIDO, PASO_LENTO, guardados.size(), hueco / 1e6, INTERVALO,
+					hueco < 2_000_000L * INTERVALO ? " (OK)" : " (ERROR)");
+		}
+	}
+
+	/**
+     * Construye el flujo loop-down de MainAp5, que falla una vez en la vuelta FALLO si se pide.
+     */
+	private static StateGraph<NumericData> buildWorkflow() {
+		StateGraph<NumericData> sg = new StateGraph<>("loop-down", "Get a number, and decrease if positive");
+		sg.addNode("decrease", (NumericData mo) -> {
+			if (fallar && mo.get("op1") == FALLO) throw new IllegalStateException("fallo simulado con op1 = " + FALLO);
+			mo.put("op1", mo.get("op1") - 1);
+			mo.put("result", mo.get("result") + 1);
+		  })
+		  .addConditionalEdge("decrease", "decrease", (NumericData mo) -> mo.get("op1") > 0)
+		  .setInitial("decrease");
+		return sg;
+	}
+}
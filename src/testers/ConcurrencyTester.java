@@ -0,0 +1,180 @@
+package testers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+import datos.NumericData;
+import decoradores.NodeProfiler;
+import decoradores.StateGraphProfiler;
+import decoradores.Timeline;
+import decoradores.Trace;
+import grafos.StateGraph;
+import nodos.Node;
+
+/**
+ * Prueba de estrés de la ejecución concurrente de un StateGraph sellado.
+ *
+ * Primero comprueba que un grafo con profiling registra exactamente una traza por paso
+ * aunque se ejecute desde varios hilos, y que dos nodos que comparten línea temporal
+ * devuelven cada uno solo sus trazas y en orden. Después mide el rendimiento (ejecuciones por
+ * segundo) de un grafo con un bucle intensivo en CPU con 1, 2, 4... hasta tantos hilos
+ * como núcleos haya, mostrando la aceleración respecto a un único hilo.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class ConcurrencyTester {
+	private static final int VUELTAS = 2_000;
+	private static final long DURACION_MS = 1_000;
+
+	/**
+     * Método principal que lanza la comprobación y la medición de escalabilidad.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) throws InterruptedException {
+		comprobarProfiler();
+		comprobarTrazasPorNodo();
+
+		StateGraph<NumericData> sg = buildWorkflow();
+		sg.seal();
+
+		int nucleos = Runtime.getRuntime().availableProcessors();
+		medir(sg, 1, DURACION_MS); // calentamiento
+		double base = 0;
+		// 1, 2, 4... y por último todos los núcleos, aunque no sean potencia de 2
+		for (int hilos = 1; hilos <= nucleos; hilos = hilos == nucleos ? nucleos + 1 : Math.min(hilos * 2, nucleos)) {
+			double ops = medir(sg, hilos, DURACION_MS);
+			if (hilos == 1) base = ops;
+			System.out.printf("%2d hilos: %,12.0f runs/s  (x%.2f)%n", hilos, ops, ops / base);
+		}
+	}
+
+	/**
+     * Construye un flujo que decrementa op1 hasta 0 acumulando en result.
+     *
+     * @return Grafo configurado.
+     */
+	private static StateGraph<NumericData> buildWorkflow() {
+		StateGraph<NumericData> sg = new StateGraph<>("cpu-loop", "Decrease op1 accumulating in result");
+		sg.addNode("decrease", (NumericData mo) -> {
+			mo.put("result", mo.get("result") * 31 + mo.get("op1"));
+			mo.put("op1", mo.get("op1") - 1);
+		}).addConditionalEdge("decrease", "decrease", (NumericData mo) -> mo.get("op1") > 0)
+		  .setInitial("decrease");
+		return sg;
+	}
+
+	/**
+     * Ejecuta un grafo con profiling desde varios hilos y comprueba el número de trazas.
+     */
+	private static void comprobarProfiler() throws InterruptedException {
+		StateGraph<NumericData> base = new StateGraph<>("profiled-loop", "Decrease op1 until 0");
+		StateGraphProfiler<NumericData> sg = new StateGraphProfiler<>(base);
+		sg.addNode("decrease", (NumericData mo) -> mo.put("op1", mo.get("op1") - 1))
+		  .addConditionalEdge("decrease", "decrease", (NumericData mo) -> mo.get("op1") > 0)
+		  .setInitial("decrease");
+		sg.seal();
+
+		int hilos = 8, runs = 500, pasos = 10;
+		List<Thread> workers = new ArrayList<>();
+		for (int h = 0; h < hilos; h++) {
+			Thread t = new Thread(() -> {
+				for (int r = 0; r < runs; r++) {
+					sg.run(new NumericData(pasos, 0), false);
+				}
+			});
+			workers.add(t);
+			t.start();
+		}
+		for (Thread t : workers) {
+			t.join();
+		}
+
+		int esperadas = hilos * runs * pasos;
+		int obtenidas = sg.history().size();
+		System.out.println("Trazas esperadas = " + esperadas + ", obtenidas = " + obtenidas
+				+ (esperadas == obtenidas ? " (OK)" : " (ERROR)"));
+		System.out.println("Estadísticas = " + sg.statistics().values());
+	}
+
+	/**
+     * Ejecuta desde varios hilos dos nodos con profiling que comparten línea temporal y
+     * comprueba que cada uno devuelve solo sus trazas, ordenadas por secuencia.
+     */
+	private static void comprobarTrazasPorNodo() throws InterruptedException {
+		Timeline<NumericData> timeline = new Timeline<>();
+		NodeProfiler<NumericData> suma = new NodeProfiler<>(new Node<>("sum", (NumericData mo) -> mo.put("result", 1)), 1, timeline);
+		NodeProfiler<NumericData> resta = new NodeProfiler<>(new Node<>("sub", (NumericData mo) -> mo.put("result", -1)), 1, timeline);
+
+		int hilos = 8, ejecuciones = 1_000;
+		List<Thread> workers = new ArrayList<>();
+		for (int h = 0; h < hilos; h++) {
+			NodeProfiler<NumericData> nodo = h % 2 == 0 ? suma : resta;
+			Thread t = new Thread(() -> {
+				for (int i = 0; i < ejecuciones; i++) {
+					nodo.execute(new NumericData(i, 0), false);
+				}
+			});
+			workers.add(t);
+			t.start();
+		}
+		for (Thread t : workers) {
+			t.join();
+		}
+
+		boolean ok = true;
+		for (NodeProfiler<NumericData> nodo : List.of(suma, resta)) {
+			List<Trace<NumericData>> trazas = nodo.getTraces();
+			ok &= trazas.size() == hilos / 2 * ejecuciones;
+			for (int i = 0; i < trazas.size(); i++) {
+				ok &= trazas.get(i).getNombreNodo().equals(nodo.getNombre());
+				ok &= i == 0 || trazas.get(i - 1).getSecuencia() < trazas.get(i).getSecuencia();
+			}
+		}
+		System.out.println("Trazas por nodo: sum = " + suma.getTraces().size() + ", sub = " + resta.getTraces().size()
+				+ " de " + timeline.all().size() + (ok ? " (OK)" : " (ERROR)"));
+	}
+
+	/**
+     * Mide cuántas ejecuciones por segundo completan varios hilos sobre el mismo grafo.
+     *
+     * @param sg Grafo sellado a ejecutar.
+     * @param hilos Número de hilos concurrentes.
+     * @param duracionMs Duración de la medición en milisegundos.
+     * @return Ejecuciones completadas por segundo.
+     */
+	private static double medir(StateGraph<NumericData> sg, int hilos, long duracionMs) throws InterruptedException {
+		LongAdder completadas = new LongAdder();
+		CountDownLatch inicio = new CountDownLatch(1);
+		List<Thread> workers = new ArrayList<>();
+		long[] fin = new long[1];
+
+		for (int h = 0; h < hilos; h++) {
+			Thread t = new Thread(() -> {
+				try {
+					inicio.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				while (System.nanoTime() < fin[0]) {
+					sg.run(new NumericData(VUELTAS, 0), false);
+					completadas.increment();
+				}
+			});
+			workers.add(t);
+			t.start();
+		}
+
+		long t0 = System.nanoTime();
+		fin[0] = t0 + duracionMs * 1_000_000;
+		inicio.countDown();
+		for (Thread t : workers) {
+			t.join();
+		}
+		return completadas.sum() / ((System.nanoTime() - t0) / 1e9);
+	}
+}
@@ -0,0 +1,101 @@
+package testers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import datos.NumericData;
+import grafos.ConsoleTraceListener;
+import grafos.ExecutionListener;
+import grafos.StateGraph;
+
+/**
+ * Tester de los observadores de ejecución.
+ *
+ * Cuenta los nodos y las transiciones de un flujo con un observador propio, traza varias
+ * ejecuciones concurrentes con el trazado por ejecución (cada una aparece completa, sin
+ * mezclarse con las demás) y compara el tiempo de ejecución sin observadores y con un
+ * observador vacío.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class ExecutionListenerTester {
+	private static final int RUNS = 200_000;
+
+	/**
+	 * Observador que cuenta nodos y transiciones.
+	 */
+	private static class Contador implements ExecutionListener<Object> {
+		final LongAdder nodos = new LongAdder();
+		final LongAdder transiciones = new LongAdder();
+
+		@Override
+		public void nodeFinished(String grafo, String nodo, Object data) {
+			nodos.increment();
+		}
+
+		@Override
+		public void transitionTaken(String grafo, String origen, String destino, Object data) {
+			transiciones.increment();
+		}
+	}
+
+	/**
+     * Método principal que lanza las pruebas.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) throws InterruptedException {
+		StateGraph<NumericData> sg = buildWorkflow();
+		Contador contador = new Contador();
+		sg.addListener(contador);
+		sg.run(new NumericData(5, 0), false);
+		System.out.println("Nodos = " + contador.nodos.sum() + ", transiciones = " + contador.transiciones.sum());
+		sg.removeListener(contador);
+
+		ConsoleTraceListener porEjecucion = ConsoleTraceListener.perRun();
+		sg.addListener(porEjecucion);
+		List<Thread> hilos = new ArrayList<>();
+		for (int h = 1; h <= 3; h++) {
+			int op1 = h;
+			Thread t = new Thread(() -> sg.run(new NumericData(op1, 0), false));
+			hilos.add(t);
+			t.start();
+		}
+		for (Thread t : hilos) {
+			t.join();
+		}
+		sg.removeListener(porEjecucion);
+
+		medir(sg); // calentamiento
+		System.out.printf("Sin observadores:   %6.1f ns/run%n", medir(sg));
+		sg.addListener(new ExecutionListener<NumericData>() {});
+		medir(sg);
+		System.out.printf("Observador vacío:   %6.1f ns/run%n", medir(sg));
+	}
+
+	/**
+     * Construye un flujo que decrementa op1 hasta 0.
+     */
+	private static StateGraph<NumericData> buildWorkflow() {
+		StateGraph<NumericData> sg = new StateGraph<>("loop-down", "Get a number, and decrease if positive");
+		sg.addNode("decrease", (NumericData mo) -> mo.setInt(NumericData.OP1, mo.getInt(NumericData.OP1) - 1))
+		  .addConditionalEdge("decrease", "decrease", (NumericData mo) -> mo.getInt(NumericData.OP1) > 0)
+		  .setInitial("decrease");
+		sg.seal();
+		return sg;
+	}
+
+	/**
+     * Mide el tiempo medio de una ejecución del flujo.
+     */
+	private static double medir(StateGraph<NumericData> sg) {
+		long t0 = System.nanoTime();
+		for (int i = 0; i < RUNS; i++) {
+			sg.run(new NumericData(5, 0), false);
+		}
+		return (System.nanoTime() - t0) / (double) RUNS;
+	}
+}
@@ -0,0 +1,134 @@
+package testers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import datos.NumericData;
+import decoradores.StateGraphProfiler;
+import decoradores.Trace;
+import grafos.Graph;
+import grafos.StateGraph;
+
+/**
+ * Tester de los nodos de bifurcación y unión.
+ *
+ * Compara la latencia de un flujo con cuatro etapas independientes e intensivas en CPU
+ * ejecutadas una tras otra con la del mismo flujo con las etapas en ramas paralelas entre un
+ * ForkNode y un JoinNode, y comprueba que el resultado es el mismo. La versión paralela se
+ * construye sobre un StateGraphProfiler, con la unión como nodo final, para mostrar que los
+ * nodos de bifurcación se decoran como los demás. Por último, comprueba que las trazas de las
+ * ramas ejecutadas en otros hilos llevan la ejecución y el paso que les corresponden.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class ForkJoinTester {
+	private static final int ETAPAS = 4;
+	private static final int VUELTAS = 20_000_000;
+	private static final int RUNS = 10;
+
+	/**
+     * Método principal que lanza la comparación.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) {
+		StateGraph<NumericData> secuencial = new StateGraph<>("sequential", "Independent stages one after another");
+		for (int i = 0; i < ETAPAS; i++) {
+			int etapa = i;
+			secuencial.addNode("stage" + i, (NumericData mo) -> mo.setInt(NumericData.RESULT,
+					mo.getInt(NumericData.RESULT) + calcular(mo.getInt(NumericData.OP1) + etapa)));
+			if (i > 0) secuencial.addEdge("stage" + (i - 1), "stage" + i);
+		}
+		secuencial.setInitial("stage0");
+
+		StateGraphProfiler<NumericData> paralelo = new StateGraphProfiler<>(new StateGraph<NumericData>("parallel", "Independent stages in parallel"));
+		paralelo.addForkNode("fork", "join", ForkJoinPool.commonPool());
+		paralelo.addJoinNode("join", (NumericData mo, List<NumericData> ramas) -> {
+			for (NumericData rama : ramas) {
+				mo.setInt(NumericData.RESULT, mo.getInt(NumericData.RESULT) + rama.getInt(NumericData.RESULT));
+			}
+		});
+		for (int i = 0; i < ETAPAS; i++) {
+			int etapa = i;
+			paralelo.addNode("stage" + i, (NumericData mo) -> mo.setInt(NumericData.RESULT, calcular(mo.getInt(NumericData.OP1) + etapa)));
+			paralelo.addEdge("fork", "stage" + i);
+			paralelo.addEdge("stage" + i, "join");
+		}
+		paralelo.setInitial("fork");
+		paralelo.setFinal("join");
+
+		System.out.println("Núcleos disponibles = " + Runtime.getRuntime().availableProcessors());
+		medir(secuencial); // calentamiento
+		medir(paralelo);
+		int a = medir(secuencial);
+		int b = medir(paralelo);
+		System.out.println("Resultados " + (a == b ? "iguales (OK)" : "distintos (ERROR)"));
+		paralelo.statistics().values().forEach(System.out::println);
+
+		comprobarContexto();
+	}
+
+	/**
+     * Comprueba que las ramas que se ejecutan en otros hilos numeran sus trazas con el
+     * identificador y los pasos de la ejecución que las lanza.
+     */
+	private static void comprobarContexto() {
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			StateGraphProfiler<NumericData> sg = new StateGraphProfiler<>(new StateGraph<NumericData>("context", "Branches on a thread pool"));
+			sg.addForkNode("fork", "join", pool);
+			sg.addJoinNode("join", (NumericData mo, List<NumericData> ramas) -> {});
+			for (int i = 0; i < ETAPAS; i++) {
+				sg.addNode("stage" + i, (NumericData mo) -> mo.put("op1", mo.get("op1") + 1));
+				sg.addEdge("fork", "stage" + i);
+				sg.addEdge("stage" + i, "join");
+			}
+			sg.setInitial("fork");
+			sg.setFinal("join");
+			sg.run(new NumericData(0, 0), false);
+			sg.run(new NumericData(0, 0), false);
+
+			Map<Long, Set<Long>> pasos = new TreeMap<>();
+			for (Trace<NumericData> t : sg.history()) {
+				pasos.computeIfAbsent(t.getRunId(), r -> new TreeSet<>()).add(t.getPaso());
+			}
+			boolean ok = pasos.size() == 2 && !pasos.containsKey(0L)
+					&& pasos.values().stream().allMatch(p -> p.size() == ETAPAS + 2 && p.contains(1L) && p.contains(ETAPAS + 2L));
+			System.out.println("Pasos por ejecución con las ramas en otros hilos = " + pasos + (ok ? " (OK)" : " (ERROR)"));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+     * Ejecuta el flujo varias veces, muestra la latencia media y devuelve el último resultado.
+     */
+	private static int medir(Graph<NumericData> sg) {
+		long t0 = System.nanoTime();
+		int resultado = 0;
+		for (int i = 0; i < RUNS; i++) {
+			resultado = sg.run(new NumericData(i, 0), false).getInt(NumericData.RESULT);
+		}
+		System.out.printf("%-10s %8.2f ms/run%n", sg.getNombre(), (System.nanoTime() - t0) / 1e6 / RUNS);
+		return resultado;
+	}
+
+	/**
+     * Cálculo intensivo en CPU.
+     */
+	private static int calcular(int semilla) {
+		int x = semilla;
+		for (int i = 0; i < VUELTAS; i++) {
+			x = x * 1_103_515_245 + 12_345;
+		}
+		return x >>> 16;
+	}
+}
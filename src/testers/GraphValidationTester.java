@@ -0,0 +1,83 @@
+package testers;
+
+import datos.NumericData;
+import grafos.GraphValidation;
+import grafos.StateGraph;
+
+/**
+ * Tester de la validación estática de grafos (validate/optimize).
+ *
+ * Construye un grafo con un nodo inalcanzable, un nodo sin camino al final y una arista
+ * detrás de una no condicional, muestra el informe antes y después de optimizarlo y comprueba
+ * que el resultado de la ejecución no cambia. Después comprueba que una arista hacia un nodo
+ * inexistente se rechaza al construir el grafo y mide el tiempo de construir un nodo con
+ * muchas aristas de salida.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class GraphValidationTester {
+	private static final int ARISTAS = 100_000;
+
+	/**
+     * Método principal que lanza las comprobaciones.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) {
+		StateGraph<NumericData> sg = buildWorkflow();
+		int antes = sg.run(new NumericData(5, 0), false).getInt(NumericData.RESULT);
+		System.out.println(sg.validate());
+
+		GraphValidation v = sg.optimize();
+		System.out.println("Aristas eliminadas = " + v.getShadowedEdges());
+		System.out.println(sg.validate());
+		int despues = sg.run(new NumericData(5, 0), false).getInt(NumericData.RESULT);
+		System.out.println("Resultado antes = " + antes + ", después = " + despues + (antes == despues ? " (OK)" : " (ERROR)"));
+
+		try {
+			sg.addEdge("sum", "missing");
+			System.out.println("Arista a un nodo inexistente aceptada (ERROR)");
+		} catch (IllegalArgumentException e) {
+			System.out.println("Arista a un nodo inexistente rechazada (OK): " + e.getMessage());
+		}
+
+		StateGraph<NumericData> grande = new StateGraph<>("fan-out", "One node with many successors");
+		long t0 = System.nanoTime();
+		grande.addNode("hub", (NumericData mo) -> {});
+		for (int i = 0; i < ARISTAS; i++) {
+			grande.addNode("n" + i, (NumericData mo) -> {});
+			grande.addConditionalEdge("hub", "n" + i, (NumericData mo) -> false);
+		}
+		grande.setInitial("hub");
+		GraphValidation vg = grande.validate();
+		System.out.printf("%,d aristas construidas y validadas en %.1f ms (inalcanzables = %d)%n",
+				ARISTAS, (System.nanoTime() - t0) / 1e6, vg.getUnreachable().size());
+	}
+
+	/**
+     * Construye el flujo de prueba:
+     * sum (op1 veces) -> check -> done, con las anomalías a detectar.
+     */
+	private static StateGraph<NumericData> buildWorkflow() {
+		StateGraph<NumericData> sg = new StateGraph<>("validated", "Workflow with dead parts");
+		sg.addNode("sum", (NumericData mo) -> {
+			mo.setInt(NumericData.RESULT, mo.getInt(NumericData.RESULT) + mo.getInt(NumericData.OP1));
+			mo.setInt(NumericData.OP1, mo.getInt(NumericData.OP1) - 1);
+		  })
+		  .addNode("check", (NumericData mo) -> {})
+		  .addNode("stuck", (NumericData mo) -> {})
+		  .addNode("orphan", (NumericData mo) -> {})
+		  .addNode("done", (NumericData mo) -> {});
+		sg.addConditionalEdge("sum", "sum", (NumericData mo) -> mo.getInt(NumericData.OP1) > 0)
+		  .addEdge("sum", "check")
+		  .addEdge("sum", "orphan")
+		  .addConditionalEdge("check", "stuck", (NumericData mo) -> mo.getInt(NumericData.RESULT) < 0)
+		  .addEdge("check", "done")
+		  .addEdge("orphan", "done");
+		sg.setInitial("sum");
+		sg.setFinal("done");
+		return sg;
+	}
+}
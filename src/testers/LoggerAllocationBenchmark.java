@@ -0,0 +1,80 @@
+package testers;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import decoradores.AsyncLogWriter;
+import decoradores.NodeLogger;
+import nodos.Node;
+
+/**
+ * Mide los bytes reservados por cada paso registrado con NodeLogger, comparando el formato
+ * anterior (concatenación de Strings con LocalDate.now() y LocalTime.now()) con el formato
+ * actual sobre buffers reutilizables. Ambos entregan el registro al mismo AsyncLogWriter,
+ * así que la diferencia es solo la del formateo.
+ *
+ * La salida del nodo devuelve siempre el mismo String, de forma que su toString no reserva
+ * memoria y lo que se mide es el coste propio del logger.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class LoggerAllocationBenchmark {
+	private static final int PASOS = 200_000;
+
+	/**
+	 * Dato cuyo toString no reserva memoria.
+	 */
+	private static class Payload {
+		@Override
+		public String toString() {
+			return "{op1=2, op2=0, result=0}";
+		}
+	}
+
+	/**
+     * Método principal que lanza las dos mediciones.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) throws IOException {
+		File fichero = File.createTempFile("logger-bench", ".txt");
+		fichero.deleteOnExit();
+		Payload payload = new Payload();
+
+		try (AsyncLogWriter writer = new AsyncLogWriter(fichero.getPath())) {
+			Node<Payload> node = new Node<>("decrease", (Payload p) -> {});
+			NodeLogger<Payload> logger = new NodeLogger<>(node, writer);
+
+			Runnable antes = () -> {
+				String info = "[" + LocalDate.now() + " - " + LocalTime.now() + "] node " + node.getNombre()
+						+ " executed, with output: " + payload.toString() + "\n";
+				writer.write(info);
+			};
+			Runnable ahora = () -> logger.execute(payload, false);
+
+			// Calentamiento para que ambos caminos estén compilados
+			medir(antes);
+			medir(ahora);
+
+			System.out.printf("Formato anterior: %8.1f bytes/paso%n", medir(antes));
+			System.out.printf("Formato actual:   %8.1f bytes/paso%n", medir(ahora));
+		}
+	}
+
+	/**
+     * Ejecuta un paso de log muchas veces y devuelve los bytes reservados por paso en este hilo.
+     */
+	private static double medir(Runnable paso) {
+		com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long inicio = mx.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < PASOS; i++) {
+			paso.run();
+		}
+		return (mx.getCurrentThreadAllocatedBytes() - inicio) / (double) PASOS;
+	}
+}
@@ -1,7 +1,6 @@
 package testers;
 
-import java.util.List;
-
+import agregados.RunningMean;
 import datos.DoubleData;
 import grafos.StreamingStateGraph;
 
@@ -40,20 +39,14 @@ public class MainAp4 {
     }
 
     /**
-     * Construye el flujo con el nodo average.
+     * Construye el flujo con el nodo average. La media se mantiene de forma incremental,
+     * por lo que cada evento cuesta lo mismo independientemente del tamaño del historial.
      * 
      * @return Un StreamingStateGraph con el flujo configurado.
      */
     public static StreamingStateGraph<DoubleData> buildWorkflow() {
         StreamingStateGraph<DoubleData> graph = new StreamingStateGraph<>("average", "Calculates the average of incomming data");
-        graph.addNode("average", (List<DoubleData> dd) -> {
-            double suma = 0.0;
-            
-            for (DoubleData v : dd) {
-                suma += v.getValue();
-            }
-            dd.getLast().setAverage(suma / dd.size());
-        });
+        graph.addAggregateNode("average", new RunningMean<>(DoubleData::getValue), DoubleData::setAverage);
         graph.setInitial("average");
         return graph;
     }
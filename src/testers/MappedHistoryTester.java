@@ -0,0 +1,113 @@
+package testers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import agregados.RunningMean;
+import checkpoint.Codecs;
+import datos.DoubleData;
+import grafos.MappedHistory;
+import grafos.StreamingStateGraph;
+
+/**
+ * Tester del historial persistente de un StreamingStateGraph.
+ *
+ * Ejecuta el flujo "average" de MainAp4 sobre un historial en disco, lo cierra y lo vuelve a
+ * abrir con un grafo nuevo, comprobando que la media continúa donde se quedó. Después simula
+ * un registro a medio escribir, y por último procesa millones de eventos y los recorre desde
+ * un nodo que lee todo el historial y desde la vista que devuelve history(), sin cargarlo en
+ * memoria.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class MappedHistoryTester {
+	private static final int EVENTOS = 5_000_000;
+
+	/**
+     * Método principal que lanza las comprobaciones.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) throws IOException {
+		Path fichero = Files.createTempFile("average", ".hist");
+		fichero.toFile().deleteOnExit();
+		Path.of(fichero + ".idx").toFile().deleteOnExit();
+
+		try (MappedHistory<DoubleData> history = new MappedHistory<>(fichero, Codecs.doubleData())) {
+			StreamingStateGraph<DoubleData> sg = buildWorkflow(history);
+			for (double valor : new double[] {1, 5, 2, 4, 8, 6}) {
+				System.out.println("  " + sg.run(new DoubleData(valor, 0.0), false));
+			}
+		}
+		try (MappedHistory<DoubleData> history = new MappedHistory<>(fichero, Codecs.doubleData())) {
+			StreamingStateGraph<DoubleData> sg = buildWorkflow(history);
+			System.out.println("Reabierto: history=" + sg.history());
+			System.out.println("  " + sg.run(new DoubleData(3, 0.0), false) + " (esperado average=" + 29 / 7.0 + ")");
+		}
+
+		// Se estropea el último byte del último registro, como si la JVM hubiera muerto al escribirlo
+		try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.WRITE)) {
+			canal.write(ByteBuffer.wrap(new byte[] {42}), canal.size() - 1);
+		}
+		try (MappedHistory<DoubleData> history = new MappedHistory<>(fichero, Codecs.doubleData())) {
+			System.out.println("Con el último registro roto: " + history.size() + " eventos, último = " + history.getLast());
+		}
+
+		Files.delete(fichero);
+		long t0 = System.nanoTime();
+		try (MappedHistory<DoubleData> history = new MappedHistory<>(fichero, Codecs.doubleData())) {
+			StreamingStateGraph<DoubleData> sg = buildWorkflow(history);
+			for (int i = 0; i < EVENTOS; i++) {
+				sg.run(new DoubleData(i % 200, 0.0), false);
+			}
+		}
+		long t1 = System.nanoTime();
+		System.out.printf("%n%d eventos en %.2f s, fichero de %.0f MB%n", EVENTOS, (t1 - t0) / 1e9, Files.size(fichero) / 1e6);
+
+		try (MappedHistory<DoubleData> history = new MappedHistory<>(fichero, Codecs.doubleData())) {
+			RunningMean<DoubleData> media = new RunningMean<>(DoubleData::getValue);
+			history.addListener(media);
+			long t2 = System.nanoTime();
+			System.out.printf("Reabierto y recalculada la media de %d eventos en %.2f s%n", history.size(), (t2 - t1) / 1e9);
+
+			StreamingStateGraph<DoubleData> sg = new StreamingStateGraph<>("average", "Average over the whole history", history);
+			sg.addNode("average", (List<DoubleData> dd) -> {
+				double suma = 0.0;
+				for (DoubleData v : dd) {
+					suma += v.getValue();
+				}
+				dd.getLast().setAverage(suma / dd.size());
+			}).setInitial("average");
+			DoubleData output = sg.run(new DoubleData(100, 0.0), false);
+			long t3 = System.nanoTime();
+			System.out.printf("Media recorriendo el historial: %s en %.2f s (incremental: %.6f), heap usado: %.0f MB%n",
+					output, (t3 - t2) / 1e9, media.mean(),
+					(Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) / 1e6);
+
+			// history() no copia el historial: solo se decodifican los eventos consultados
+			List<DoubleData> vista = sg.history();
+			System.out.println("Vista del historial: " + vista.size() + " eventos, primero = " + vista.getFirst()
+					+ ", último = " + vista.getLast());
+		}
+	}
+
+	/**
+     * Construye el flujo con el nodo average incremental de MainAp4 sobre un historial.
+     *
+     * @param history Historial del grafo.
+     * @return Un StreamingStateGraph con el flujo configurado.
+     */
+	private static StreamingStateGraph<DoubleData> buildWorkflow(MappedHistory<DoubleData> history) {
+		StreamingStateGraph<DoubleData> graph = new StreamingStateGraph<>("average", "Calculates the average of incomming data", history);
+		graph.addAggregateNode("average", new RunningMean<>(DoubleData::getValue), DoubleData::setAverage);
+		graph.setInitial("average");
+		return graph;
+	}
+}
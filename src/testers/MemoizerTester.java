@@ -0,0 +1,121 @@
+package testers;
+
+import java.time.Duration;
+
+import datos.NumericData;
+import datos.StringData;
+import decoradores.StateGraphMemoizer;
+import grafos.Graph;
+import grafos.StateGraph;
+import nodos.NodeG;
+
+/**
+ * Tester de la memorización de nodos.
+ *
+ * Ejecuta el flujo "math1" de MainAp3, con y sin memorizar los nodos sum y square, sobre
+ * entradas con pocos pares (op1, op2) distintos; comprueba que los resultados coinciden y
+ * muestra los contadores de las cachés. Se añade a sum un coste artificial para que se
+ * aprecie el ahorro.
+ *
+ * Después ejecuta el flujo "replicate" de MainAp3 con la caché del NodeG activada, de modo
+ * que las entradas con el mismo número de repeticiones no vuelven a ejecutar el subgrafo.
+ * Por último memoriza un nodo cuyo efecto es null para parte de las entradas, que no deben
+ * fallar ni guardarse en la caché.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class MemoizerTester {
+	private static final int ENTRADAS = 20_000;
+	private static final int DISTINTAS = 50;
+
+	/**
+     * Método principal que lanza la comparación.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) {
+		StateGraph<NumericData> normal = new StateGraph<>("math1", "Add two numbers, and square if even");
+		buildWorkflow(normal);
+
+		StateGraphMemoizer<NumericData> memo = new StateGraphMemoizer<>(new StateGraph<>("math1", "Add two numbers, and square if even"));
+		memo.memoize("sum", (NumericData mo) -> ((long) mo.getInt(NumericData.OP1) << 32) | (mo.getInt(NumericData.OP2) & 0xffffffffL),
+					(NumericData mo) -> mo.getInt(NumericData.RESULT),
+					(NumericData mo, Integer r) -> mo.setInt(NumericData.RESULT, r), 256)
+			.memoize("square", (NumericData mo) -> mo.getInt(NumericData.RESULT),
+					(NumericData mo) -> mo.getInt(NumericData.RESULT),
+					(NumericData mo, Integer r) -> mo.setInt(NumericData.RESULT, r), 1_000, Duration.ofMinutes(1));
+		buildWorkflow(memo);
+
+		long t0 = System.nanoTime();
+		long sumaNormal = ejecutar(normal);
+		long t1 = System.nanoTime();
+		long sumaMemo = ejecutar(memo);
+		long t2 = System.nanoTime();
+
+		System.out.println("Resultados " + (sumaNormal == sumaMemo ? "iguales (OK)" : "distintos (ERROR)"));
+		System.out.printf("Sin memorizar: %.1f ms, memorizando: %.1f ms%n", (t1 - t0) / 1e6, (t2 - t1) / 1e6);
+		memo.cacheStats().forEach((nodo, stats) -> System.out.println(nodo + " " + stats));
+
+		StateGraph<NumericData> math1 = new StateGraph<>("math1", "Add two numbers, and square if even");
+		buildWorkflow(math1);
+		StateGraph<StringData> replicate = new StateGraph<>("replicate", "Replicates a given word");
+		NodeG<StringData, NumericData> calculate = replicate.addWfNode("calculate", math1)
+			.withInjector((StringData sd) -> sd.toNumericData())
+			.withExtractor((NumericData nd, StringData sd) -> sd.setTimes(nd.get("result")))
+			.withCache(64);
+		replicate.addNode("replicate", sd -> sd.replicate());
+		replicate.addEdge("calculate", "replicate")
+		         .addConditionalEdge("replicate", "replicate", sd -> sd.times() > 0);
+		replicate.setInitial("calculate");
+
+		String ultimo = null;
+		for (int i = 0; i < ENTRADAS; i++) {
+			ultimo = replicate.run(new StringData("ja", "", 1 + i % 5), false).getResult();
+		}
+		System.out.println("replicate, último = " + ultimo + ", calculate " + calculate.getCacheStats());
+
+		StateGraphMemoizer<NumericData> mitad = new StateGraphMemoizer<>(new StateGraph<>("half", "Halve even numbers"));
+		mitad.memoize("half", (NumericData mo) -> mo.getInt(NumericData.OP1),
+					(NumericData mo) -> mo.getInt(NumericData.OP1) % 2 == 0 ? mo.getInt(NumericData.RESULT) : null,
+					(NumericData mo, Integer r) -> mo.setInt(NumericData.RESULT, r), 64);
+		mitad.addNode("half", (NumericData mo) -> {
+			if (mo.getInt(NumericData.OP1) % 2 == 0) mo.setInt(NumericData.RESULT, mo.getInt(NumericData.OP1) / 2);
+		});
+		mitad.setInitial("half");
+		long sumaMitad = 0;
+		for (int i = 0; i < 100; i++) {
+			sumaMitad += mitad.run(new NumericData(i % 10, 0), false).getInt(NumericData.RESULT);
+		}
+		System.out.println("half con efectos null, suma = " + sumaMitad + (sumaMitad == 100 ? " (OK)" : " (ERROR)")
+				+ ", " + mitad.cacheStats().get("half"));
+	}
+
+	/**
+     * Añade los nodos de math1 a un grafo. El nodo sum simula un cálculo costoso.
+     */
+	private static void buildWorkflow(Graph<NumericData> sg) {
+		sg.addNode("sum", (NumericData mo) -> {
+			int r = mo.get("op1") + mo.get("op2");
+			for (int i = 0; i < 2_000; i++) {
+				r = Integer.rotateLeft(r, 1);
+			}
+			mo.put("result", Integer.rotateRight(r, 2_000 % 32));
+		}).addNode("square", (NumericData mo) -> mo.put("result", mo.get("result") * mo.get("result")));
+		sg.addConditionalEdge("sum", "square", (NumericData mo) -> mo.get("result") % 2 == 0);
+		sg.setInitial("sum");
+		sg.setFinal("square");
+	}
+
+	/**
+     * Ejecuta el grafo sobre las entradas y devuelve la suma de los resultados.
+     */
+	private static long ejecutar(Graph<NumericData> sg) {
+		long suma = 0;
+		for (int i = 0; i < ENTRADAS; i++) {
+			suma += sg.run(new NumericData(i % DISTINTAS, (i / 7) % 3), false).get("result");
+		}
+		return suma;
+	}
+}
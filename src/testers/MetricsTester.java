@@ -0,0 +1,89 @@
+package testers;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import javax.management.JMException;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.sun.net.httpserver.HttpServer;
+
+import datos.NumericData;
+import decoradores.MetricsRegistry;
+import decoradores.StateGraphMetrics;
+import decoradores.StateGraphMetricsMXBean;
+import grafos.StateGraph;
+
+/**
+ * Tester de las métricas de un grafo.
+ *
+ * Ejecuta el flujo de MainAp5 con un nodo más que falla con entradas negativas, y muestra
+ * las métricas exportadas en formato Prometheus, las que se leen por JMX y las que sirve el
+ * endpoint HTTP /metrics.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class MetricsTester {
+	/**
+     * Método principal que lanza las comprobaciones.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) throws JMException, IOException, InterruptedException {
+		MetricsRegistry registry = new MetricsRegistry();
+		StateGraph<NumericData> g = new StateGraph<>("loop-down", "Get a number, and decrease if positive");
+		try (StateGraphMetrics<NumericData> sg = new StateGraphMetrics<>(g, registry)) {
+			sg.addNode("check", (NumericData mo) -> {
+				if (mo.get("op1") < 0) throw new IllegalArgumentException("op1 negativo");
+			});
+			sg.addNode("decrease", (NumericData mo) -> mo.put("op1", mo.get("op1") - 1))
+			  .addEdge("check", "decrease")
+			  .addConditionalEdge("decrease", "decrease", (NumericData mo) -> mo.get("op1") > 0)
+			  .setInitial("check");
+			sg.registerMBeans();
+
+			for (int i = -2; i < 20; i++) {
+				try {
+					sg.run(new NumericData(i, 0), false);
+				} catch (IllegalArgumentException e) {
+					System.out.println("Fallo esperado con op1 = " + i + ": " + e.getMessage());
+				}
+			}
+
+			System.out.println("\n" + registry.scrape());
+
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName grafo = new ObjectName("grafos:type=StateGraph,name=" + ObjectName.quote("loop-down"));
+			System.out.println("JMX " + grafo + ": runs=" + server.getAttribute(grafo, "Runs")
+					+ ", failedRuns=" + server.getAttribute(grafo, "FailedRuns")
+					+ ", transitions=" + JMX.newMXBeanProxy(server, grafo, StateGraphMetricsMXBean.class).getTransitions());
+			for (ObjectName nodo : server.queryNames(new ObjectName("grafos:type=Node,*"), null)) {
+				System.out.println("JMX " + nodo + ": executions=" + server.getAttribute(nodo, "Executions")
+						+ ", failures=" + server.getAttribute(nodo, "Failures")
+						+ ", p99Ms=" + server.getAttribute(nodo, "P99Ms"));
+			}
+
+			HttpServer http = registry.serve(0);
+			try {
+				URI uri = URI.create("http://127.0.0.1:" + http.getAddress().getPort() + "/metrics");
+				HttpResponse<String> respuesta = HttpClient.newHttpClient()
+						.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+				System.out.println("\nGET " + uri + " -> " + respuesta.statusCode() + ", "
+						+ respuesta.body().lines().count() + " líneas, igual que scrape(): "
+						+ respuesta.body().equals(registry.scrape()));
+			} finally {
+				http.stop(0);
+			}
+		}
+		System.out.println("MBeans tras close: "
+				+ ManagementFactory.getPlatformMBeanServer().queryNames(new ObjectName("grafos:*"), null).size());
+	}
+}
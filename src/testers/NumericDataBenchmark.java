@@ -0,0 +1,121 @@
+package testers;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.function.IntFunction;
+
+import datos.NumericData;
+import grafos.StateGraph;
+
+/**
+ * Compara el flujo "loop-down" de MainAp5 con tres representaciones del dato:
+ * <ul>
+ *   <li>la anterior, un LinkedHashMap&lt;String, Integer&gt;;</li>
+ *   <li>NumericData usado como mapa, igual que en los testers existentes;</li>
+ *   <li>NumericData accediendo por posición, con los slots resueltos al construir el grafo.</li>
+ * </ul>
+ * Para cada una muestra el tiempo y los bytes reservados por paso, y el coste de clonar el dato.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class NumericDataBenchmark {
+	private static final int VUELTAS = 1_000;
+	private static final int RUNS = 2_000;
+	private static final int CLONES = 1_000_000;
+	private static volatile Object sumidero;
+
+	/**
+	 * Representación anterior de NumericData.
+	 */
+	private static class LegacyNumericData extends LinkedHashMap<String, Integer> {
+		private static final long serialVersionUID = 1L;
+
+		LegacyNumericData(int op1, int op2) {
+			this.put("op1", op1);
+			this.put("op2", op2);
+			this.put("result", 0);
+		}
+
+		@Override
+		public LegacyNumericData clone() {
+			return (LegacyNumericData) super.clone();
+		}
+	}
+
+	/**
+     * Método principal que lanza las mediciones.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) {
+		StateGraph<LegacyNumericData> legacy = new StateGraph<>("loop-down", "Get a number, and decrease if positive");
+		legacy.addNode("decrease", (LegacyNumericData mo) -> mo.put("op1", mo.get("op1") - 1))
+		      .addConditionalEdge("decrease", "decrease", (LegacyNumericData mo) -> mo.get("op1") > 0)
+		      .setInitial("decrease");
+		legacy.seal();
+
+		StateGraph<NumericData> mapa = new StateGraph<>("loop-down", "Get a number, and decrease if positive");
+		mapa.addNode("decrease", (NumericData mo) -> mo.put("op1", mo.get("op1") - 1))
+		    .addConditionalEdge("decrease", "decrease", (NumericData mo) -> mo.get("op1") > 0)
+		    .setInitial("decrease");
+		mapa.seal();
+
+		int op1 = NumericData.SCHEMA.slot("op1");
+		StateGraph<NumericData> slots = new StateGraph<>("loop-down", "Get a number, and decrease if positive");
+		slots.addNode("decrease", (NumericData mo) -> mo.setInt(op1, mo.getInt(op1) - 1))
+		     .addConditionalEdge("decrease", "decrease", (NumericData mo) -> mo.getInt(op1) > 0)
+		     .setInitial("decrease");
+		slots.seal();
+
+		for (int i = 0; i < 3; i++) { // calentamiento
+			medir(null, legacy, n -> new LegacyNumericData(n, 0));
+			medir(null, mapa, n -> new NumericData(n, 0));
+			medir(null, slots, n -> new NumericData(n, 0));
+		}
+		medir("LinkedHashMap       ", legacy, n -> new LegacyNumericData(n, 0));
+		medir("NumericData (mapa)  ", mapa, n -> new NumericData(n, 0));
+		medir("NumericData (slots) ", slots, n -> new NumericData(n, 0));
+
+		clonar(null, new LegacyNumericData(3, 0));
+		clonar(null, new NumericData(3, 0));
+		clonar("clone LinkedHashMap ", new LegacyNumericData(3, 0));
+		clonar("clone NumericData   ", new NumericData(3, 0));
+	}
+
+	/**
+     * Ejecuta el grafo muchas veces y muestra el tiempo y los bytes reservados por paso.
+     */
+	private static <T> void medir(String nombre, StateGraph<T> sg, IntFunction<T> entrada) {
+		com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long bytes = mx.getCurrentThreadAllocatedBytes();
+		long t0 = System.nanoTime();
+		for (int i = 0; i < RUNS; i++) {
+			sg.run(entrada.apply(VUELTAS), false);
+		}
+		long t1 = System.nanoTime();
+		bytes = mx.getCurrentThreadAllocatedBytes() - bytes;
+		if (nombre != null) {
+			long pasos = (long) RUNS * VUELTAS;
+			System.out.printf("%s %8.2f ns/paso %8.2f bytes/paso%n", nombre, (t1 - t0) / (double) pasos, bytes / (double) pasos);
+		}
+	}
+
+	/**
+     * Clona un dato muchas veces y muestra el tiempo y los bytes reservados por copia.
+     */
+	private static void clonar(String nombre, Object dato) {
+		com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long bytes = mx.getCurrentThreadAllocatedBytes();
+		long t0 = System.nanoTime();
+		for (int i = 0; i < CLONES; i++) {
+			sumidero = dato instanceof NumericData nd ? nd.clone() : ((LegacyNumericData) dato).clone();
+		}
+		long t1 = System.nanoTime();
+		bytes = mx.getCurrentThreadAllocatedBytes() - bytes;
+		if (nombre != null) {
+			System.out.printf("%s %8.2f ns/copia  %8.2f bytes/copia%n", nombre, (t1 - t0) / (double) CLONES, bytes / (double) CLONES);
+		}
+	}
+}
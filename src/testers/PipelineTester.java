@@ -0,0 +1,142 @@
+package testers;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import datos.NumericData;
+import grafos.PipelinedRunner;
+import grafos.StateGraph;
+
+/**
+ * Tester del ejecutor segmentado (PipelinedRunner).
+ *
+ * Procesa un lote de entradas con un flujo lineal de etapas intensivas en CPU, una de ellas
+ * con un bucle sobre sí misma, primero de forma secuencial y después con el pipeline.
+ * Comprueba que los resultados son los mismos y llegan en el mismo orden, y muestra el
+ * número de etapas (el bucle queda dentro de una sola) y el rendimiento de cada forma.
+ * Por último comprueba que un fallo al introducir las entradas llega a quien llamó a runAll
+ * y que el pipeline se cierra aunque queden resultados sin recoger.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class PipelineTester {
+	private static final int ENTRADAS = 2_000;
+	private static final int VUELTAS = 50_000;
+
+	/**
+     * Método principal que lanza la comparación.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) {
+		StateGraph<NumericData> sg = buildWorkflow();
+		List<NumericData> entradas = new ArrayList<>();
+		for (int i = 0; i < ENTRADAS; i++) {
+			entradas.add(new NumericData(i % 4 + 1, i));
+		}
+
+		List<Integer> esperados = new ArrayList<>();
+		long t0 = System.nanoTime();
+		for (NumericData entrada : entradas) {
+			esperados.add(sg.run(entrada.clone(), false).getInt(NumericData.RESULT));
+		}
+		long t1 = System.nanoTime();
+
+		List<Integer> obtenidos = new ArrayList<>();
+		long t2, t3;
+		try (PipelinedRunner<NumericData> pipeline = new PipelinedRunner<>(sg, 64)) {
+			t2 = System.nanoTime();
+			for (NumericData resultado : pipeline.runAll(entradas)) {
+				obtenidos.add(resultado.getInt(NumericData.RESULT));
+			}
+			t3 = System.nanoTime();
+			System.out.println("Etapas = " + pipeline.stages());
+		}
+
+		System.out.println("Resultados " + (esperados.equals(obtenidos) ? "iguales y en orden (OK)" : "distintos (ERROR)"));
+		System.out.printf("Secuencial: %,10.0f entradas/s%n", ENTRADAS / ((t1 - t0) / 1e9));
+		System.out.printf("Pipeline:   %,10.0f entradas/s (núcleos = %d)%n", ENTRADAS / ((t3 - t2) / 1e9),
+				Runtime.getRuntime().availableProcessors());
+
+		comprobarFallos(sg);
+	}
+
+	/**
+     * Lanza runAll con una colección cuyo iterador falla a mitad, y cierra un pipeline con
+     * resultados sin recoger.
+     */
+	private static void comprobarFallos(StateGraph<NumericData> sg) {
+		try (PipelinedRunner<NumericData> pipeline = new PipelinedRunner<>(sg, 4)) {
+			pipeline.runAll(new AbstractCollection<NumericData>() {
+				@Override
+				public Iterator<NumericData> iterator() {
+					return new Iterator<>() {
+						private int i;
+
+						@Override
+						public boolean hasNext() {
+							return true;
+						}
+
+						@Override
+						public NumericData next() {
+							if (i == 10) throw new IllegalStateException("iterador roto en la entrada " + i);
+							return new NumericData(1, i++);
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return 20;
+				}
+			});
+			System.out.println("runAll con el iterador roto terminó sin error (ERROR)");
+		} catch (IllegalStateException e) {
+			System.out.println("runAll relanza el fallo del productor: " + e.getMessage() + " (OK)");
+		}
+
+		long t0 = System.nanoTime();
+		try (PipelinedRunner<NumericData> pipeline = new PipelinedRunner<>(sg, 2)) {
+			for (int i = 0; i < 6; i++) {
+				pipeline.submit(new NumericData(1, i));
+			}
+		}
+		System.out.printf("Cerrado con 6 resultados sin recoger en %.1f ms (OK)%n", (System.nanoTime() - t0) / 1e6);
+	}
+
+	/**
+     * Construye el flujo prepare -> loop (sobre sí mismo) -> mix -> finish.
+     */
+	private static StateGraph<NumericData> buildWorkflow() {
+		StateGraph<NumericData> sg = new StateGraph<>("pipeline", "Linear CPU-bound stages");
+		sg.addNode("prepare", (NumericData mo) -> mo.setInt(NumericData.RESULT, calcular(mo.getInt(NumericData.OP2))))
+		  .addNode("loop", (NumericData mo) -> {
+			  mo.setInt(NumericData.RESULT, calcular(mo.getInt(NumericData.RESULT)));
+			  mo.setInt(NumericData.OP1, mo.getInt(NumericData.OP1) - 1);
+		  })
+		  .addNode("mix", (NumericData mo) -> mo.setInt(NumericData.RESULT, calcular(mo.getInt(NumericData.RESULT) ^ 0x5bd1e995)))
+		  .addNode("finish", (NumericData mo) -> mo.setInt(NumericData.RESULT, mo.getInt(NumericData.RESULT) & 0xffff));
+		sg.addEdge("prepare", "loop")
+		  .addConditionalEdge("loop", "loop", (NumericData mo) -> mo.getInt(NumericData.OP1) > 0)
+		  .addEdge("loop", "mix")
+		  .addEdge("mix", "finish");
+		sg.setInitial("prepare");
+		return sg;
+	}
+
+	/**
+     * Cálculo intensivo en CPU.
+     */
+	private static int calcular(int semilla) {
+		int x = semilla;
+		for (int i = 0; i < VUELTAS; i++) {
+			x = x * 1_103_515_245 + 12_345;
+		}
+		return x;
+	}
+}
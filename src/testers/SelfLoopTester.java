@@ -0,0 +1,80 @@
+package testers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.LongAdder;
+
+import datos.NumericData;
+import decoradores.AsyncLogWriter;
+import decoradores.StateGraphLogger;
+import decoradores.StateGraphProfiler;
+import grafos.ExecutionListener;
+import grafos.Graph;
+import grafos.StateGraph;
+
+/**
+ * Tester del atajo de los bucles de un solo nodo.
+ *
+ * Ejecuta el flujo loop-down de MainAp5 seguido de otro nodo y comprueba que el resultado es
+ * el mismo con y sin observadores (con observador no se usa el atajo y se avisa de cada vuelta).
+ * Después comprueba que el profiler y el logger siguen registrando cada vuelta por defecto y
+ * una sola vez por bucle con aggregateLoops().
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class SelfLoopTester {
+	private static final int VUELTAS = 10;
+
+	/**
+     * Método principal que lanza las comprobaciones.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) throws IOException {
+		StateGraph<NumericData> sg = selfLoop(new StateGraph<>("loop-down", "Decrease op1 until 0"));
+		NumericData sinObservador = sg.run(new NumericData(VUELTAS, 0), false);
+		LongAdder nodos = new LongAdder();
+		sg.addListener(new ExecutionListener<NumericData>() {
+			@Override
+			public void nodeFinished(String grafo, String nodo, NumericData data) {
+				nodos.increment();
+			}
+		});
+		NumericData conObservador = sg.run(new NumericData(VUELTAS, 0), false);
+		System.out.println("Sin observador = " + sinObservador + ", con observador = " + conObservador
+				+ (sinObservador.equals(conObservador) ? " (OK)" : " (ERROR)"));
+		System.out.println("Nodos avisados = " + nodos.sum() + " (esperados " + (VUELTAS + 1) + ")");
+
+		StateGraphProfiler<NumericData> porVuelta = selfLoop(new StateGraphProfiler<NumericData>(new StateGraph<>("loop-down", "")));
+		StateGraphProfiler<NumericData> porBucle = selfLoop(new StateGraphProfiler<NumericData>(new StateGraph<>("loop-down", "")).aggregateLoops());
+		porVuelta.run(new NumericData(VUELTAS, 0), false);
+		porBucle.run(new NumericData(VUELTAS, 0), false);
+		System.out.println("Trazas por vuelta = " + porVuelta.history().size() + ", por bucle = " + porBucle.history().size());
+		System.out.println("Primera traza por bucle = " + porBucle.history().get(0));
+
+		File fichero = File.createTempFile("self-loop", ".txt");
+		fichero.deleteOnExit();
+		try (AsyncLogWriter writer = new AsyncLogWriter(fichero.getPath())) {
+			selfLoop(new StateGraphLogger<NumericData>(new StateGraph<>("loop-down", ""), writer).aggregateLoops())
+					.run(new NumericData(VUELTAS, 0), false);
+		}
+		for (String linea : Files.readAllLines(fichero.toPath())) {
+			System.out.println(linea.substring(linea.indexOf(']') + 2));
+		}
+	}
+
+	/**
+     * Configura el flujo loop-down de MainAp5 seguido de un nodo que marca el resultado.
+     */
+	private static <G extends Graph<NumericData>> G selfLoop(G g) {
+		g.addNode("decrease", (NumericData mo) -> mo.setInt(NumericData.OP1, mo.getInt(NumericData.OP1) - 1))
+		 .addNode("done", (NumericData mo) -> mo.setInt(NumericData.RESULT, 1))
+		 .addConditionalEdge("decrease", "decrease", (NumericData mo) -> mo.getInt(NumericData.OP1) > 0)
+		 .addEdge("decrease", "done")
+		 .setInitial("decrease");
+		return g;
+	}
+}
@@ -0,0 +1,78 @@
+package testers;
+
+import datos.NumericData;
+import datos.ShoppingListData;
+import decoradores.StateGraphProfiler;
+import grafos.StateGraph;
+
+/**
+ * Tester de las instantáneas con copia en escritura de los tipos de datos.
+ *
+ * Comprueba que los cambios en el original no se ven en la instantánea ni al revés, y compara
+ * el coste del profiling de una lista de la compra grande cuando se guarda la entrada de cada
+ * paso con clone() y con una instantánea.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class SnapshotTester {
+	private static final int ELEMENTOS = 10_000;
+	private static final int RUNS = 2_000;
+
+	/**
+	 * Lista cuya instantánea es una copia completa, como hacía el profiling con clone().
+	 */
+	private static class ListaClonada extends ShoppingListData {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public ShoppingListData snapshot() {
+			return clone();
+		}
+	}
+
+	/**
+     * Método principal que lanza las comprobaciones.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) {
+		NumericData nd = new NumericData(1, 2);
+		NumericData foto = nd.snapshot();
+		nd.setInt(NumericData.RESULT, 3);
+		foto.put("op1", 10);
+		System.out.println("Original = " + nd + ", instantánea = " + foto);
+
+		ShoppingListData lista = new ShoppingListData();
+		lista.add("Leche");
+		lista.add("Pan");
+		ShoppingListData fotoLista = lista.snapshot();
+		lista.remove("Leche");
+		fotoLista.add("Huevos");
+		System.out.println("Original = " + lista + ", instantánea = " + fotoLista);
+
+		medir("clone", new ListaClonada());
+		medir("snapshot", new ShoppingListData());
+	}
+
+	/**
+     * Mide el tiempo de ejecutar con profiling un flujo que solo lee la lista.
+     */
+	private static void medir(String nombre, ShoppingListData lista) {
+		StateGraphProfiler<ShoppingListData> sg = new StateGraphProfiler<>(new StateGraph<ShoppingListData>("shopping", "Read-only steps"));
+		sg.addNode("count", (ShoppingListData l) -> l.size())
+		  .addNode("check", (ShoppingListData l) -> l.contains("Leche"))
+		  .addEdge("count", "check")
+		  .setInitial("count");
+		for (int i = 0; i < ELEMENTOS; i++) {
+			lista.add("item" + i);
+		}
+		long t0 = System.nanoTime();
+		for (int r = 0; r < RUNS; r++) {
+			sg.run(lista, false);
+		}
+		double ms = (System.nanoTime() - t0) / 1e6;
+		System.out.printf("%-8s: %,8.1f ms, %d trazas%n", nombre, ms, sg.history().size());
+	}
+}
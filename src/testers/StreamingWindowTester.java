@@ -0,0 +1,137 @@
+package testers;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+import agregados.RunningMax;
+import agregados.RunningMean;
+import agregados.RunningMin;
+import agregados.RunningVariance;
+import agregados.TopK;
+import datos.DoubleData;
+import grafos.HistoryWindow;
+import grafos.StreamingStateGraph;
+
+/**
+ * Tester de las políticas de retención del historial de un StreamingStateGraph.
+ *
+ * Ejecuta el flujo "average" de MainAp4 con una ventana deslizante, una ventana fija y una
+ * ventana por tiempo, y después procesa un millón de eventos con una ventana de 100 eventos
+ * para comprobar que el historial no crece.
+ *
+ * También muestra los agregados incrementales sobre una ventana deslizante y compara el
+ * coste de calcular la media recorriendo el historial con el de la media incremental.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class StreamingWindowTester {
+	/**
+     * Método principal que lanza los flujos con ventana.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) {
+		double[] entradas = {1, 5, 2, 4, 8, 6};
+
+		runWorkflow("sliding(3)", HistoryWindow.sliding(3), entradas);
+		runWorkflow("tumbling(3)", HistoryWindow.tumbling(3), entradas);
+		runWorkflow("slidingTime(1 min, 4)", HistoryWindow.slidingTime(Duration.ofMinutes(1), 4), entradas);
+
+		StreamingStateGraph<DoubleData> sg = buildWorkflow(HistoryWindow.sliding(100));
+		long t0 = System.nanoTime();
+		DoubleData ultimo = null;
+		for (int i = 0; i < 1_000_000; i++) {
+			ultimo = sg.run(new DoubleData(i % 200, 0.0), false);
+		}
+		System.out.printf("%n1.000.000 eventos en %.2f s, historial = %d eventos, último = %s%n",
+				(System.nanoTime() - t0) / 1e9, sg.history().size(), ultimo);
+
+		runAggregates(HistoryWindow.sliding(3), entradas);
+		compararMedias(50_000);
+	}
+
+	/**
+     * Muestra la media, la varianza, el mínimo, el máximo y el top-2 de una ventana tras cada evento.
+     */
+	private static void runAggregates(HistoryWindow<DoubleData> ventana, double[] entradas) {
+		RunningVariance<DoubleData> varianza = new RunningVariance<>(DoubleData::getValue);
+		RunningMin<DoubleData> min = new RunningMin<>(DoubleData::getValue);
+		RunningMax<DoubleData> max = new RunningMax<>(DoubleData::getValue);
+		TopK<DoubleData> top = new TopK<>(2, Comparator.comparingDouble(DoubleData::getValue));
+
+		StreamingStateGraph<DoubleData> sg = new StreamingStateGraph<>("aggregates", "Incremental aggregates", ventana);
+		sg.addAggregateNode("average", new RunningMean<>(DoubleData::getValue), DoubleData::setAverage)
+		  .addAggregateNode("variance", varianza, (DoubleData d, Double v) -> {})
+		  .addAggregateNode("min", min, (DoubleData d, Double v) -> {})
+		  .addAggregateNode("max", max, (DoubleData d, Double v) -> {})
+		  .addAggregateNode("top2", top, (DoubleData d, List<DoubleData> v) -> {})
+		  .addEdge("average", "variance").addEdge("variance", "min").addEdge("min", "max").addEdge("max", "top2")
+		  .setInitial("average");
+
+		System.out.println("\naggregates over sliding(3)");
+		for (double valor : entradas) {
+			DoubleData output = sg.run(new DoubleData(valor, 0.0), false);
+			System.out.printf("  %s -- var=%.3f min=%.1f max=%.1f top2=%s%n",
+					output, varianza.variance(), min.min(), max.max(), top.result());
+		}
+	}
+
+	/**
+     * Compara el tiempo de la media que recorre todo el historial con el de la media
+     * incremental, sobre un historial sin límite.
+     */
+	private static void compararMedias(int eventos) {
+		StreamingStateGraph<DoubleData> completa = buildWorkflow(HistoryWindow.unbounded());
+		StreamingStateGraph<DoubleData> incremental = new StreamingStateGraph<>("average", "Incremental average");
+		incremental.addAggregateNode("average", new RunningMean<>(DoubleData::getValue), DoubleData::setAverage)
+		           .setInitial("average");
+
+		long t0 = System.nanoTime();
+		DoubleData a = null;
+		for (int i = 0; i < eventos; i++) {
+			a = completa.run(new DoubleData(i % 200, 0.0), false);
+		}
+		long t1 = System.nanoTime();
+		DoubleData b = null;
+		for (int i = 0; i < eventos; i++) {
+			b = incremental.run(new DoubleData(i % 200, 0.0), false);
+		}
+		long t2 = System.nanoTime();
+		System.out.printf("%n%d eventos sin límite: recorriendo el historial %.2f s (%s), incremental %.3f s (%s)%n",
+				eventos, (t1 - t0) / 1e9, a, (t2 - t1) / 1e9, b);
+	}
+
+	/**
+     * Ejecuta el flujo average con una ventana y muestra el historial tras cada evento.
+     */
+	private static void runWorkflow(String nombre, HistoryWindow<DoubleData> ventana, double[] entradas) {
+		StreamingStateGraph<DoubleData> sg = buildWorkflow(ventana);
+		System.out.println("\n" + nombre);
+		for (double valor : entradas) {
+			DoubleData output = sg.run(new DoubleData(valor, 0.0), false);
+			System.out.println("  " + output + " -- history=" + sg.history());
+		}
+	}
+
+	/**
+     * Construye el flujo con el nodo average sobre un historial con ventana.
+     *
+     * @param ventana Historial con la política de retención.
+     * @return Un StreamingStateGraph con el flujo configurado.
+     */
+	private static StreamingStateGraph<DoubleData> buildWorkflow(HistoryWindow<DoubleData> ventana) {
+		StreamingStateGraph<DoubleData> graph = new StreamingStateGraph<>("average", "Average over a window", ventana);
+		graph.addNode("average", (List<DoubleData> dd) -> {
+			double suma = 0.0;
+			for (DoubleData v : dd) {
+				suma += v.getValue();
+			}
+			dd.getLast().setAverage(suma / dd.size());
+		});
+		graph.setInitial("average");
+		return graph;
+	}
+}
@@ -0,0 +1,87 @@
+package testers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import datos.NumericData;
+import grafos.StateGraph;
+import grafos.VirtualThreadExecutor;
+
+/**
+ * Compara hilos de plataforma y hilos virtuales al ejecutar por lotes un grafo cuyos
+ * nodos se bloquean (simulado con Thread.sleep), como ocurre con nodos que acceden a
+ * bases de datos o ficheros.
+ *
+ * @author Sofía Castro - sofiai.castro@estudiante.uam.es
+ * @author Sara Lorenzo - sara.lorenzot@estudiante.uam.es
+ * Pareja 11
+ */
+public class VirtualThreadBenchmark {
+	private static final int ENTRADAS = 5_000;
+	private static final long ESPERA_MS = 10;
+
+	/**
+     * Método principal que lanza las dos mediciones.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados).
+     */
+	public static void main(String[] args) {
+		StateGraph<NumericData> sg = buildWorkflow();
+		sg.seal();
+
+		for (int hilos : new int[] {50, 200}) {
+			ExecutorService pool = Executors.newFixedThreadPool(hilos);
+			medir("Plataforma (" + hilos + " hilos)", sg, pool);
+			pool.shutdown();
+		}
+		for (int maxEnCurso : new int[] {1_000, 10_000}) {
+			try (VirtualThreadExecutor vt = new VirtualThreadExecutor(maxEnCurso)) {
+				medir("Virtuales (max " + maxEnCurso + " en curso)", sg, vt);
+			}
+		}
+	}
+
+	/**
+     * Construye un flujo de tres nodos que se bloquean antes de operar.
+     *
+     * @return Grafo configurado.
+     */
+	private static StateGraph<NumericData> buildWorkflow() {
+		StateGraph<NumericData> sg = new StateGraph<>("blocking", "Nodes that wait on simulated I/O");
+		sg.addNode("read", (NumericData mo) -> { esperar(); mo.put("result", mo.get("op1")); })
+		  .addNode("query", (NumericData mo) -> { esperar(); mo.put("result", mo.get("result") + mo.get("op2")); })
+		  .addNode("write", (NumericData mo) -> esperar());
+		sg.addEdge("read", "query").addEdge("query", "write");
+		sg.setInitial("read");
+		sg.setFinal("write");
+		return sg;
+	}
+
+	/**
+     * Simula una operación bloqueante.
+     */
+	private static void esperar() {
+		try {
+			Thread.sleep(ESPERA_MS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+     * Ejecuta el lote completo con un ejecutor y muestra el tiempo y el rendimiento.
+     */
+	private static void medir(String nombre, StateGraph<NumericData> sg, Executor ejecutor) {
+		List<NumericData> inputs = new ArrayList<>();
+		for (int i = 0; i < ENTRADAS; i++) {
+			inputs.add(new NumericData(i, 1));
+		}
+		long t0 = System.nanoTime();
+		sg.runAll(inputs, ejecutor);
+		double segundos = (System.nanoTime() - t0) / 1e9;
+		System.out.printf("%-32s %6.2f s  %,10.0f runs/s%n", nombre, segundos, ENTRADAS / segundos);
+	}
+}